@@ -1,5 +1,7 @@
 module BFSPuzzleSolver {
     requires transitive javafx.controls;
+    requires java.management;
+    requires jdk.httpserver;
     exports puzzles.common.solver;
     exports puzzles.astro.gui;
     exports puzzles.astro.model;
@@ -1,7 +1,6 @@
 package puzzles.astro.gui;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -13,9 +12,12 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.stage.FileChooser;
 import puzzles.astro.model.AstroModel;
+import puzzles.common.BoardEvent;
 import puzzles.common.Coordinates;
 import puzzles.common.Direction;
 import puzzles.common.Observer;
+import puzzles.common.gui.BoardCanvas;
+import puzzles.common.gui.PlaybackControls;
 import puzzles.common.solver.Move;
 
 import javafx.application.Application;
@@ -24,6 +26,7 @@ import javafx.stage.Stage;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Objects;
 
 
@@ -38,8 +41,12 @@ public class AstroGUI extends Application implements Observer<AstroModel, String
     private Label status;  // game status
     private GridPane game;  // gridpane of game
     private Label selectedLabel; // selected box
+    private PlaybackControls playback;  // solve and play back controls
     private FileChooser fileChooser; // file chooser
     private Stage stage; // gui stage
+    private BoardCanvas canvas;  // board drawn on one canvas, null when drawn as tiles
+    private Label[][] tiles;  // one tile per cell, built once per board size
+    private ImageView[][] views;  // graphic of each tile, reused by every update
     /** The resources directory is located directly underneath the gui package */
     private final static String RESOURCES_DIR = "resources/";
 
@@ -59,6 +66,12 @@ public class AstroGUI extends Application implements Observer<AstroModel, String
 
     /** The size of all icons, in square dimension */
     private final static int ICON_SIZE = 75;
+    /** Boards with more cells than this are drawn on a canvas instead of as tiles */
+    private final static int LARGE_BOARD_CELLS = 2500;
+    /** Largest width of the board on a canvas, in pixels */
+    private final static int VIEW_WIDTH = 900;
+    /** Largest height of the board on a canvas, in pixels */
+    private final static int VIEW_HEIGHT = 700;
 
 
     /**
@@ -68,6 +81,7 @@ public class AstroGUI extends Application implements Observer<AstroModel, String
         filename = getParameters().getRaw().get(0);
         model = new AstroModel(filename);
         model.addObserver(this);
+        model.addEventObserver(this::apply);
         fileChooser = new FileChooser();
         this.fileChooser.setTitle("Open Astro File");
         this.fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text Files","*.txt"));
@@ -85,23 +99,19 @@ public class AstroGUI extends Application implements Observer<AstroModel, String
         status = new Label("");  // initialize status
 
         /** Game Grid (center) */
-        game = new GridPane();  // game grid
-        game.setPadding(new Insets(10, 10, 10, 10));  // set padding
-        game.setVgap(1);  // vertical gap inbetween tiles
-        game.setHgap(1);  // horizontal gap inbetween tiles
-        for(int row = 0; row < model.getRow(); row++) {
-            for(int col = 0; col < model.getCol(); col++) {
-                Label tile = new Label("");
-                tile.setMinSize(ICON_SIZE, ICON_SIZE);
-                tile.setAlignment(Pos.CENTER);
-                tile.setBackground(background);
-                int r = row;
-                int c = col;
-                tile.setOnMouseClicked(e -> select(tile, r, c));
-                GridPane.setRowIndex(tile, row);
-                GridPane.setColumnIndex(tile, col);
-                game.getChildren().add(tile);
-            }
+        if(getParameters().getRaw().contains("--canvas") || model.getRow() * model.getCol() > LARGE_BOARD_CELLS) {
+            canvas = new BoardCanvas((row, col) -> model.getContent(new Coordinates(row, col)).charAt(0),
+                    (piece, size) -> spriteFor(piece) == null ? null : getResourceIMG(spriteFor(piece), size),
+                    size -> getResourceIMG("space.png", size), ICON_SIZE);
+            canvas.setOnCellClicked(coords -> model.select(coords.row(), coords.col()));
+            canvas.setBoard(model.getRow(), model.getCol(), VIEW_WIDTH, VIEW_HEIGHT);
+        } else {
+            game = new GridPane();  // game grid
+            game.setPadding(new Insets(10, 10, 10, 10));  // set padding
+            game.setVgap(1);  // vertical gap inbetween tiles
+            game.setHgap(1);  // horizontal gap inbetween tiles
+            buildTiles(model.getRow(), model.getCol());
+            repaintAll();
         }
 
         /** Direction Buttons (right) */
@@ -135,6 +145,9 @@ public class AstroGUI extends Application implements Observer<AstroModel, String
         reset.setStyle("-fx-font-size:18");
         hint.setStyle("-fx-font-size:18");
         fp.getChildren().addAll(load, reset, hint);
+        playback = new PlaybackControls(() -> model.pathSearch(AstroModel.PLAYBACK_BUDGET_MILLIS),
+                model::startPlayback, model::playbackTo);
+        VBox bottom = new VBox(fp, playback);
 
         /** Status (top) */
         HBox top = new HBox();
@@ -160,9 +173,9 @@ public class AstroGUI extends Application implements Observer<AstroModel, String
         west.setOnAction(e -> model.makeMove(Direction.WEST));
 
         /** Main adding */
-        main.setCenter(game);
+        main.setCenter(canvas != null ? canvas : game);
         main.setRight(buttonsGrid);
-        main.setBottom(fp);
+        main.setBottom(bottom);
         main.setTop(top);
 
         /** Scene */
@@ -232,61 +245,143 @@ public class AstroGUI extends Application implements Observer<AstroModel, String
      */
     @Override
     public void update(AstroModel astroModel, String msg) {
-        game.getChildren().clear();  // clear all children after updating
+        status.setText(msg);
+    }
+
+    /**
+     * Called by the model with the board changes of one operation; only the tiles
+     * of changed cells are repainted
+     *
+     * @param astroModel the AstroModel
+     * @param events the changes, in order
+     */
+    private void apply(AstroModel astroModel, List<BoardEvent> events) {
+        for(BoardEvent event : events) {
+            if(event instanceof BoardEvent.Loaded) {
+                playback.reset();  // a new board, so the path played back is gone
+            }
+            switch(event) {
+                case BoardEvent.Loaded loaded when canvas != null -> {
+                    canvas.setBoard(loaded.rows(), loaded.cols(), VIEW_WIDTH, VIEW_HEIGHT);
+                    stage.sizeToScene();
+                }
+                case BoardEvent.CellChanged changed when canvas != null -> canvas.markDirty(changed.coordinates());
+                case BoardEvent.Selected selected when canvas != null -> canvas.setSelected(selected.coordinates());
+                case BoardEvent.Loaded loaded -> {
+                    if(tiles.length != loaded.rows() || tiles[0].length != loaded.cols()) {
+                        buildTiles(loaded.rows(), loaded.cols());  // the layout only changes with the board size
+                    }
+                    repaintAll();
+                }
+                case BoardEvent.CellChanged changed ->
+                        views[changed.coordinates().row()][changed.coordinates().col()].setImage(imageFor(changed.piece()));
+                case BoardEvent.Selected selected -> markSelected(selected.coordinates());
+                default -> {
+                }
+            }
+        }
+    }
 
-        /** Updating game grid */
-        for(int row = 0; row < astroModel.getRow(); row++) {
-            for(int col = 0; col < astroModel.getCol(); col++) {
+    /**
+     * Build a tile with an empty graphic for every cell, replacing the old tiles
+     *
+     * @param rows rows of the board
+     * @param cols columns of the board
+     */
+    private void buildTiles(int rows, int cols) {
+        game.getChildren().clear();
+        tiles = new Label[rows][cols];
+        views = new ImageView[rows][cols];
+        selectedLabel = null;
+        for(int row = 0; row < rows; row++) {
+            for(int col = 0; col < cols; col++) {
                 Label tile = new Label("");
                 tile.setMinSize(ICON_SIZE, ICON_SIZE);
                 tile.setAlignment(Pos.CENTER);
                 tile.setBackground(background);
+                ImageView view = new ImageView();
+                tile.setGraphic(view);
                 int r = row;
                 int c = col;
-                tile.setOnMouseClicked(e -> select(tile, r, c));
-                GridPane.setRowIndex(tile, row);
-                GridPane.setColumnIndex(tile, col);
-                game.getChildren().add(tile);
+                tile.setOnMouseClicked(e -> model.select(r, c));
+                game.add(tile, col, row);
+                tiles[row][col] = tile;
+                views[row][col] = view;
             }
         }
+        if(stage != null) {
+            stage.sizeToScene();
+        }
+    }
 
-        /** Updating cell tiles */
-        for(Node child : game.getChildren()) {
-            if(child instanceof Label label) {
-                int row = GridPane.getRowIndex(label);
-                int col = GridPane.getColumnIndex(label);
-                Coordinates coordinates = new Coordinates(row, col);
-                String value = astroModel.getContent(coordinates);
-                switch(value) {
-                    case "A" -> label.setGraphic(new ImageView(astronaut));
-                    case "*" -> label.setGraphic(new ImageView(earthGoal));
-                    case "B" -> label.setGraphic(new ImageView(blueRobot));
-                    case "C" -> label.setGraphic(new ImageView(greenRobot));
-                    case "D" -> label.setGraphic(new ImageView(lightblueRobot));
-                    case "E" -> label.setGraphic(new ImageView(orangeRobot));
-                    case "F" -> label.setGraphic(new ImageView(pinkRobot));
-                    case "G" -> label.setGraphic(new ImageView(purpleRobot));
-                    case "H" -> label.setGraphic(new ImageView(whiteRobot));
-                    case "I" -> label.setGraphic(new ImageView(yellowRobot));
-                }
+    /**
+     * Repaint every tile from the model, after a new board is loaded
+     */
+    private void repaintAll() {
+        for(int row = 0; row < tiles.length; row++) {
+            for(int col = 0; col < tiles[row].length; col++) {
+                views[row][col].setImage(imageFor(model.getContent(new Coordinates(row, col)).charAt(0)));
             }
-            status.setText(msg);
-            stage.sizeToScene();
         }
     }
 
     /**
-     * Selecting a tile from game
+     * Get the image of a cell's content
      *
-     * @param clicked selected box that is clicked
+     * @param value content of the cell
+     * @return the image, null for an empty cell
      */
-    private void select(Label clicked, int row, int col) {
+    private Image imageFor(char value) {
+        return switch(value) {
+            case 'A' -> astronaut;
+            case '*' -> earthGoal;
+            case 'B' -> blueRobot;
+            case 'C' -> greenRobot;
+            case 'D' -> lightblueRobot;
+            case 'E' -> orangeRobot;
+            case 'F' -> pinkRobot;
+            case 'G' -> purpleRobot;
+            case 'H' -> whiteRobot;
+            case 'I' -> yellowRobot;
+            default -> null;
+        };
+    }
+
+    /**
+     * Get the resource file of a cell's content, for images loaded at another size
+     *
+     * @param value content of the cell
+     * @return the file name, null for an empty cell
+     */
+    private static String spriteFor(char value) {
+        return switch(value) {
+            case 'A' -> "astro.png";
+            case '*' -> "earth.png";
+            case 'B' -> "robot-blue.png";
+            case 'C' -> "robot-green.png";
+            case 'D' -> "robot-lightblue.png";
+            case 'E' -> "robot-orange.png";
+            case 'F' -> "robot-pink.png";
+            case 'G' -> "robot-purple.png";
+            case 'H' -> "robot-white.png";
+            case 'I' -> "robot-yellow.png";
+            default -> null;
+        };
+    }
+
+    /**
+     * Mark the selected tile with a border, removing it from the one selected before
+     *
+     * @param coords selected cell, null if nothing is selected
+     */
+    private void markSelected(Coordinates coords) {
         if(selectedLabel != null) {
             selectedLabel.setStyle("-fx-border-width: 0;");
         }
-        model.select(row, col);  // notify observer & select
-        selectedLabel = clicked;
-        clicked.setStyle("-fx-border-color: red; -fx-border-width: 2px;");  // border doesnt work anymore?
+        selectedLabel = coords == null ? null : tiles[coords.row()][coords.col()];
+        if(selectedLabel != null) {
+            selectedLabel.setStyle("-fx-border-color: red; -fx-border-width: 2px;");
+        }
     }
 
     /**
@@ -299,14 +394,26 @@ public class AstroGUI extends Application implements Observer<AstroModel, String
         return new Image(Objects.requireNonNull(getClass().getResourceAsStream(RESOURCES_DIR + resource)));
     }
 
+    /**
+     * Gets resource image scaled to fit a square
+     *
+     * @param resource resource file
+     * @param size width and height of the square, in pixels
+     * @return resource image
+     */
+    public Image getResourceIMG(String resource, int size) {
+        return new Image(Objects.requireNonNull(getClass().getResourceAsStream(RESOURCES_DIR + resource)),
+                size, size, true, true);
+    }
+
     /**
      * Run the main program
      *
-     * @param args arguments
+     * @param args arguments (expect a file, optionally followed by --canvas)
      */
     public static void main(String[] args) {
-        if (args.length != 1) {
-            System.out.println("Usage: java AstroGUI filename");
+        if (args.length < 1 || args.length > 2 || (args.length == 2 && !args[1].equals("--canvas"))) {
+            System.out.println("Usage: java AstroGUI filename [--canvas]");
         } else {
             Application.launch(args);
         }
@@ -2,12 +2,18 @@ package puzzles.astro.model;
 
 import puzzles.common.Coordinates;
 import puzzles.common.Direction;
+import puzzles.common.io.ByteScanner;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Footprint;
+import puzzles.common.solver.Move;
+import puzzles.common.solver.MutableConfiguration;
+import puzzles.common.solver.ReversibleConfiguration;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static puzzles.common.Direction.*;
 
@@ -18,15 +24,26 @@ import static puzzles.common.Direction.*;
  * @author Quang Huynh (qth9368)
  */
 
-public class AstroConfig implements Configuration{
-    public String[][] grid;  // game grid
+public class AstroConfig implements MutableConfiguration, ReversibleConfiguration {
+    private String[][] grid;  // game grid, rows shared with other configs until written
     private Coordinates astroCoords;  // astronaut coordinates
     private Coordinates goalCoords;  // goal coordinates
     public int rows;  // rows of grid
     public int cols;  // columns of grid
     private Collection<Configuration> neighbors;  // neighbors collection
-    private Set<Piece> totalPieces;  // set containing all pieces (astronaut & robots)
-    private Piece astronaut;  // astronaut piece (symbol, coordinates)
+    private AstroReachability reachability;  // static analysis shared by every config of this puzzle
+    private Footprint footprint;  // cells touched by the move that produced this config
+    private int moveCost = 1;  // distance slid by the move that produced this config
+    private String goalSymbol;  // goal symbol, restored when the astronaut leaves the goal
+    private Move[] moveTable;  // one shared move per cell and direction, created on demand, shared by boards of this size
+    private Coordinates[] cellCoords;  // one shared coordinates per cell, created on demand, shared by boards of this size
+    private int[] undoTargets;  // cells the applied moves landed on, most recent last
+    private int undoSize;  // number of applied moves
+    private boolean[] ownedRows;  // rows no other config shares, so they can be written in place; null for none
+    private static final Direction[] MOVE_ORDER = {NORTH, SOUTH, WEST, EAST};  // order moves are tried in
+    private static final String EMPTY = ".";  // empty cell
+    private static final Map<Long, Move[]> MOVE_TABLES = new ConcurrentHashMap<>();  // move table of each grid size
+    private static final Map<Long, Coordinates[]> CELL_COORDS = new ConcurrentHashMap<>();  // cell coordinates of each grid size
 
     /**
      * Construct new AstroConfig
@@ -35,87 +52,253 @@ public class AstroConfig implements Configuration{
      * @throws IOException
      */
     public AstroConfig(String filename) throws IOException {
-        try(BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            totalPieces = new HashSet<>();
-            /** Read dimension info */
-            String line = br.readLine();
-            String dim[] = line.split("\\s+");
-            rows = Integer.parseInt(dim[0]);  // first line, first int is row
-            cols = Integer.parseInt(dim[1]); // first line, second int is col
-            grid = new String[rows][cols];  // initialize grid array with specified dimensions
-
-            /** Read goal info */
-            line = br.readLine();
-            String[] goalLine = line.split("\\s+");
-            int goalRow = Integer.parseInt(goalLine[1].split(",")[0]);
-            int goalColumn = Integer.parseInt(goalLine[1].split(",")[1]);
-            grid[goalRow][goalColumn] = goalLine[0];
-            goalCoords = new Coordinates(goalRow, goalColumn);
-
-            /** Read astronaut info */
-            line = br.readLine();
-            String[] astroLine = line.split("\\s+");
-            String astroSymbol = astroLine[0];
-            int astroRow = Integer.parseInt(astroLine[1].split(",")[0]);
-            int astroColumn = Integer.parseInt(astroLine[1].split(",")[1]);
-            grid[astroRow][astroColumn] = astroLine[0];
-            astroCoords = new Coordinates(astroRow, astroColumn);
-            astronaut = new Piece(astroSymbol, astroCoords);
-            totalPieces.add(astronaut);
-
-
-            /** Read number of robots and robot info */
-            line = br.readLine();
-            int numRobots = Integer.parseInt(line);
-            for(int i = 0; i < numRobots; i++) {
-                line = br.readLine();
-                String[] robotInfo = line.split("\\s+");
-                String robotSymbol = robotInfo[0];
-                int robotRow = Integer.parseInt(robotInfo[1].split(",")[0]);
-                int robotColumn = Integer.parseInt(robotInfo[1].split(",")[1]);
-                grid[robotRow][robotColumn] = robotSymbol;
-                Coordinates robotCoords = new Coordinates(robotRow, robotColumn);
-                Piece robot = new Piece(robotSymbol, robotCoords);
-                totalPieces.add(robot);
+        this(ByteScanner.open(Path.of(filename)));
+    }
+
+    /**
+     * Construct new AstroConfig from the text of an Astro file, read straight from its bytes
+     *
+     * @param in the file's text
+     * @throws IOException if the text isn't an Astro puzzle
+     */
+    public AstroConfig(ByteScanner in) throws IOException {
+        /** Read dimension info */
+        startGrid(in.nextInt(), in.nextInt());
+        /** Read goal info */
+        placeGoal(in.nextSymbol(), in.nextInt(), in.nextInt());
+        /** Read astronaut info */
+        placeAstronaut(in.nextSymbol(), in.nextInt(), in.nextInt());
+        /** Read number of robots and robot info */
+        int numRobots = in.nextInt();
+        for(int i = 0; i < numRobots; i++) {
+            placeRobot(in.nextSymbol(), in.nextInt(), in.nextInt());
+        }
+        finishGrid();
+    }
+
+    /**
+     * Construct new AstroConfig from a board packed by {@link #pack()}
+     *
+     * @param record the packed board, from its position
+     */
+    public AstroConfig(ByteBuffer record) {
+        startGrid(record.getShort(), record.getShort());
+        placeGoal(ByteScanner.symbol(record.get()), record.getShort(), record.getShort());
+        placeAstronaut(ByteScanner.symbol(record.get()), record.getShort(), record.getShort());
+        int numRobots = record.getShort();
+        for(int i = 0; i < numRobots; i++) {
+            placeRobot(ByteScanner.symbol(record.get()), record.getShort(), record.getShort());
+        }
+        finishGrid();
+    }
+
+    /**
+     * Start an empty grid
+     *
+     * @param rows rows of grid
+     * @param cols columns of grid
+     */
+    private void startGrid(int rows, int cols) {
+        this.rows = rows;  // first line, first int is row
+        this.cols = cols;  // first line, second int is col
+        grid = new String[rows][cols];  // initialize grid array with specified dimensions
+    }
+
+    /**
+     * Put the goal on the grid
+     *
+     * @param symbol goal symbol
+     * @param row row of the goal
+     * @param col column of the goal
+     */
+    private void placeGoal(String symbol, int row, int col) {
+        grid[row][col] = symbol;
+        goalCoords = new Coordinates(row, col);
+        goalSymbol = symbol;
+    }
+
+    /**
+     * Put the astronaut on the grid
+     *
+     * @param symbol astronaut symbol
+     * @param row row of the astronaut
+     * @param col column of the astronaut
+     */
+    private void placeAstronaut(String symbol, int row, int col) {
+        grid[row][col] = symbol;
+        astroCoords = new Coordinates(row, col);
+    }
+
+    /**
+     * Put a robot on the grid
+     *
+     * @param symbol robot symbol
+     * @param row row of the robot
+     * @param col column of the robot
+     */
+    private void placeRobot(String symbol, int row, int col) {
+        grid[row][col] = symbol;
+    }
+
+    /**
+     * Assign grid with remaining cells and analyse it once every piece is placed
+     */
+    private void finishGrid() {
+        for(int row = 0; row < rows; row++) {
+            for(int col = 0; col < cols; col++) {
+                if(grid[row][col] == null) {
+                    grid[row][col] = EMPTY;
+                }
             }
+        }
+        reachability = new AstroReachability(grid, astroCoords, goalCoords);
+        long size = (long) rows << 32 | cols;
+        moveTable = MOVE_TABLES.computeIfAbsent(size, s -> new Move[rows * cols * MOVE_ORDER.length]);
+        cellCoords = CELL_COORDS.computeIfAbsent(size, s -> new Coordinates[rows * cols]);
+    }
 
-            /** Assign Grid with remaining cells*/
-            for(int row = 0; row < rows; row++) {
-                for(int col = 0; col < cols; col++) {
-                    if(grid[row][col] == null) {
-                        grid[row][col] = ".";
-                    }
+    /**
+     * Pack the board into a record of a {@link puzzles.common.io.BoardArchive}: the grid size,
+     * the goal, the astronaut, then every robot, each as a symbol byte and two shorts
+     *
+     * @return the packed board
+     * @throws IllegalStateException if a symbol isn't a single ASCII character
+     */
+    public byte[] pack() {
+        List<Coordinates> robots = getRobotCoords();
+        ByteBuffer record = ByteBuffer.allocate(4 + 5 * (robots.size() + 2) + 2);
+        record.putShort((short) rows).putShort((short) cols);
+        putPiece(record, goalSymbol, goalCoords);
+        putPiece(record, grid[astroCoords.row()][astroCoords.col()], astroCoords);
+        record.putShort((short) robots.size());
+        for(Coordinates robot : robots) {
+            putPiece(record, grid[robot.row()][robot.col()], robot);
+        }
+        return record.array();
+    }
+
+    /**
+     * Gets the text of an Astro file that loads this board
+     *
+     * @return the file's text
+     */
+    public String toFileText() {
+        List<Coordinates> robots = getRobotCoords();
+        StringBuilder text = new StringBuilder();
+        text.append(rows).append(' ').append(cols).append('\n');
+        text.append(goalSymbol).append(' ').append(goalCoords.row()).append(',').append(goalCoords.col()).append('\n');
+        text.append(grid[astroCoords.row()][astroCoords.col()]).append(' ')
+                .append(astroCoords.row()).append(',').append(astroCoords.col()).append('\n');
+        text.append(robots.size()).append('\n');
+        for(Coordinates robot : robots) {
+            text.append(grid[robot.row()][robot.col()]).append(' ').append(robot.row()).append(',').append(robot.col()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Gets where the robots are: every piece but the astronaut, row by row
+     *
+     * @return robot coordinates
+     */
+    private List<Coordinates> getRobotCoords() {
+        List<Coordinates> robots = new ArrayList<>();
+        for(int row = 0; row < rows; row++) {
+            for(int col = 0; col < cols; col++) {
+                if(!isOpen(row, col) && !(row == astroCoords.row() && col == astroCoords.col())) {
+                    robots.add(new Coordinates(row, col));
                 }
             }
         }
+        return robots;
+    }
+
+    /**
+     * Is a cell free for a piece to slide over: empty, or the goal with nobody on it?
+     *
+     * @param row row index
+     * @param col column index
+     * @return true if no piece is on the cell
+     */
+    private boolean isOpen(int row, int col) {
+        return grid[row][col].equals(EMPTY)
+                || (row == goalCoords.row() && col == goalCoords.col() && grid[row][col].equals(goalSymbol));
+    }
+
+    /**
+     * Pack a piece as its symbol byte, row and column
+     *
+     * @param record the record being packed
+     * @param symbol the piece's symbol
+     * @param coords the piece's cell
+     */
+    private static void putPiece(ByteBuffer record, String symbol, Coordinates coords) {
+        if(symbol.length() != 1 || symbol.charAt(0) > 127) {
+            throw new IllegalStateException("Can't pack symbol " + symbol);
+        }
+        record.put((byte) symbol.charAt(0)).putShort((short) coords.row()).putShort((short) coords.col());
     }
 
     /**
-     * AstroConfig constructor
+     * AstroConfig constructor. The copy shares every row of the grid with the other config,
+     * so neither may write a row in place until it has its own copy of it
      *
      * @param other other AstroConfig
      */
     public AstroConfig(AstroConfig other) {
         this.rows = other.rows;
         this.cols = other.cols;
-        this.grid = copyGrid(other.grid);
+        this.grid = other.grid.clone();  // row pointers only
+        other.ownedRows = null;  // its rows are shared from now on
         this.astroCoords = other.astroCoords;
         this.goalCoords = other.goalCoords;
+        this.reachability = other.reachability;
+        this.goalSymbol = other.goalSymbol;
+        this.moveTable = other.moveTable;
+        this.cellCoords = other.cellCoords;
         this.neighbors = new HashSet<>();
     }
 
     /**
-     * Copies other grid
+     * Gets a row that can be written in place, copying it first if it may be shared
+     *
+     * @param row row index
+     * @return the row
+     */
+    private String[] writableRow(int row) {
+        if(ownedRows == null) {
+            ownedRows = new boolean[rows];
+        }
+        if(!ownedRows[row]) {
+            grid[row] = grid[row].clone();
+            ownedRows[row] = true;
+        }
+        return grid[row];
+    }
+
+    /**
+     * Gets a config with a piece moved, sharing every row but the changed ones with this config
      *
-     * @param original original grid
-     * @return copied grid
+     * @param fromRow row the piece leaves
+     * @param fromCol column the piece leaves
+     * @param toRow row the piece lands on
+     * @param toCol column the piece lands on
+     * @return the new config
      */
-    private String[][] copyGrid(String[][] original) {
-        String[][] newGrid = new String[original.length][original[0].length];
-        for (int i = 0; i < original.length; i++) {
-            System.arraycopy(original[i], 0, newGrid[i], 0, original[i].length);
+    private AstroConfig withMove(int fromRow, int fromCol, int toRow, int toCol) {
+        AstroConfig newConfig = new AstroConfig(this);
+        String piece = grid[fromRow][fromCol];
+        newConfig.grid[fromRow] = grid[fromRow].clone();
+        if(toRow != fromRow) {
+            newConfig.grid[toRow] = grid[toRow].clone();
         }
-        return newGrid;
+        newConfig.grid[fromRow][fromCol] = ".";
+        newConfig.grid[toRow][toCol] = piece;
+        if(piece.equals("A")) {  // update astro coordinates if it's the astronaut
+            newConfig.astroCoords = sharedCoords(toRow * cols + toCol);
+        }
+        newConfig.moveCost = Math.abs(toRow - fromRow) + Math.abs(toCol - fromCol);
+        return newConfig;
     }
 
     /**
@@ -128,6 +311,50 @@ public class AstroConfig implements Configuration{
         return Objects.equals(astroCoords, goalCoords);
     }
 
+    /**
+     * The astronaut is stranded when the static analysis shows it can never reach the goal
+     * from where it stands, whatever the robots do
+     *
+     * @return true if no solution can be reached from this config
+     */
+    @Override
+    public boolean isDeadEnd() {
+        return reachability.isStranded(astroCoords);
+    }
+
+    /**
+     * A lower bound on the moves left: none at the goal, one when the astronaut is in the
+     * goal's row or column and two otherwise, since the last move slides it along one of them
+     *
+     * @return 0, 1 or 2
+     */
+    public int getGoalLineBound() {
+        if(isSolution()) {
+            return 0;
+        }
+        return astroCoords.row() == goalCoords.row() || astroCoords.col() == goalCoords.col() ? 1 : 2;
+    }
+
+    /**
+     * Get the footprint of the slide that produced this config
+     *
+     * @return footprint, or null for a loaded config
+     */
+    @Override
+    public Footprint getFootprint() {
+        return footprint;
+    }
+
+    /**
+     * Get the number of cells slid by the move that produced this config
+     *
+     * @return slide distance, 1 for a loaded config
+     */
+    @Override
+    public int getMoveCost() {
+        return moveCost;
+    }
+
     /**
      * Retrieves the neighboring configs of the current config
      *
@@ -162,22 +389,90 @@ public class AstroConfig implements Configuration{
      * @param direction cardinal direction (n, s, e, w)
      */
     public void checkAndAddNeighbor(int row, int col, Direction direction) {
-        int cursorRow = 0;
-        int cursorCol = 0;
-        switch(direction) {
-            case NORTH:
-                cursorRow = -1;
-                break;
-            case SOUTH:
-                cursorRow = 1;
-                break;
-            case EAST:
-                cursorCol = 1;
-                break;
-            case WEST:
-                cursorCol = -1;
-                break;
+        int target = slideTarget(row, col, direction);
+        if(target >= 0) {
+            int nextRow = target / cols;
+            int nextCol = target % cols;
+            int cursorRow = rowStep(direction);
+            int cursorCol = colStep(direction);
+            AstroConfig newConfig = withMove(row, col, nextRow, nextCol);
+            BitSet cells = new BitSet(rows * cols);  // the slide plus the blocker it stopped at
+            for(int r = row, c = col; r != nextRow + 2 * cursorRow || c != nextCol + 2 * cursorCol; r += cursorRow, c += cursorCol) {
+                cells.set(r * cols + c);
+            }
+            newConfig.footprint = new Footprint((long) (row * cols + col) * rows * cols + nextRow * cols + nextCol, cells);
+            this.neighbors.add(newConfig);
+        }
+    }
+
+    /**
+     * Finds every config one slide before this one. A piece stopped here against the piece next to
+     * it, so it may have come from any open cell behind it, up to the first piece or the edge;
+     * nothing starts a slide on the goal. Only the astronaut is taken back off the goal, since the
+     * config before a robot's slide would already be solved. The predecessors share this config's
+     * reachability analysis, which only fits the board it was loaded with, so reload them from
+     * {@link #pack()} before solving them.
+     *
+     * @return the configs whose neighbors include this one
+     */
+    @Override
+    public List<ReversibleConfiguration> getPredecessors() {
+        List<ReversibleConfiguration> predecessors = new ArrayList<>();
+        boolean solved = isSolution();
+        for(int row = 0; row < rows; row++) {
+            for(int col = 0; col < cols; col++) {
+                if(isOpen(row, col) || (solved && !(row == astroCoords.row() && col == astroCoords.col()))) {
+                    continue;
+                }
+                for(Direction direction : MOVE_ORDER) {
+                    int stepRow = rowStep(direction);
+                    int stepCol = colStep(direction);
+                    if(!inBounds(row + stepRow, col + stepCol) || isOpen(row + stepRow, col + stepCol)) {
+                        continue;  // nothing stopped a slide this way
+                    }
+                    for(int fromRow = row - stepRow, fromCol = col - stepCol;
+                            inBounds(fromRow, fromCol) && isOpen(fromRow, fromCol);
+                            fromRow -= stepRow, fromCol -= stepCol) {
+                        if(fromRow == goalCoords.row() && fromCol == goalCoords.col()) {
+                            continue;
+                        }
+                        AstroConfig before = withMove(row, col, fromRow, fromCol);
+                        if(row == goalCoords.row() && col == goalCoords.col()) {
+                            before.grid[row][col] = goalSymbol;  // the astronaut leaves the goal showing
+                        }
+                        before.moveCost = 1;
+                        predecessors.add(before);
+                    }
+                }
+            }
         }
+        return predecessors;
+    }
+
+    /**
+     * Checks if coordinates are on the grid
+     *
+     * @param row row index
+     * @param col column index
+     * @return true if on the grid
+     */
+    private boolean inBounds(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    /**
+     * Finds where a piece stops when it slides in a direction.
+     * It will move towards the other piece and stop one tile before it,
+     * travelling over the goal, and only the astronaut may stop on the goal
+     *
+     * @param row row index
+     * @param col column index
+     * @param direction cardinal direction (n, s, e, w)
+     * @return the cell it stops on as row * cols + col, or -1 if it can't move that way
+     */
+    private int slideTarget(int row, int col, Direction direction) {
+        int cursorRow = rowStep(direction);
+        int cursorCol = colStep(direction);
         int nextRow = row + cursorRow;
         int nextCol = col + cursorCol;
         boolean foundPiece = false;
@@ -196,17 +491,178 @@ public class AstroConfig implements Configuration{
         }
         if(nextRow >= 0 && nextRow < rows && nextCol >= 0 && nextCol < cols && !(nextRow == row && nextCol == col)) {
             if(grid[nextRow][nextCol].equals(".") || (grid[row][col].equals("A") && nextRow == goalCoords.row() && nextCol == goalCoords.col())) {
-                AstroConfig newConfig = new AstroConfig(this);
-                newConfig.grid[row][col] = ".";
-                newConfig.grid[nextRow][nextCol] = grid[row][col];
-                if(grid[row][col].equals("A")) {  // update astro coordinates if it's the astronaut
-                    newConfig.astroCoords = new Coordinates(nextRow, nextCol);
+                return nextRow * cols + nextCol;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Row offset of one step in a direction
+     *
+     * @param direction cardinal direction (n, s, e, w)
+     * @return -1, 0 or 1
+     */
+    private static int rowStep(Direction direction) {
+        return switch(direction) {
+            case NORTH -> -1;
+            case SOUTH -> 1;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Column offset of one step in a direction
+     *
+     * @param direction cardinal direction (n, s, e, w)
+     * @return -1, 0 or 1
+     */
+    private static int colStep(Direction direction) {
+        return switch(direction) {
+            case EAST -> 1;
+            case WEST -> -1;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Lists every legal slide, in the same order getNeighbors tries them
+     *
+     * @param moves list to fill, cleared first
+     */
+    @Override
+    public void getMoves(List<Move> moves) {
+        moves.clear();
+        String goalContent = grid[goalCoords.row()][goalCoords.col()];
+        for(int row = 0; row < rows; row++) {
+            for(int col = 0; col < cols; col++) {
+                if(grid[row][col].equals(".") || grid[row][col].equals(goalContent)) {
+                    continue;
+                }
+                for(int dir = 0; dir < MOVE_ORDER.length; dir++) {
+                    if(slideTarget(row, col, MOVE_ORDER[dir]) >= 0) {
+                        moves.add(sharedMove(row * cols + col, dir));
+                    }
                 }
-                this.neighbors.add(newConfig);
             }
         }
     }
 
+    /**
+     * Finds where a move would leave its piece
+     *
+     * @param move a piece and a direction
+     * @return coordinates the piece stops on, or null if the move is not legal
+     */
+    public Coordinates getTarget(Move move) {
+        Coordinates from = move.getCoordinates();
+        if(move.getDirection() == null || from.row() < 0 || from.row() >= rows || from.col() < 0 || from.col() >= cols
+                || grid[from.row()][from.col()].equals(".") || grid[from.row()][from.col()].equals(goalSymbol)) {
+            return null;
+        }
+        int target = slideTarget(from.row(), from.col(), move.getDirection());
+        return target < 0 ? null : sharedCoords(target);
+    }
+
+    /**
+     * Slides a piece in place, remembering where it landed so it can be undone
+     *
+     * @param move a legal move
+     */
+    @Override
+    public void makeMove(Move move) {
+        Coordinates from = move.getCoordinates();
+        int target = slideTarget(from.row(), from.col(), move.getDirection());
+        if(undoTargets == null) {
+            undoTargets = new int[16];
+        } else if(undoSize == undoTargets.length) {
+            undoTargets = Arrays.copyOf(undoTargets, undoSize * 2);
+        }
+        undoTargets[undoSize++] = target;
+        slide(from, target);
+    }
+
+    /**
+     * Slides a piece in place for good, keeping nothing to undo it with, as a player's moves are
+     *
+     * @param move a legal move
+     */
+    public void applyMove(Move move) {
+        Coordinates from = move.getCoordinates();
+        slide(from, slideTarget(from.row(), from.col(), move.getDirection()));
+    }
+
+    /**
+     * Moves a piece from its cell to another
+     *
+     * @param from the piece's cell
+     * @param target index of the cell it lands on
+     */
+    private void slide(Coordinates from, int target) {
+        String piece = grid[from.row()][from.col()];
+        writableRow(from.row())[from.col()] = ".";
+        writableRow(target / cols)[target % cols] = piece;
+        if(piece.equals("A")) {
+            astroCoords = sharedCoords(target);
+        }
+    }
+
+    /**
+     * Slides the piece of the most recent move back where it came from
+     *
+     * @param move the move that was applied
+     */
+    @Override
+    public void unmakeMove(Move move) {
+        Coordinates from = move.getCoordinates();
+        int target = undoTargets[--undoSize];
+        String piece = grid[target / cols][target % cols];
+        boolean onGoal = target == goalCoords.row() * cols + goalCoords.col();
+        writableRow(target / cols)[target % cols] = onGoal ? goalSymbol : ".";
+        writableRow(from.row())[from.col()] = piece;
+        if(piece.equals("A")) {
+            astroCoords = from;
+        }
+    }
+
+    /**
+     * Get an independent copy of this config, sharing rows until either one writes them
+     *
+     * @return the copy
+     */
+    @Override
+    public MutableConfiguration copy() {
+        return new AstroConfig(this);
+    }
+
+    /**
+     * Shared move for a cell and direction
+     *
+     * @param cell row * cols + col
+     * @param dir index into the move order
+     * @return the move
+     */
+    private Move sharedMove(int cell, int dir) {
+        int index = cell * MOVE_ORDER.length + dir;
+        if(moveTable[index] == null) {
+            moveTable[index] = new Move(sharedCoords(cell), MOVE_ORDER[dir]);
+        }
+        return moveTable[index];
+    }
+
+    /**
+     * Shared coordinates for a cell
+     *
+     * @param cell row * cols + col
+     * @return the coordinates
+     */
+    private Coordinates sharedCoords(int cell) {
+        if(cellCoords[cell] == null) {
+            cellCoords[cell] = new Coordinates(cell / cols, cell % cols);
+        }
+        return cellCoords[cell];
+    }
+
     /**
      * Checks if another object's hours and current is equal to this config
      *
@@ -233,6 +689,22 @@ public class AstroConfig implements Configuration{
         return Objects.hash(Arrays.deepHashCode(grid), astroCoords, goalCoords);
     }
 
+    /**
+     * Encodes the grid as one byte per cell, row by row
+     *
+     * @return the encoding
+     */
+    @Override
+    public byte[] encode() {
+        byte[] bytes = new byte[rows * cols];
+        for(int row = 0; row < rows; row++) {
+            for(int col = 0; col < cols; col++) {
+                bytes[row * cols + col] = (byte) grid[row][col].charAt(0);
+            }
+        }
+        return bytes;
+    }
+
     /**
      * Prints Astro grid
      *
@@ -253,12 +725,38 @@ public class AstroConfig implements Configuration{
     }
 
     /**
-     * Returns matrix
+     * Returns a copy of the grid, which can be changed without changing this config
      *
      * @return return grid matrix of astro
      */
     public String[][] getGrid() {
-        return grid;
+        String[][] copy = new String[rows][];
+        for(int row = 0; row < rows; row++) {
+            copy[row] = grid[row].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Lists the cells whose content differs on another config of the same size.
+     * Rows the two configs share are skipped without comparing cells.
+     *
+     * @param other the other config
+     * @return the coordinates of the changed cells, row by row
+     */
+    public List<Coordinates> getChangedCells(AstroConfig other) {
+        List<Coordinates> changed = new ArrayList<>();
+        for(int row = 0; row < rows; row++) {
+            if(grid[row] == other.grid[row]) {
+                continue;
+            }
+            for(int col = 0; col < cols; col++) {
+                if(!grid[row][col].equals(other.grid[row][col])) {
+                    changed.add(new Coordinates(row, col));
+                }
+            }
+        }
+        return changed;
     }
 
     /**
@@ -273,14 +771,34 @@ public class AstroConfig implements Configuration{
     }
 
     /**
-     * Moves the astronaut to the specified coordinates.
+     * Get cell value
+     *
+     * @param row row of the cell
+     * @param col column of the cell
+     * @return cell value at the row and column
+     */
+    public String getCellValue(int row, int col) {
+        return grid[row][col];
+    }
+
+    /**
+     * Moves the selected piece to the specified coordinates, leaving this config unchanged
+     *
+     * @param selectedCoords coordinates of the piece
+     * @param newCoords the new coordinates of the piece
+     * @return the config with the piece moved
+     */
+    public AstroConfig moveSelected(Coordinates selectedCoords, Coordinates newCoords) {
+        return withMove(selectedCoords.row(), selectedCoords.col(), newCoords.row(), newCoords.col());
+    }
+
+    /**
+     * Get the static reachability analysis of this puzzle
      *
-     * @param newCoords the new coordinates of the astronaut
+     * @return reachability analysis
      */
-    public void moveSelected(Coordinates selectedCoords, Coordinates newCoords) {
-        String selectedCellValue = grid[selectedCoords.row()][selectedCoords.col()];
-        grid[selectedCoords.row()][selectedCoords.col()] = ".";
-        grid[newCoords.row()][newCoords.col()] = selectedCellValue;
+    public AstroReachability getReachability() {
+        return reachability;
     }
 
     /**
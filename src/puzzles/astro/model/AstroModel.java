@@ -1,14 +1,18 @@
 package puzzles.astro.model;
 
+import puzzles.common.BoardEvent;
 import puzzles.common.Coordinates;
 import puzzles.common.Direction;
 import puzzles.common.Observer;
+import puzzles.common.solver.AnytimeSolver;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.HintSpeculator;
 import puzzles.common.solver.Move;
-import puzzles.common.solver.Solver;
 import puzzles.common.Direction.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
@@ -21,16 +25,32 @@ import java.util.Set;
  * @author Quang Huynh (qth9368)
  */
 public class AstroModel {
+    /** Default time a hint may take, in milliseconds */
+    public static final long HINT_BUDGET_MILLIS = 50;
+    /** Weight of the estimate in the hint search; larger finds a first path sooner */
+    private static final int HINT_WEIGHT = 3;
+    /** Default time the search for a path to play back may take, in milliseconds */
+    public static final long PLAYBACK_BUDGET_MILLIS = 2000;
     private String EARTH_SYMBOL = "*";  // goal
     public String EMPTY_SYMBOL = ".";  // empty cell
     public String ASTRONAUT_SYMBOL = "A";
     private String filename;  // filename
     private Coordinates selectedCoords;  // selected tile coords
+    private List<Configuration> playbackPath;  // board after each step of the path played back, null if none
     /** the collection of observers of this model */
     private final List<Observer<AstroModel, String>> observers = new LinkedList<>();
+    /** the collection of observers of the typed board events */
+    private final List<Observer<AstroModel, List<BoardEvent>>> eventObservers = new LinkedList<>();
+    /** events of the current operation, sent together when it ends */
+    private final List<BoardEvent> pendingEvents = new ArrayList<>();
+    /** the board text, reused by every rendering */
+    private final StringBuilder text = new StringBuilder();
 
     /** the current configuration */
     private AstroConfig currentConfig;
+    /** searches for hints from the boards the selected piece can move to, while the player thinks */
+    private final HintSpeculator speculator = new HintSpeculator(() -> new AnytimeSolver(
+            config -> ((AstroConfig) config).getGoalLineBound(), HINT_WEIGHT, HINT_BUDGET_MILLIS));
 
     /**
      * The view calls this to add itself as an observer.
@@ -41,6 +61,15 @@ public class AstroModel {
         this.observers.add(observer);
     }
 
+    /**
+     * A view calls this to be told about board changes as typed events
+     *
+     * @param observer the view
+     */
+    public void addEventObserver(Observer<AstroModel, List<BoardEvent>> observer) {
+        this.eventObservers.add(observer);
+    }
+
     /**
      * The model's state has changed (the counter), so inform the view via
      * the update method
@@ -51,6 +80,55 @@ public class AstroModel {
         }
     }
 
+    /**
+     * Add an event to the current operation, replacing an earlier change of the same cell
+     *
+     * @param event the event
+     */
+    private void addEvent(BoardEvent event) {
+        if(event instanceof BoardEvent.CellChanged changed) {
+            pendingEvents.removeIf(other -> other instanceof BoardEvent.CellChanged earlier
+                    && earlier.coordinates().equals(changed.coordinates()));
+        }
+        pendingEvents.add(event);
+    }
+
+    /**
+     * Add a change event for a cell, with its content on the current board
+     *
+     * @param coords the cell
+     */
+    private void addCellEvent(Coordinates coords) {
+        addEvent(new BoardEvent.CellChanged(coords, currentConfig.getCellValue(coords).charAt(0)));
+    }
+
+    /**
+     * Add change events for the cells that differ between two boards of the same size.
+     * Rows a config shares with the one it was made from are skipped without comparing cells.
+     *
+     * @param before the board before the change
+     * @param after the board after it
+     */
+    private void addDiffEvents(AstroConfig before, AstroConfig after) {
+        for(Coordinates coords : before.getChangedCells(after)) {
+            addCellEvent(coords);
+        }
+    }
+
+    /**
+     * Send the events of the operation that just ended to the event observers, as one list
+     */
+    private void flushEvents() {
+        if(pendingEvents.isEmpty()) {
+            return;
+        }
+        List<BoardEvent> events = List.copyOf(pendingEvents);
+        pendingEvents.clear();
+        for(var observer : eventObservers) {
+            observer.update(this, events);
+        }
+    }
+
     /**
      * Creates a new game
      * @param filename name of Astro puzzle
@@ -95,42 +173,166 @@ public class AstroModel {
         try {
             this.filename = filename;
             this.currentConfig = new AstroConfig(filename);
+            playbackPath = null;
+            speculator.cancel();
             notifyObservers("Loaded: " + filename);
+            notifyIfUnsolvable();
+            addEvent(new BoardEvent.Loaded(filename, getRow(), getCol()));
+            flushEvents();
         } catch(IOException e) {
             notifyObservers("Failed to load puzzle: " + filename);
         }
     }
 
     /**
-     * Does the next move for user
+     * Does the next move for user, within the default time budget
      */
     public void getHint() {
-        Solver solver = new Solver();
-        List<Configuration> path = solver.solve(currentConfig);
+        getHint(HINT_BUDGET_MILLIS);
+    }
+
+    /**
+     * Does the next move for user. The hint comes from the shortest path found within the
+     * budget, and observers are told whether that path is proven shortest or the best so far
+     *
+     * @param budgetMillis time the search may take, in milliseconds
+     */
+    public void getHint(long budgetMillis) {
         if(currentConfig.isSolution()) {  // check if current solution
             notifyObservers("Already solved!");
             return;
         }
-        if(path.isEmpty() || (path.size() == 1 && !path.get(0).isSolution())) {
+        if(currentConfig.isDeadEnd()) {  // astronaut can never reach the goal, skip the search
             notifyObservers("No solution!");
+            addEvent(new BoardEvent.HintResult(List.of(), true));
+            flushEvents();
             return;
         }
-        Configuration lastConfig = path.get(path.size() - 1);
-        if(!lastConfig.isSolution()) {
-            notifyObservers("No solution!");
-            return;
+        // a hint found ahead of time was searched with the default budget
+        HintSpeculator.Hint hint = budgetMillis <= HINT_BUDGET_MILLIS ? speculator.take(currentConfig) : null;
+        if(hint == null) {
+            AnytimeSolver solver = new AnytimeSolver(config -> ((AstroConfig) config).getGoalLineBound(),
+                    HINT_WEIGHT, budgetMillis);
+            List<Configuration> path = solver.solve(currentConfig);
+            hint = new HintSpeculator.Hint(path, solver.isOptimal());
         }
-        if(path.size() > 1 && path.get(1) instanceof AstroConfig) {
-            Configuration nextConfig = path.get(1);
-            this.currentConfig = (AstroConfig) nextConfig;
-            notifyObservers("Next step!");
+        List<Configuration> path = hint.path();
+        addEvent(new BoardEvent.HintResult(path, hint.optimal()));
+        if(path.size() > 1 && path.get(1) instanceof AstroConfig nextConfig) {
+            AstroConfig before = currentConfig;
+            this.currentConfig = new AstroConfig(nextConfig);  // moves change the board in place, the published path stays as found
+            playbackPath = null;
+            notifyObservers(hint.optimal() ? "Next step! (optimal)" : "Next step! (best so far)");
+            addDiffEvents(before, currentConfig);
+            if(currentConfig.isSolution()) {
+                addEvent(new BoardEvent.Solved());
+            }
         } else {
             notifyObservers("No solution!");
         }
+        flushEvents();
     }
 
 
 
+    /**
+     * Make a search for a whole path from the current board, to be run on another thread.
+     * It searches from a copy, so the board may change while it runs.
+     *
+     * @param budgetMillis time the search may take once it has found a path, in milliseconds
+     * @return the search, giving configs from the board to a solution, empty if there is none
+     */
+    public Callable<List<Configuration>> pathSearch(long budgetMillis) {
+        AstroConfig start = new AstroConfig(currentConfig);
+        return () -> new AnytimeSolver(config -> ((AstroConfig) config).getGoalLineBound(),
+                HINT_WEIGHT, budgetMillis).solve(start);
+    }
+
+    /**
+     * Keep a path found by a {@link #pathSearch} for playback, if it starts from the current board
+     *
+     * @param path configs from the board to a solution
+     * @return number of steps of the path, -1 if it is empty or the board has changed since
+     */
+    public int startPlayback(List<Configuration> path) {
+        if(path.isEmpty() || !path.get(0).equals(currentConfig)) {
+            playbackPath = null;
+            notifyObservers(path.isEmpty() ? "No solution!" : "Board changed, solve again!");
+            return -1;
+        }
+        playbackPath = path;
+        selectedCoords = null;
+        notifyObservers("Playing " + (path.size() - 1) + " steps");
+        addEvent(new BoardEvent.Selected(null));
+        flushEvents();
+        return path.size() - 1;
+    }
+
+    /**
+     * Show a step of the path being played back. Every board of the path is kept, so this
+     * never searches, and the board shown is a copy, so moves made from it leave the path alone.
+     *
+     * @param step the step, 0 for the board the path starts from
+     * @return false if no path is played back, since it was found the board was changed otherwise
+     */
+    public boolean playbackTo(int step) {
+        if(playbackPath == null || step < 0 || step >= playbackPath.size()) {
+            return false;
+        }
+        AstroConfig before = currentConfig;
+        currentConfig = new AstroConfig((AstroConfig) playbackPath.get(step));
+        notifyObservers("Step " + step + " of " + (playbackPath.size() - 1));
+        addDiffEvents(before, currentConfig);
+        if(currentConfig.isSolution()) {
+            addEvent(new BoardEvent.Solved());
+        }
+        flushEvents();
+        return true;
+    }
+
+    /**
+     * Gets how well hints found ahead of time are used, for tuning
+     *
+     * @return hits, misses and CPU time of the searches run ahead of time
+     */
+    public HintSpeculator.Stats getSpeculationStats() {
+        return speculator.getStats();
+    }
+
+    /**
+     * Start searching for hints from the boards the selected piece can move to
+     */
+    private void speculate() {
+        List<Configuration> starts = new ArrayList<>();
+        for(Direction dir : Direction.values()) {
+            Move move = new Move(selectedCoords, dir);
+            if(currentConfig.getTarget(move) != null) {
+                AstroConfig next = new AstroConfig(currentConfig);
+                next.applyMove(move);
+                starts.add(next);
+            }
+        }
+        speculator.speculate(starts);
+    }
+
+    /**
+     * Is the loaded puzzle solvable at all, according to the static reachability analysis?
+     *
+     * @return false if the goal can never be reached
+     */
+    public boolean isSolvable() {
+        return currentConfig.getReachability().isSolvable();
+    }
+
+    /**
+     * Tell the observers when the static reachability analysis shows the loaded puzzle can't be solved
+     */
+    private void notifyIfUnsolvable() {
+        if(!isSolvable()) {
+            notifyObservers("Unsolvable puzzle");
+        }
+    }
+
     /**
      * Resets the puzzle to the initial configuration based on the current file
      */
@@ -151,7 +353,7 @@ public class AstroModel {
         if(row < 0 || row >= getRow() || col < 0 || col >= getCol()) {
             return "";
         }
-        return currentConfig.getGrid()[row][col];
+        return currentConfig.getCellValue(row, col);
     }
 
     /**
@@ -167,10 +369,13 @@ public class AstroModel {
         if(validContents.contains(content)) {
             notifyObservers("Selected \"" + content + "\" at (" + row + ", " + col + ")");
             selectedCoords = new Coordinates(row, col);
+            speculate();
         } else {  // no piece selected
             selectedCoords = null;
             notifyObservers("No piece at (" + row + ", " + col + ")");
         }
+        addEvent(new BoardEvent.Selected(selectedCoords));
+        flushEvents();
     }
 
     /**
@@ -181,14 +386,22 @@ public class AstroModel {
      */
     public void makeMove(Direction dir) {
         if(selectedCoords != null) {
-            Coordinates nextMove = findNextObstacle(selectedCoords, dir);
-            if(isValidMove(nextMove)) {
-                currentConfig.moveSelected(selectedCoords, nextMove);
+            Move move = new Move(selectedCoords, dir);
+            Coordinates nextMove = currentConfig.getTarget(move);
+            if(nextMove != null) {
+                currentConfig.applyMove(move);
+                playbackPath = null;
                 notifyObservers("Moved \"" + getContent(nextMove) + "\" from " + selectedCoords + " to " + nextMove);
+                addCellEvent(selectedCoords);
+                addCellEvent(nextMove);
                 selectedCoords = nextMove;   // update the selected coordinates after the move
+                speculate();
+                addEvent(new BoardEvent.Selected(selectedCoords));
                 if(currentConfig.getCellValue(nextMove).equals(ASTRONAUT_SYMBOL) && nextMove.equals(currentConfig.getGoalCoords())) {
                     notifyObservers("Astronaut has reached the goal! Hooray!");
+                    addEvent(new BoardEvent.Solved());
                 }
+                flushEvents();
             } else {
                 notifyObservers("Can't move piece at " + selectedCoords + " " + dir);
             }
@@ -198,46 +411,10 @@ public class AstroModel {
     }
 
     /**
-     * Helper method to move and find obstacles
-     *
-     * @param start starting coordinates (row, col)
-     * @param dir cardinal direction (n, s, e, w)
-     * @return coordinates to move
-     */
-    private Coordinates findNextObstacle(Coordinates start, Direction dir) {
-        int cursorRow = 0;
-        int cursorCol = 0;
-        switch(dir) {
-            case NORTH -> cursorRow = -1;
-            case SOUTH -> cursorRow = 1;
-            case EAST -> cursorCol = 1;
-            case WEST -> cursorCol = -1;
-        }
-        int newRow = start.row() + cursorRow;
-        int newCol = start.col() + cursorCol;
-        while(newRow >= 0 && newRow < getRow() && newCol >= 0 && newCol < getCol()) {
-            String cellContent = currentConfig.getCellValue(new Coordinates(newRow, newCol));
-            if(!cellContent.equals(EMPTY_SYMBOL) && !cellContent.equals(EARTH_SYMBOL)) {  // stop before the obstacle or goal
-                return new Coordinates(newRow - cursorRow, newCol - cursorCol);
-            }
-            newRow += cursorRow;
-            newCol += cursorCol;
-        }
-        return null;
-    }
-
-    /**
-     * Checks if the move is valid.
-     *
-     * @param coord the coordinates of the target cell
-     * @return whether a move is valid or not
+     * Stop searching for hints ahead of time, for a game that ends without quitting the program
      */
-    private boolean isValidMove(Coordinates coord) {
-        if(coord == null) {
-            return false;
-        }
-        String cellValue = currentConfig.getCellValue(coord);
-        return cellValue.equals(EMPTY_SYMBOL) || cellValue.equals(EARTH_SYMBOL);
+    public void close() {
+        speculator.close();
     }
 
     /**
@@ -255,24 +432,55 @@ public class AstroModel {
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("   ");
+        return render().toString();
+    }
+
+    /**
+     * Render the grid with its row and column numbers into a builder that is reused by the
+     * next rendering, so printing a board doesn't build new strings
+     *
+     * @return the grid, valid until the next rendering
+     */
+    public CharSequence render() {
+        text.setLength(0);
+        text.append("   ");
         for(int col = 0; col < getCol(); col++) {  // columns
-            sb.append(col + " ");
+            text.append(col).append(' ');
         }
-        sb.append("\n" + "  ");
+        text.append('\n').append("  ");
         for(int col = 0; col < getCol(); col++) {
-            sb.append("--");
+            text.append("--");
         }
-        sb.append("\n");
+        text.append('\n');
         for(int row = 0; row < getRow(); row++) {  // rows
-            sb.append(row + "| ");
-            for(int col = 0; col < getCol(); col++) {  // display grid
-                sb.append(currentConfig.getGrid()[row][col] + " ");
-            }
-            sb.append("\n");
+            appendRow(row);
+        }
+        return text;
+    }
+
+    /**
+     * Render one row of the grid, as it appears in {@link #render()}
+     *
+     * @param row the row
+     * @return the row's line, valid until the next rendering
+     */
+    public CharSequence renderRow(int row) {
+        text.setLength(0);
+        appendRow(row);
+        return text;
+    }
+
+    /**
+     * Append a row's line to the rendering
+     *
+     * @param row the row
+     */
+    private void appendRow(int row) {
+        text.append(row).append("| ");
+        for(int col = 0; col < getCol(); col++) {  // display grid
+            text.append(currentConfig.getCellValue(row, col)).append(' ');
         }
-        return sb.toString();
+        text.append('\n');
     }
 
     /**
@@ -282,5 +490,6 @@ public class AstroModel {
      */
     public void notifyLoad(String file) {
         notifyObservers("Loaded " + file);
+        notifyIfUnsolvable();
     }
 }
\ No newline at end of file
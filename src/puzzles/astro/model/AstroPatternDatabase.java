@@ -0,0 +1,381 @@
+package puzzles.astro.model;
+
+import puzzles.common.Coordinates;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Heuristic;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A pattern database heuristic for Astro.
+ * The board is abstracted down to the astronaut plus a chosen subset of robots. Robots left out
+ * of the pattern could be anywhere, so in the abstraction a piece may stop on any cell along its
+ * slide as long as there is room for a blocker after it. Every real move is then an abstract move
+ * (or no move at all), so abstract distances are admissible lower bounds for the real puzzle.
+ * The distances are found by an exhaustive retrograde search from every abstract goal state and
+ * stored one byte per state, indexed by the perfect hash astro + cells * (robot1 + cells * (robot2 ...)).
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class AstroPatternDatabase implements Heuristic {
+    private static final int MAGIC = 0x41504442;  // "APDB"
+    private static final int UNREACHED = 0xFF;  // abstract state that can never reach the goal
+    private static final int MAX_DISTANCE = 0xFE;  // larger distances are clipped, still a lower bound
+    private static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, 1}, {0, -1}};  // n, s, e, w
+    private final int rows;  // rows of grid
+    private final int cols;  // columns of grid
+    private final int goalCell;  // goal as row * cols + col
+    private final String[] symbols;  // robots kept in the pattern
+    private final ByteBuffer table;  // distances, either in memory or memory-mapped
+
+    /**
+     * Create a pattern database over an existing table
+     *
+     * @param rows rows of grid
+     * @param cols columns of grid
+     * @param goalCell goal as row * cols + col
+     * @param symbols robots kept in the pattern
+     * @param table distance table
+     */
+    private AstroPatternDatabase(int rows, int cols, int goalCell, String[] symbols, ByteBuffer table) {
+        this.rows = rows;
+        this.cols = cols;
+        this.goalCell = goalCell;
+        this.symbols = symbols;
+        this.table = table;
+    }
+
+    /**
+     * Build a pattern database for a puzzle file by retrograde search
+     *
+     * @param puzzleFile name of Astro file
+     * @param symbols robots to keep in the pattern
+     * @return the pattern database
+     * @throws IOException if the puzzle can't be read
+     */
+    public static AstroPatternDatabase build(String puzzleFile, List<String> symbols) throws IOException {
+        AstroConfig config = new AstroConfig(puzzleFile);
+        for(String symbol : symbols) {
+            if(find(config, symbol) < 0) {
+                throw new IllegalArgumentException("No robot " + symbol + " in " + puzzleFile);
+            }
+        }
+        int cells = config.rows * config.cols;
+        long size = cells;
+        for(int i = 0; i < symbols.size(); i++) {
+            size *= cells;
+            if(size > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Pattern of " + symbols.size() + " robots is too large for this board");
+            }
+        }
+        Coordinates goal = config.getGoalCoords();
+        AstroPatternDatabase pdb = new AstroPatternDatabase(config.rows, config.cols,
+                goal.row() * config.cols + goal.col(), symbols.toArray(new String[0]), ByteBuffer.allocate((int) size));
+        pdb.retrogradeSearch();
+        return pdb;
+    }
+
+    /**
+     * Fill the table layer by layer, starting from every state with the astronaut on the goal
+     * and stepping backwards through abstract moves
+     */
+    private void retrogradeSearch() {
+        int cells = rows * cols;
+        int size = table.capacity();
+        byte[] dist = table.array();
+        Arrays.fill(dist, (byte) UNREACHED);
+        int[] pieces = new int[symbols.length + 1];  // astronaut first, then robots
+        for(int index = goalCell; index < size; index += cells) {
+            decode(index, pieces);
+            if(isPlacement(pieces)) {
+                dist[index] = 0;
+            }
+        }
+        boolean grew = true;
+        for(int depth = 0; grew; depth = Math.min(depth + 1, MAX_DISTANCE)) {  // every state of this layer adds its unseen predecessors
+            grew = false;
+            int next = Math.min(depth + 1, MAX_DISTANCE);  // the last layer keeps absorbing everything further away
+            for(int index = 0; index < size; index++) {
+                if((dist[index] & 0xFF) != depth) {
+                    continue;
+                }
+                decode(index, pieces);
+                for(int piece = 0; piece < pieces.length; piece++) {
+                    grew |= addPredecessors(pieces, piece, dist, next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Mark every state from which one abstract move of a piece leads to the given state
+     *
+     * @param pieces cells of the pieces in the given state, modified and restored
+     * @param piece which piece moved
+     * @param dist distance table
+     * @param distance distance to store for new predecessors
+     * @return true if any new state was marked
+     */
+    private boolean addPredecessors(int[] pieces, int piece, byte[] dist, int distance) {
+        boolean grew = false;
+        int stop = pieces[piece];
+        if(piece > 0 && stop == goalCell) {
+            return false;  // robots never stop on the goal
+        }
+        int stopRow = stop / cols;
+        int stopCol = stop % cols;
+        for(int[] dir : DIRECTIONS) {
+            if(!inBounds(stopRow + dir[0], stopCol + dir[1])) {
+                continue;  // no room for a blocker, so nothing stops here moving this way
+            }
+            int fromRow = stopRow - dir[0];
+            int fromCol = stopCol - dir[1];
+            while(inBounds(fromRow, fromCol) && !occupied(pieces, fromRow * cols + fromCol)) {
+                pieces[piece] = fromRow * cols + fromCol;
+                int index = encode(pieces);
+                if((dist[index] & 0xFF) == UNREACHED) {
+                    dist[index] = (byte) distance;
+                    grew = true;
+                }
+                fromRow -= dir[0];
+                fromCol -= dir[1];
+            }
+            pieces[piece] = stop;
+        }
+        return grew;
+    }
+
+    /**
+     * Look up the lower bound for a configuration
+     *
+     * @param config configuration to estimate
+     * @return lower bound on moves to a solution, or {@link #UNSOLVABLE}
+     */
+    @Override
+    public int estimate(Configuration config) {
+        if(!(config instanceof AstroConfig astroConfig) || astroConfig.rows != rows || astroConfig.cols != cols) {
+            return 0;
+        }
+        int[] pieces = new int[symbols.length + 1];
+        Arrays.fill(pieces, -1);
+        for(int row = 0; row < rows; row++) {  // locate the astronaut and the pattern robots
+            for(int col = 0; col < cols; col++) {
+                String cell = astroConfig.getCellValue(row, col);
+                if(cell.equals("A")) {
+                    pieces[0] = row * cols + col;
+                }
+                for(int i = 0; i < symbols.length; i++) {
+                    if(cell.equals(symbols[i])) {
+                        pieces[i + 1] = row * cols + col;
+                    }
+                }
+            }
+        }
+        for(int cell : pieces) {
+            if(cell < 0) {
+                return 0;
+            }
+        }
+        int value = table.get(encode(pieces)) & 0xFF;
+        return value == UNREACHED ? UNSOLVABLE : value;
+    }
+
+    /**
+     * Write the database to a file, keyed to the puzzle it was built from
+     *
+     * @param path output file
+     * @param puzzleFile name of Astro file the database belongs to
+     * @throws IOException if the file can't be written
+     */
+    public void save(String path, String puzzleFile) throws IOException {
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(checksum(puzzleFile));
+            out.writeInt(rows);
+            out.writeInt(cols);
+            out.writeInt(goalCell);
+            out.writeInt(symbols.length);
+            for(String symbol : symbols) {
+                out.writeChar(symbol.charAt(0));
+            }
+            out.write(table.array());
+        }
+    }
+
+    /**
+     * Memory-map a saved database, checking it was built for this puzzle file
+     *
+     * @param path database file
+     * @param puzzleFile name of Astro file being solved
+     * @return the pattern database
+     * @throws IOException if the file can't be read or belongs to another puzzle
+     */
+    public static AstroPatternDatabase load(String path, String puzzleFile) throws IOException {
+        MappedByteBuffer buffer;
+        try(FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if(buffer.getInt() != MAGIC) {
+            throw new IOException(path + " is not an Astro pattern database");
+        }
+        if(buffer.getLong() != checksum(puzzleFile)) {
+            throw new IOException(path + " was built for a different puzzle than " + puzzleFile);
+        }
+        int rows = buffer.getInt();
+        int cols = buffer.getInt();
+        int goalCell = buffer.getInt();
+        String[] symbols = new String[buffer.getInt()];
+        for(int i = 0; i < symbols.length; i++) {
+            symbols[i] = String.valueOf(buffer.getChar());
+        }
+        return new AstroPatternDatabase(rows, cols, goalCell, symbols, buffer.slice());
+    }
+
+    /**
+     * Load several saved databases for one puzzle and combine them by taking the largest estimate
+     *
+     * @param paths database files
+     * @param puzzleFile name of Astro file being solved
+     * @return the combined heuristic
+     * @throws IOException if any database can't be loaded
+     */
+    public static Heuristic loadAll(List<String> paths, String puzzleFile) throws IOException {
+        List<AstroPatternDatabase> databases = new ArrayList<>();
+        for(String path : paths) {
+            databases.add(load(path, puzzleFile));
+        }
+        return Heuristic.max(databases);
+    }
+
+    /**
+     * Get the robots kept in the pattern
+     *
+     * @return robot symbols
+     */
+    public List<String> getSymbols() {
+        return List.of(symbols);
+    }
+
+    /**
+     * Get the number of abstract states in the table
+     *
+     * @return table size in bytes
+     */
+    public int size() {
+        return table.capacity();
+    }
+
+    /**
+     * Perfect hash of piece cells to a table index
+     *
+     * @param pieces astronaut cell followed by robot cells
+     * @return table index
+     */
+    private int encode(int[] pieces) {
+        int cells = rows * cols;
+        int index = 0;
+        for(int i = pieces.length - 1; i >= 0; i--) {
+            index = index * cells + pieces[i];
+        }
+        return index;
+    }
+
+    /**
+     * Inverse of {@link #encode(int[])}
+     *
+     * @param index table index
+     * @param pieces filled with astronaut cell followed by robot cells
+     */
+    private void decode(int index, int[] pieces) {
+        int cells = rows * cols;
+        for(int i = 0; i < pieces.length; i++) {
+            pieces[i] = index % cells;
+            index /= cells;
+        }
+    }
+
+    /**
+     * Is this a real placement, with no two pieces on one cell?
+     *
+     * @param pieces piece cells
+     * @return true if all cells are distinct
+     */
+    private static boolean isPlacement(int[] pieces) {
+        for(int i = 0; i < pieces.length; i++) {
+            for(int j = i + 1; j < pieces.length; j++) {
+                if(pieces[i] == pieces[j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Is a cell occupied by a pattern piece?
+     *
+     * @param pieces piece cells
+     * @param cell cell to check
+     * @return true if occupied
+     */
+    private static boolean occupied(int[] pieces, int cell) {
+        for(int piece : pieces) {
+            if(piece == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if coordinates are on the board
+     *
+     * @param row row index
+     * @param col column index
+     * @return true if on the board
+     */
+    private boolean inBounds(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    /**
+     * Find the cell of a symbol on the grid
+     *
+     * @param config the board
+     * @param symbol symbol to find
+     * @return row * cols + col, or -1 if absent
+     */
+    private static int find(AstroConfig config, String symbol) {
+        for(int row = 0; row < config.rows; row++) {
+            for(int col = 0; col < config.cols; col++) {
+                if(config.getCellValue(row, col).equals(symbol)) {
+                    return row * config.cols + col;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checksum of a puzzle file, used to key a database to its puzzle
+     *
+     * @param puzzleFile name of Astro file
+     * @return CRC32 of the file contents
+     * @throws IOException if the file can't be read
+     */
+    private static long checksum(String puzzleFile) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(Path.of(puzzleFile)));
+        return crc.getValue();
+    }
+}
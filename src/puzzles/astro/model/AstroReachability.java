@@ -0,0 +1,203 @@
+package puzzles.astro.model;
+
+import puzzles.common.Coordinates;
+
+/**
+ * Static reachability analysis of an Astro board, computed once per loaded puzzle, the first
+ * time it is asked for, so boards loaded in bulk and never solved don't pay for it.
+ * A piece only stops when the next cell in its direction holds another piece, so the
+ * analysis over-approximates where robots (blockers) could ever sit and where the
+ * astronaut could ever stop. If the goal is not among the astronaut's possible
+ * stop-cells no arrangement of robots can ever solve the board.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class AstroReachability {
+    private static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, 1}, {0, -1}};  // n, s, e, w
+    private final int rows;  // rows of grid
+    private final int cols;  // columns of grid
+    private final boolean[][] blockerCells;  // cells where a robot could ever sit
+    private boolean[][] astroCells;  // stop-cells the astronaut could ever reach
+    private boolean[][] reachesGoal;  // astronaut cells from which the goal is still reachable
+    private final Coordinates astroStart;  // astronaut coordinates at load
+    private final Coordinates goalCoords;  // goal coordinates
+    private volatile boolean analysed;  // true once the fixpoints have run
+
+    /**
+     * Records a freshly loaded board for the analysis
+     *
+     * @param grid game grid as read from the puzzle file
+     * @param astroCoords astronaut coordinates
+     * @param goalCoords goal coordinates
+     */
+    public AstroReachability(String[][] grid, Coordinates astroCoords, Coordinates goalCoords) {
+        this.rows = grid.length;
+        this.cols = grid[0].length;
+        this.astroStart = astroCoords;
+        this.goalCoords = goalCoords;
+        this.blockerCells = new boolean[rows][cols];
+        String goalSymbol = grid[goalCoords.row()][goalCoords.col()];
+        for(int row = 0; row < rows; row++) {  // robots start wherever there is a non-astronaut piece
+            for(int col = 0; col < cols; col++) {
+                String cell = grid[row][col];
+                if(!cell.equals(".") && !cell.equals(goalSymbol) && !cell.equals("A")) {
+                    blockerCells[row][col] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the analysis, unless it has already run
+     */
+    private synchronized void analyse() {
+        if(analysed) {
+            return;
+        }
+        astroCells = new boolean[rows][cols];
+        astroCells[astroStart.row()][astroStart.col()] = true;
+        reachesGoal = new boolean[rows][cols];
+        reachesGoal[goalCoords.row()][goalCoords.col()] = true;
+        boolean changed = true;
+        while(changed) {  // forward fixpoint: robots stop next to robots or the astronaut, astronaut next to robots
+            changed = false;
+            for(int row = 0; row < rows; row++) {
+                for(int col = 0; col < cols; col++) {
+                    if(blockerCells[row][col]) {
+                        changed |= spreadStops(row, col, blockerCells, true);
+                    }
+                    if(astroCells[row][col]) {
+                        changed |= spreadStops(row, col, astroCells, false);
+                    }
+                }
+            }
+        }
+        changed = true;
+        while(changed) {  // backward fixpoint: cells that can slide onto a cell already known to reach the goal
+            changed = false;
+            for(int row = 0; row < rows; row++) {
+                for(int col = 0; col < cols; col++) {
+                    if(reachesGoal[row][col]) {
+                        changed |= spreadBackward(row, col);
+                    }
+                }
+            }
+        }
+        analysed = true;
+    }
+
+    /**
+     * Marks every cell a piece starting at (row, col) could stop on
+     *
+     * @param row row index
+     * @param col column index
+     * @param target cells to mark
+     * @param robot true if the moving piece is a robot (the astronaut also blocks it)
+     * @return true if any new cell was marked
+     */
+    private boolean spreadStops(int row, int col, boolean[][] target, boolean robot) {
+        boolean changed = false;
+        for(int[] dir : DIRECTIONS) {
+            int nextRow = row + dir[0];
+            int nextCol = col + dir[1];
+            while(inBounds(nextRow + dir[0], nextCol + dir[1])) {
+                int blockRow = nextRow + dir[0];
+                int blockCol = nextCol + dir[1];
+                boolean blocked = blockerCells[blockRow][blockCol] || (robot && astroCells[blockRow][blockCol]);
+                if(blocked && !target[nextRow][nextCol]) {
+                    target[nextRow][nextCol] = true;
+                    changed = true;
+                }
+                nextRow += dir[0];
+                nextCol += dir[1];
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Marks every cell the astronaut could slide from to stop on (row, col)
+     *
+     * @param row row index of a cell that reaches the goal
+     * @param col column index of a cell that reaches the goal
+     * @return true if any new cell was marked
+     */
+    private boolean spreadBackward(int row, int col) {
+        boolean changed = false;
+        for(int[] dir : DIRECTIONS) {
+            if(!inBounds(row + dir[0], col + dir[1]) || !blockerCells[row + dir[0]][col + dir[1]]) {
+                continue;  // nothing could ever stop the astronaut here moving in this direction
+            }
+            int prevRow = row - dir[0];
+            int prevCol = col - dir[1];
+            while(inBounds(prevRow, prevCol)) {
+                if(!reachesGoal[prevRow][prevCol]) {
+                    reachesGoal[prevRow][prevCol] = true;
+                    changed = true;
+                }
+                prevRow -= dir[0];
+                prevCol -= dir[1];
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Checks if coordinates are on the board
+     *
+     * @param row row index
+     * @param col column index
+     * @return true if on the board
+     */
+    private boolean inBounds(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    /**
+     * Can the astronaut ever reach the goal from where it was loaded?
+     *
+     * @return false if the board is provably unsolvable
+     */
+    public boolean isSolvable() {
+        return !isStranded(astroStart);
+    }
+
+    /**
+     * Is an astronaut at these coordinates provably unable to ever reach the goal?
+     *
+     * @param astroCoords astronaut coordinates
+     * @return true if no arrangement of robots lets the astronaut reach the goal
+     */
+    public boolean isStranded(Coordinates astroCoords) {
+        if(!analysed) {
+            analyse();
+        }
+        return !reachesGoal[astroCoords.row()][astroCoords.col()];
+    }
+
+    /**
+     * Could a robot ever sit on this cell?
+     *
+     * @param coord coordinates (row, col)
+     * @return true if a robot could sit there
+     */
+    public boolean canHoldBlocker(Coordinates coord) {
+        if(!analysed) {
+            analyse();
+        }
+        return blockerCells[coord.row()][coord.col()];
+    }
+
+    /**
+     * Could the astronaut ever stop on this cell?
+     *
+     * @param coord coordinates (row, col)
+     * @return true if the astronaut could stop there
+     */
+    public boolean canHoldAstronaut(Coordinates coord) {
+        if(!analysed) {
+            analyse();
+        }
+        return astroCells[coord.row()][coord.col()];
+    }
+}
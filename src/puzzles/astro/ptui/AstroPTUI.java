@@ -1,13 +1,22 @@
 package puzzles.astro.ptui;
 
+import puzzles.common.BoardEvent;
 import puzzles.common.Coordinates;
 import puzzles.common.Direction;
 import puzzles.common.Observer;
 import puzzles.astro.model.AstroModel;
+import puzzles.common.ptui.CommandUI;
 import puzzles.common.solver.Move;
 
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
 import java.util.Scanner;
+import java.util.SortedSet;
+import java.util.TreeSet;
 /**
  * The plain text UI for the Astro puzzle.
  * This class encapsulates both View and Controller portions of MVC architecture
@@ -15,9 +24,14 @@ import java.util.Scanner;
  * @author CS RIT
  * @author Quang Huynh (qth9368)
  */
-public class AstroPTUI implements Observer<AstroModel, String> {
+public class AstroPTUI implements Observer<AstroModel, String>, CommandUI {
     private AstroModel model;
     private String filename;
+    /** Size of the buffer standard output is written through, in bytes */
+    private static final int OUTPUT_BUFFER = 1 << 16;
+    private PrintStream out;  // where the game is printed
+    private boolean diffOnly;  // print only the rows a command changed
+    private final SortedSet<Integer> changedRows = new TreeSet<>();  // rows changed by the current command
 
     /**
      * Create the PTUI
@@ -25,10 +39,36 @@ public class AstroPTUI implements Observer<AstroModel, String> {
      * @param filename filename of Astro puzzle
      */
     public void init(String filename) throws IOException {
+        init(filename, System.out);
+    }
+
+    /**
+     * Create the PTUI, printing somewhere other than standard output
+     *
+     * @param filename filename of Astro puzzle
+     * @param out where the game is printed
+     */
+    @Override
+    public void init(String filename, PrintStream out) throws IOException {
+        this.out = out;
         this.filename = filename;
         this.model = new AstroModel(filename);
         this.model.addObserver(this);
+        this.model.addEventObserver(this::apply);
         displayHelp();
+        if(!model.isSolvable()) {  // declared on load, before any hint is asked for
+            out.println("Unsolvable puzzle");
+        }
+    }
+
+    /**
+     * Choose to print only the rows a command changed
+     *
+     * @param diffOnly true to print only changed rows
+     */
+    @Override
+    public void setDiffOnly(boolean diffOnly) {
+        this.diffOnly = diffOnly;
     }
 
     /**
@@ -40,22 +80,53 @@ public class AstroPTUI implements Observer<AstroModel, String> {
     @Override
     public void update(AstroModel model, String data) {
         // for demonstration purposes
-        System.out.println(data);
-        if(!(filename == null)) {
-            System.out.println(model.toString());
+        out.println(data);
+        if(!(filename == null) && !diffOnly) {
+            out.append(model.render()).println();
         }
     }
 
+    /**
+     * Print the rows changed by a command, or the whole board for a new one, when printing
+     * only changes
+     *
+     * @param model the model
+     * @param events the changes of the command
+     */
+    private void apply(AstroModel model, List<BoardEvent> events) {
+        if(!diffOnly) {
+            return;
+        }
+        for(BoardEvent event : events) {
+            switch(event) {
+                case BoardEvent.Loaded loaded -> {
+                    changedRows.clear();
+                    out.append(model.render()).println();
+                }
+                case BoardEvent.CellChanged changed -> changedRows.add(changed.coordinates().row());
+                default -> {
+                }
+            }
+        }
+        for(int row : changedRows) {
+            out.append(model.renderRow(row));
+        }
+        changedRows.clear();
+    }
+
     /**
      * Displays list of available commands in standard output
      */
     private void displayHelp() {
-        System.out.println( "h(int)              -- hint next move" );
-        System.out.println( "l(oad) filename     -- load new puzzle file" );
-        System.out.println( "s(elect) r c        -- select cell at r, c" );
-        System.out.println( "m(ove) n|s|e|w      -- move selected piece in direction" );
-        System.out.println( "q(uit)              -- quit the game" );
-        System.out.println( "r(eset)             -- reset the current game" );
+        out.println( "h(int)              -- hint next move" );
+        out.println( "l(oad) filename     -- load new puzzle file" );
+        out.println( "s(elect) r c        -- select cell at r, c" );
+        out.println( "m(ove) n|s|e|w      -- move selected piece in direction" );
+        out.println( "q(uit)              -- quit the game" );
+        out.println( "r(eset)             -- reset the current game" );
+        if(diffOnly) {
+            out.println( "b(oard)             -- print the whole board" );
+        }
     }
 
     /**
@@ -64,61 +135,88 @@ public class AstroPTUI implements Observer<AstroModel, String> {
     public void run() {
         Scanner in = new Scanner( System.in );
         for ( ; ; ) {
-            System.out.print( "> " );
-            String line = in.nextLine();
-            String[] words = line.split( "\\s+" );
-            if (words.length > 0) {
-                if (words[0].startsWith("q")) {  // quit
-                    model.quit();
-                    break;
-                } else if(words[0].startsWith("r")) {  // reset
-                    model.resetPuzzle();
-                } else if(words[0].startsWith("l")) {  // load
-                    model.loadPuzzle(words[1]);
-                } else if(words[0].startsWith("m")) {  // make move
-                    filename = words[1];
-                    switch(filename) {
-                        case "n" -> model.makeMove(Direction.NORTH);
-                        case "s" -> model.makeMove(Direction.SOUTH);
-                        case "e" -> model.makeMove(Direction.EAST);
-                        case "w" -> model.makeMove(Direction.WEST);
-                        default -> {
-                            System.out.println("Invalid direction!");
-                            displayHelp();
-                        }
-                    }
-                } else if(words[0].startsWith("h")) {  // hint
-                    model.getHint();
-                } else if(words[0].startsWith("s")) {
-                    try {
-                        int row = Integer.parseInt(words[1]);
-                        int col = Integer.parseInt(words[2]);
-                        this.model.select(row, col);
-                    } catch(Exception ignored) {
-                        //
+            out.print( "> " );
+            out.flush();
+            if (!in.hasNextLine() || !command(in.nextLine())) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Carry out one command line
+     *
+     * @param line the command line
+     * @return false if the command quits
+     */
+    @Override
+    public boolean command(String line) {
+        String[] words = line.split( "\\s+" );
+        if (words.length > 0) {
+            if (words[0].startsWith("q")) {  // quit
+                return false;
+            } else if(words[0].startsWith("r")) {  // reset
+                model.resetPuzzle();
+            } else if(words[0].startsWith("l")) {  // load
+                model.loadPuzzle(words[1]);
+            } else if(words[0].startsWith("m")) {  // make move
+                filename = words[1];
+                switch(filename) {
+                    case "n" -> model.makeMove(Direction.NORTH);
+                    case "s" -> model.makeMove(Direction.SOUTH);
+                    case "e" -> model.makeMove(Direction.EAST);
+                    case "w" -> model.makeMove(Direction.WEST);
+                    default -> {
+                        out.println("Invalid direction!");
+                        displayHelp();
                     }
-                } else {
-                    displayHelp();
+                }
+            } else if(words[0].startsWith("h")) {  // hint
+                model.getHint();
+            } else if(words[0].startsWith("b")) {  // whole board
+                out.append(model.render()).println();
+            } else if(words[0].startsWith("s")) {
+                try {
+                    int row = Integer.parseInt(words[1]);
+                    int col = Integer.parseInt(words[2]);
+                    this.model.select(row, col);
+                } catch(Exception ignored) {
+                    //
                 }
             } else {
                 displayHelp();
             }
+        } else {
+            displayHelp();
         }
+        return true;
+    }
+
+    /**
+     * End the game without quitting the program
+     */
+    @Override
+    public void close() {
+        model.close();
     }
 
     /**
      * The main routine.
      *
-     * @param args command line arguments (unused)
+     * @param args the puzzle file, then --diff to print only the rows each command changes
      */
     public static void main(String[] args) {
-        if (args.length != 1) {
-            System.out.println("Usage: java AstroPTUI filename");
+        if (args.length != 1 && !(args.length == 2 && args[1].equals("--diff"))) {
+            System.out.println("Usage: java AstroPTUI filename [--diff]");
         } else {
             try {
                 AstroPTUI ptui = new AstroPTUI();
-                ptui.init(args[0]);
+                ptui.setDiffOnly(args.length == 2);
+                ptui.init(args[0], new PrintStream(new BufferedOutputStream(
+                        new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER), false));
                 ptui.run();
+                ptui.out.flush();
+                ptui.model.quit();
             } catch (IOException ioe) {
                 System.out.println(ioe.getMessage());
             }
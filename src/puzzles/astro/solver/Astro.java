@@ -1,10 +1,21 @@
 package puzzles.astro.solver;
 
 import puzzles.astro.model.AstroConfig;
+import puzzles.astro.model.AstroPatternDatabase;
+import puzzles.common.solver.AStarSolver;
+import puzzles.common.solver.BitstateSolver;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.CountingSolver;
+import puzzles.common.solver.FrontierSolver;
+import puzzles.common.solver.Heuristic;
+import puzzles.common.solver.IterativeDeepeningSolver;
+import puzzles.common.solver.OffHeapSolver;
 import puzzles.common.solver.Solver;
+import puzzles.common.solver.WeightedSolver;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -15,28 +26,100 @@ import java.util.List;
  * @author Quang Huynh (qth9368)
  */
 public class Astro {
+    /** Deepest bound for searches without a visited set, since slides can cycle forever */
+    private static final int MAX_DEPTH = 40;
+    /** Bit array size for bitstate search, 2^30 bits (128 MB) */
+    private static final int BITSTATE_LOG2_BITS = 30;
+    /** Bits set per configuration in bitstate search */
+    private static final int BITSTATE_HASHES = 3;
+
     /**
      * Main method used to call common solver and display solution and steps to output
      *
-     * @param args command line argument (expect for file)
+     * @param args command line argument (expect for file, optionally followed by --reduce, --deepen, --frontier, --offheap, --distance, --count or --bitstate [--verify] and pattern databases)
      * @throws IOException if file not found
      */
     public static void main(String[] args) throws IOException {
-        if (args.length != 1) {
-            System.out.println("Usage: java Astro filename");
+        if (args.length < 1) {
+            System.out.println("Usage: java Astro filename [--reduce|--deepen|--frontier|--offheap|--distance|--count|--bitstate [--verify]] [database...]");
         }
         String fileName = args[0];
         System.out.println("File: data/astro/" + fileName);
         AstroConfig astroConfig = new AstroConfig(fileName);
         System.out.println(astroConfig);
-        Solver solver = new Solver();
+        List<String> databases = new ArrayList<>(Arrays.asList(args).subList(1, args.length));
+        boolean reduce = databases.remove("--reduce");  // skip transpositions of commuting moves
+        boolean deepen = databases.remove("--deepen");  // depth-first in place on a single board
+        boolean frontier = databases.remove("--frontier");  // breadth first keeping only three layers
+        boolean offHeap = databases.remove("--offheap");  // visited set and predecessors off the heap
+        boolean distance = databases.remove("--distance");  // least total slide distance instead of fewest moves
+        boolean count = databases.remove("--count");  // also count every shortest solution
+        boolean bitstate = databases.remove("--bitstate");  // depth first with an approximate visited set
+        boolean verify = databases.remove("--verify");  // check a bitstate path exactly
+        Solver solver = new Solver(reduce);
+        Heuristic heuristic = config -> 0;
+        if(!databases.isEmpty()) {  // informed search with the max of the given pattern databases
+            heuristic = AstroPatternDatabase.loadAll(databases, fileName);
+            solver = new AStarSolver(heuristic);
+        }
+        if(deepen) {
+            solver = new IterativeDeepeningSolver(MAX_DEPTH, heuristic);
+        }
+        if(frontier) {
+            solver = new FrontierSolver(MAX_DEPTH);
+        }
+        if(offHeap) {
+            solver = new OffHeapSolver();
+        }
+        if(distance) {
+            solver = new WeightedSolver();
+        }
+        if(count) {
+            solver = new CountingSolver();
+        }
+        if(bitstate) {
+            solver = new BitstateSolver(BITSTATE_LOG2_BITS, BITSTATE_HASHES, MAX_DEPTH, verify);
+        }
         List<Configuration> solution = solver.solve(astroConfig);
-        System.out.println("Total configs: " + solver.getTotalConfigs());
-        System.out.println("Unique configs: " + solver.getUniqueConfigs());
+        // slides can't always be undone, so the frontier solver may expand a config again
+        String approximate = frontier ? " (approximate, configs found again are counted again)" : "";
+        System.out.println("Total configs: " + solver.getTotalConfigs() + approximate);
+        System.out.println("Unique configs: " + solver.getUniqueConfigs() + approximate);
+        if(solver instanceof FrontierSolver frontierSolver) {
+            System.out.println("Peak configs in memory: " + frontierSolver.getPeakConfigs());
+        }
+        if(solver instanceof OffHeapSolver offHeapSolver) {
+            System.out.println("Off-heap bytes: " + offHeapSolver.getOffHeapBytes());
+        }
+        if(solver instanceof WeightedSolver weightedSolver) {
+            System.out.println("Total slide distance: " + weightedSolver.getPathCost());
+        }
+        if(solver instanceof BitstateSolver bitstateSolver) {
+            System.out.printf("Bit array fill: %.6f, omission probability: %.3g%n",
+                    bitstateSolver.getFillRatio(), bitstateSolver.getOmissionProbability());
+        }
+        if(solver instanceof CountingSolver countingSolver) {
+            for(CountingSolver.Layer layer : countingSolver.getLayers()) {
+                System.out.printf("Layer %d: %d configs, %d shortest path moves out, branching %.2f%n",
+                        layer.depth(), layer.configs(), layer.edges(), layer.branching());
+            }
+            System.out.println("Shortest solutions: " + countingSolver.getSolutionCount());
+        }
+        if(reduce) {  // a reduced search can reach configs a plain one doesn't, so the plain counts are measured
+            Solver plain = new Solver();
+            plain.solve(astroConfig);
+            System.out.println("Skipped transpositions: " + solver.getSkippedConfigs());
+            System.out.printf("Without reduction: %d total, %d unique, ratio %.2f%n", plain.getTotalConfigs(),
+                    plain.getUniqueConfigs(), (double) plain.getTotalConfigs() / plain.getUniqueConfigs());
+            System.out.printf("With reduction: %d total, %d unique, ratio %.2f%n", solver.getTotalConfigs(),
+                    solver.getUniqueConfigs(), (double) solver.getTotalConfigs() / solver.getUniqueConfigs());
+        }
         if(!solution.isEmpty() && solution.get(solution.size() - 1).isSolution()) {
             for(int stepNum = 0; stepNum < solution.size(); stepNum++) {
                 System.out.println("Step " + stepNum + ": \n" + solution.get(stepNum) + "\n");
             }
+        } else if(deepen || frontier || bitstate) {  // these searches stop at the depth bound
+            System.out.println("No solution within " + MAX_DEPTH + " moves");
         } else {
             System.out.println("No solution");
         }
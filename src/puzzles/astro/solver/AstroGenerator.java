@@ -0,0 +1,168 @@
+package puzzles.astro.solver;
+
+import puzzles.astro.model.AstroConfig;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.PuzzleGenerator;
+import puzzles.common.solver.ReversibleConfiguration;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates Astro puzzles by sliding pieces backwards from a board with the astronaut on the goal.
+ * A search only starts from one arrangement of the robots, while the astronaut may reach the goal
+ * with the robots anywhere, so every board found is solved again and kept only if its shortest
+ * solution is as long as the search found.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class AstroGenerator extends PuzzleGenerator {
+    private final int rows;  // rows of the grids
+    private final int cols;  // columns of the grids
+    private final int robots;  // robots on each grid
+    /** Solved boards a search starts from */
+    private static final int SOLUTIONS = 64;
+    /** Steps to the cells next to a cell */
+    private static final int[][] STEPS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    /**
+     * Create a generator
+     *
+     * @param rows rows of the grids
+     * @param cols columns of the grids
+     * @param robots robots on each grid, at most 25 and fewer than the cells
+     */
+    public AstroGenerator(int rows, int cols, int robots) {
+        super("astro");
+        if(robots > 25 || robots >= rows * cols) {
+            throw new IllegalArgumentException("Too many robots: " + robots);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.robots = robots;
+    }
+
+    /**
+     * Make up solved boards around one goal, on a random cell with the astronaut on it. Each has a
+     * robot next to the goal for the astronaut to have stopped against, and the other robots on
+     * other random cells. Robots are B, C, D... Sliding a piece backwards moves it away from the
+     * piece it stopped against, so a search from one arrangement soon runs out of moves; many
+     * arrangements keep it going, and bring its depths closer to the shortest solutions.
+     *
+     * @param random random numbers of this puzzle
+     * @return the solved boards
+     */
+    @Override
+    protected List<ReversibleConfiguration> solutions(Random random) {
+        int goal = random.nextInt(rows * cols);
+        int goalRow = goal / cols;
+        int goalCol = goal % cols;
+        List<Integer> beside = new ArrayList<>();  // cells next to the goal
+        for(int[] step : STEPS) {
+            int row = goalRow + step[0];
+            int col = goalCol + step[1];
+            if(row >= 0 && row < rows && col >= 0 && col < cols) {
+                beside.add(row * cols + col);
+            }
+        }
+        List<ReversibleConfiguration> solutions = new ArrayList<>(SOLUTIONS);
+        int[] cells = new int[rows * cols];
+        for(int n = 0; n < SOLUTIONS; n++) {
+            for(int cell = 0; cell < cells.length; cell++) {
+                cells[cell] = cell;
+            }
+            swap(cells, 0, goal);
+            if(robots > 0 && !beside.isEmpty()) {
+                int stopper = beside.get(random.nextInt(beside.size()));
+                swap(cells, 1, stopper == 0 ? goal : stopper);  // cell 0 was swapped to where the goal was
+            }
+            for(int i = 2; i <= robots; i++) {  // the rest of a partial shuffle
+                swap(cells, i, i + random.nextInt(cells.length - i));
+            }
+            ByteBuffer record = ByteBuffer.allocate(4 + 5 * (robots + 2) + 2);
+            record.putShort((short) rows).putShort((short) cols);
+            record.put((byte) '*').putShort((short) goalRow).putShort((short) goalCol);
+            record.put((byte) 'A').putShort((short) goalRow).putShort((short) goalCol);
+            record.putShort((short) robots);
+            for(int i = 1; i <= robots; i++) {
+                record.put((byte) ('A' + i)).putShort((short) (cells[i] / cols)).putShort((short) (cells[i] % cols));
+            }
+            solutions.add(new AstroConfig(record.flip()));
+        }
+        return solutions;
+    }
+
+    /**
+     * Swap two cells of a shuffle
+     *
+     * @param cells the cells
+     * @param i index of one
+     * @param j index of the other
+     */
+    private static void swap(int[] cells, int i, int j) {
+        int cell = cells[i];
+        cells[i] = cells[j];
+        cells[j] = cell;
+    }
+
+    /**
+     * Build a board from its record
+     *
+     * @param record the packed board
+     * @return the board
+     */
+    @Override
+    protected Configuration unpack(ByteBuffer record) {
+        return new AstroConfig(record);
+    }
+
+    /**
+     * Pack a board into its record
+     *
+     * @param config the board
+     * @return the record
+     */
+    @Override
+    protected byte[] pack(Configuration config) {
+        return ((AstroConfig) config).pack();
+    }
+
+    /**
+     * Gets the text of the file of a board
+     *
+     * @param config the board
+     * @return the file's text
+     */
+    @Override
+    protected String toFileText(Configuration config) {
+        return ((AstroConfig) config).toFileText();
+    }
+
+    /**
+     * Is the board's shortest solution as long as the search found?
+     *
+     * @param config the board, as loaded
+     * @param depth slides it was found at
+     * @return true if no shorter solution reaches the goal with the robots elsewhere
+     */
+    @Override
+    protected boolean isOptimalAt(Configuration config, int depth) {
+        return shortestSolution(config) == depth;
+    }
+
+    /**
+     * The main routine.
+     *
+     * @param args rows cols robots depth count, then the options of PuzzleGenerator
+     */
+    public static void main(String[] args) throws Exception {
+        if(args.length < 3) {
+            System.out.println("Usage: java AstroGenerator rows cols robots depth count [--seed n] [--threads n] [--width n] [--verify] (--out dir | --archive file)");
+        } else {
+            new AstroGenerator(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]))
+                    .run(args, 3, "rows cols robots");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package puzzles.astro.solver;
+
+import puzzles.astro.model.AstroConfig;
+import puzzles.astro.model.AstroPatternDatabase;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Offline builder for Astro pattern databases
+ * Builds a database for the astronaut plus the given robots and writes it next to the puzzle
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class AstroPDB {
+    /**
+     * Main method used to build and save a pattern database
+     *
+     * @param args puzzle file, database file, then the robots to keep in the pattern
+     * @throws IOException if a file can't be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java AstroPDB filename database robot...");
+        } else {
+            List<String> symbols = Arrays.asList(args).subList(2, args.length);
+            long start = System.currentTimeMillis();
+            AstroPatternDatabase pdb = AstroPatternDatabase.build(args[0], symbols);
+            pdb.save(args[1], args[0]);
+            System.out.println("Pattern " + symbols + ": " + pdb.size() + " states in "
+                    + (System.currentTimeMillis() - start) + " ms, written to " + args[1]);
+            System.out.println("Start estimate: " + pdb.estimate(new AstroConfig(args[0])));
+        }
+    }
+}
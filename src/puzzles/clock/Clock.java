@@ -1,5 +1,7 @@
 package puzzles.clock;
 
+import puzzles.common.solver.FrontierSolver;
+import puzzles.common.solver.RankedSolver;
 import puzzles.common.solver.Solver;
 import puzzles.common.solver.Configuration;
 
@@ -19,12 +21,12 @@ public class Clock {
     /**
      * Main method used to call common solver and display solution and steps to output
      *
-     * @param args command line argument (expect for file)
+     * @param args command line argument (expect hours, start, end, optionally followed by --frontier or --ranked)
      * @throws IOException if file not found
      */
     public static void main(String[] args) {
-        if (args.length != 3) {
-            System.out.println("Usage: java Clock hours start end");
+        if (args.length != 3 && !(args.length == 4 && (args[3].equals("--frontier") || args[3].equals("--ranked")))) {
+            System.out.println("Usage: java Clock hours start end [--frontier|--ranked]");
         } else {
             int hours = Integer.parseInt(args[0]);  // hours
             int start = Integer.parseInt(args[1]);  // starting hour
@@ -33,9 +35,29 @@ public class Clock {
             System.out.println("Hours: " + hours + ", Start: " + start + ", End: " + end);
             ClockConfig iConfig = new ClockConfig(hours, start, end);  // initial clock config
             Solver solver = new Solver();  // instantiate solver
+            if(args.length == 4 && args[3].equals("--frontier")) {  // keep only three layers, no path is longer than the clock
+                solver = new FrontierSolver(hours);
+            }
+            if(args.length == 4 && args[3].equals("--ranked")) {  // a bit and a byte per hour instead of hashing
+                if(iConfig.getSpaceSize() > RankedSolver.MAX_SPACE) {  // ranks can't all be held
+                    System.out.println("Usage: --ranked needs at most " + RankedSolver.MAX_SPACE + " hours, this clock has " + iConfig.getSpaceSize());
+                    return;
+                }
+                if(!iConfig.isHour(start) || !iConfig.isHour(end)) {  // an hour off the dial has no rank
+                    System.out.println("Usage: --ranked needs start and end hours from 1 to " + hours);
+                    return;
+                }
+                solver = new RankedSolver();
+            }
             List<Configuration> solution = solver.solve(iConfig);
             System.out.println("Total configs: " + solver.getTotalConfigs());
             System.out.println("Unique configs: " + solver.getUniqueConfigs());
+            if(solver instanceof FrontierSolver frontier) {
+                System.out.println("Peak configs in memory: " + frontier.getPeakConfigs());
+            }
+            if(solver instanceof RankedSolver ranked) {
+                System.out.println("Ranked table bytes: " + ranked.getTableBytes());
+            }
             if(solution != null && !solution.isEmpty()) {  // print steps
                 for(int stepNum = 0; stepNum < solution.size(); stepNum++) {
                     System.out.println("Step " + stepNum + ": " + solution.get(stepNum));
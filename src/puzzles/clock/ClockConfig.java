@@ -1,6 +1,7 @@
 package puzzles.clock;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.RankableConfiguration;
 
 import java.util.*;
 
@@ -10,7 +11,7 @@ import java.util.*;
  * @author RIT CS
  * @author Quang Huynh (qth9368)
  */
-public class ClockConfig implements Configuration {
+public class ClockConfig implements RankableConfiguration {
     private final int hours;  // total amount of hours
     private final int current; // current hour
     private final int end;  // ending hour
@@ -52,6 +53,47 @@ public class ClockConfig implements Configuration {
         return neighbors;
     }
 
+    /**
+     * Gets the number of hours the hand can point at
+     *
+     * @return number of configs
+     */
+    @Override
+    public long getSpaceSize() {
+        return hours;
+    }
+
+    /**
+     * Checks an hour is on this clock's dial, so a config pointing at it has a rank
+     *
+     * @param hour an hour
+     * @return true if it is from 1 to the number of hours
+     */
+    public boolean isHour(int hour) {
+        return hour >= 1 && hour <= hours;
+    }
+
+    /**
+     * Ranks the config by its hour
+     *
+     * @return current hour minus one
+     */
+    @Override
+    public long rank() {
+        return current - 1;
+    }
+
+    /**
+     * Gets the config of this clock pointing at an hour
+     *
+     * @param rank hour minus one
+     * @return the config
+     */
+    @Override
+    public RankableConfiguration unrank(long rank) {
+        return new ClockConfig(hours, (int) rank + 1, end);
+    }
+
     /**
      * Checks if another object's hours and current is equal to this config
      *
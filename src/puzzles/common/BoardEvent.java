@@ -0,0 +1,51 @@
+package puzzles.common;
+
+import puzzles.common.solver.Configuration;
+
+import java.util.List;
+
+/**
+ * A typed change to a puzzle model's board, so views can update only what changed instead of
+ * reading the whole board back and parsing status messages. A model sends the events of one
+ * operation together, with at most one cell change per cell.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public sealed interface BoardEvent {
+    /**
+     * A cell now holds a different piece
+     *
+     * @param coordinates the cell
+     * @param piece its new content, as in the puzzle file
+     */
+    record CellChanged(Coordinates coordinates, char piece) implements BoardEvent {}
+
+    /**
+     * The selected cell changed
+     *
+     * @param coordinates the selected cell, null if nothing is selected
+     */
+    record Selected(Coordinates coordinates) implements BoardEvent {}
+
+    /**
+     * A new board was loaded, so every cell may have changed
+     *
+     * @param filename the puzzle file
+     * @param rows rows of the board
+     * @param cols columns of the board
+     */
+    record Loaded(String filename, int rows, int cols) implements BoardEvent {}
+
+    /**
+     * A hint was searched for
+     *
+     * @param path configs from the board before the hint to a solution, empty if none was found
+     * @param optimal true if the path is proven shortest
+     */
+    record HintResult(List<Configuration> path, boolean optimal) implements BoardEvent {}
+
+    /**
+     * The board is now solved
+     */
+    record Solved() implements BoardEvent {}
+}
@@ -0,0 +1,305 @@
+package puzzles.common.gui;
+
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import puzzles.common.Coordinates;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * A board view that draws every cell onto one canvas the size of the window, for boards too
+ * large for a node per cell. Only the cells in view are drawn, and after a change only the
+ * cells marked dirty are, once per pulse. Sprites are loaded already scaled to the tile size
+ * and kept until the zoom changes. The wheel scrolls, the wheel with control held zooms,
+ * dragging pans, and a click is mapped to its cell from the scroll offset and tile size.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class BoardCanvas extends Pane {
+    /** Smallest tile, in pixels */
+    private static final int MIN_TILE_SIZE = 4;
+    /** Largest tile, in pixels */
+    private static final int MAX_TILE_SIZE = 150;
+    /** Zoom factor of one wheel step */
+    private static final double ZOOM_STEP = 1.25;
+    /** Color outside the board */
+    private static final Color MARGIN = Color.gray(0.15);
+
+    /**
+     * The content of the board's cells
+     */
+    public interface Cells {
+        /**
+         * Get the content of a cell
+         *
+         * @param row row of the cell
+         * @param col column of the cell
+         * @return the piece, as in the puzzle file
+         */
+        char get(int row, int col);
+    }
+
+    /**
+     * The images of the pieces, loaded at the size they are drawn
+     */
+    public interface Sprites {
+        /**
+         * Load the image of a piece
+         *
+         * @param piece the piece
+         * @param size width and height, in pixels
+         * @return the image, null if the piece is drawn as the background only
+         */
+        Image load(char piece, int size);
+    }
+
+    private final Canvas canvas;  // the drawing, the size of the pane
+    private final Cells cells;  // board content
+    private final Sprites sprites;  // piece image loader
+    private final IntFunction<Image> backgrounds;  // cell background loader
+    private final Map<Character,Image> spriteCache;  // sprites at the current tile size
+    private final Queue<Coordinates> dirty;  // cells to draw on the next pulse
+    private Image background;  // background at the current tile size
+    private int rows;  // rows of the board
+    private int cols;  // columns of the board
+    private int tileSize;  // tile width and height, in pixels
+    private double offsetX;  // board x drawn at the left edge
+    private double offsetY;  // board y drawn at the top edge
+    private double dragX;  // mouse x at the last drag event
+    private double dragY;  // mouse y at the last drag event
+    private boolean flushQueued;  // true if dirty cells are already queued to be drawn
+    private Coordinates selected;  // cell drawn with a border, null if none
+    private Consumer<Coordinates> onCellClicked;  // told about clicks on the board
+
+    /**
+     * Create a board view
+     *
+     * @param cells board content
+     * @param sprites piece image loader
+     * @param backgrounds cell background loader, given the size in pixels
+     * @param tileSize starting tile size, in pixels
+     */
+    public BoardCanvas(Cells cells, Sprites sprites, IntFunction<Image> backgrounds, int tileSize) {
+        this.cells = cells;
+        this.sprites = sprites;
+        this.backgrounds = backgrounds;
+        this.tileSize = tileSize;
+        spriteCache = new HashMap<>();
+        dirty = new ArrayDeque<>();
+        canvas = new Canvas();
+        getChildren().add(canvas);
+        setMinSize(0, 0);  // the canvas follows the pane, so it mustn't hold the pane open
+        canvas.widthProperty().bind(widthProperty());
+        canvas.heightProperty().bind(heightProperty());
+        canvas.widthProperty().addListener((observable, old, width) -> redraw());
+        canvas.heightProperty().addListener((observable, old, height) -> redraw());
+        setOnScroll(this::scrolled);
+        setOnMousePressed(e -> {
+            dragX = e.getX();
+            dragY = e.getY();
+        });
+        setOnMouseDragged(e -> {
+            scrollBy(dragX - e.getX(), dragY - e.getY());
+            dragX = e.getX();
+            dragY = e.getY();
+        });
+        setOnMouseClicked(this::clicked);
+    }
+
+    /**
+     * Show a board of a new size, scrolled to its top left corner
+     *
+     * @param rows rows of the board
+     * @param cols columns of the board
+     * @param width preferred width of the view, in pixels
+     * @param height preferred height of the view, in pixels
+     */
+    public void setBoard(int rows, int cols, double width, double height) {
+        this.rows = rows;
+        this.cols = cols;
+        offsetX = 0;
+        offsetY = 0;
+        selected = null;
+        dirty.clear();
+        setPrefSize(Math.min(width, (double) cols * tileSize), Math.min(height, (double) rows * tileSize));
+        redraw();
+    }
+
+    /**
+     * Set who is told about clicks on a cell; a drag is not a click
+     *
+     * @param onCellClicked gets the clicked cell
+     */
+    public void setOnCellClicked(Consumer<Coordinates> onCellClicked) {
+        this.onCellClicked = onCellClicked;
+    }
+
+    /**
+     * Mark a cell to be drawn again on the next pulse
+     *
+     * @param coords the cell
+     */
+    public void markDirty(Coordinates coords) {
+        dirty.add(coords);
+        if(!flushQueued) {
+            flushQueued = true;
+            Platform.runLater(this::flush);
+        }
+    }
+
+    /**
+     * Move the selection border to another cell
+     *
+     * @param coords selected cell, null if nothing is selected
+     */
+    public void setSelected(Coordinates coords) {
+        if(selected != null) {
+            markDirty(selected);
+        }
+        selected = coords;
+        if(selected != null) {
+            markDirty(selected);
+        }
+    }
+
+    /**
+     * Draw every cell in view
+     */
+    public void redraw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setFill(MARGIN);
+        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        clampOffsets();
+        int firstRow = (int) (offsetY / tileSize);
+        int firstCol = (int) (offsetX / tileSize);
+        int lastRow = Math.min(rows - 1, (int) ((offsetY + canvas.getHeight()) / tileSize));
+        int lastCol = Math.min(cols - 1, (int) ((offsetX + canvas.getWidth()) / tileSize));
+        for(int row = firstRow; row <= lastRow; row++) {
+            for(int col = firstCol; col <= lastCol; col++) {
+                drawCell(gc, row, col);
+            }
+        }
+    }
+
+    /**
+     * Draw the dirty cells that are in view
+     */
+    private void flush() {
+        flushQueued = false;
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        while(!dirty.isEmpty()) {
+            Coordinates coords = dirty.remove();
+            if(coords.row() < rows && coords.col() < cols) {
+                drawCell(gc, coords.row(), coords.col());
+            }
+        }
+    }
+
+    /**
+     * Draw one cell, skipping it if it is out of view
+     *
+     * @param gc the canvas graphics
+     * @param row row of the cell
+     * @param col column of the cell
+     */
+    private void drawCell(GraphicsContext gc, int row, int col) {
+        double x = (double) col * tileSize - offsetX;
+        double y = (double) row * tileSize - offsetY;
+        if(x + tileSize <= 0 || y + tileSize <= 0 || x >= canvas.getWidth() || y >= canvas.getHeight()) {
+            return;
+        }
+        if(background == null) {
+            background = backgrounds.apply(tileSize);
+        }
+        gc.drawImage(background, x, y);
+        char piece = cells.get(row, col);
+        if(!spriteCache.containsKey(piece)) {  // empty cells are cached too, as null
+            spriteCache.put(piece, sprites.load(piece, tileSize));
+        }
+        Image sprite = spriteCache.get(piece);
+        if(sprite != null) {
+            gc.drawImage(sprite, x, y);
+        }
+        if(selected != null && selected.row() == row && selected.col() == col) {
+            gc.setStroke(Color.RED);
+            gc.setLineWidth(2);
+            gc.strokeRect(x + 1, y + 1, tileSize - 2, tileSize - 2);
+        }
+    }
+
+    /**
+     * Scroll the view, or zoom it about the mouse with control held
+     *
+     * @param e the wheel event
+     */
+    private void scrolled(ScrollEvent e) {
+        if(e.isControlDown()) {
+            double factor = e.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP;
+            int size = (int) Math.round(Math.max(MIN_TILE_SIZE, Math.min(MAX_TILE_SIZE, tileSize * factor)));
+            if(size == tileSize) {  // small tiles round back to their size
+                size = Math.max(MIN_TILE_SIZE, Math.min(MAX_TILE_SIZE, tileSize + (factor > 1 ? 1 : -1)));
+            }
+            if(size == tileSize) {  // already at the limit
+                e.consume();
+                return;
+            }
+            double scale = (double) size / tileSize;
+            offsetX = (offsetX + e.getX()) * scale - e.getX();  // keep the point under the mouse still
+            offsetY = (offsetY + e.getY()) * scale - e.getY();
+            tileSize = size;
+            spriteCache.clear();
+            background = null;
+            redraw();
+        } else {
+            scrollBy(-e.getDeltaX(), -e.getDeltaY());
+        }
+        e.consume();
+    }
+
+    /**
+     * Scroll the view
+     *
+     * @param dx pixels to the right
+     * @param dy pixels down
+     */
+    private void scrollBy(double dx, double dy) {
+        offsetX += dx;
+        offsetY += dy;
+        redraw();
+    }
+
+    /**
+     * Keep the board in view
+     */
+    private void clampOffsets() {
+        offsetX = Math.max(0, Math.min(offsetX, (double) cols * tileSize - canvas.getWidth()));
+        offsetY = Math.max(0, Math.min(offsetY, (double) rows * tileSize - canvas.getHeight()));
+    }
+
+    /**
+     * Tell the listener which cell was clicked
+     *
+     * @param e the mouse event
+     */
+    private void clicked(MouseEvent e) {
+        if(onCellClicked == null || !e.isStillSincePress()) {
+            return;
+        }
+        int row = (int) ((e.getY() + offsetY) / tileSize);
+        int col = (int) ((e.getX() + offsetX) / tileSize);
+        if(row < rows && col < cols) {
+            onCellClicked.accept(new Coordinates(row, col));
+        }
+    }
+}
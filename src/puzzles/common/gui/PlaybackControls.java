@@ -0,0 +1,226 @@
+package puzzles.common.gui;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.layout.HBox;
+import puzzles.common.solver.Configuration;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Controls that solve the board once in the background and then play the whole path back,
+ * one step per frame interval of an animation timer. Playback can be paused, stepped and
+ * scrubbed to any step; every board of the path is kept by the model, so none of that searches.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class PlaybackControls extends HBox {
+    /** Slowest playback, in steps per second */
+    private static final double MIN_SPEED = 0.5;
+    /** Fastest playback, in steps per second */
+    private static final double MAX_SPEED = 20;
+    /** Starting playback speed, in steps per second */
+    private static final double DEFAULT_SPEED = 4;
+
+    private final Supplier<Callable<List<Configuration>>> search;  // makes a search from the current board
+    private final ToIntFunction<List<Configuration>> start;  // gives the path to the model, returns its steps
+    private final IntPredicate seek;  // shows a step, false if the path is no longer played
+    private final Button play;  // solve, play or pause
+    private final Button step;  // one step forward
+    private final Slider scrub;  // step shown
+    private final Slider speed;  // steps per second
+    private final Label position;  // step shown out of steps
+    private final AnimationTimer timer;  // plays the path
+    private int steps;  // steps of the path, -1 if there is none
+    private int shown;  // step shown
+    private boolean searching;  // true while the path is being searched for
+    private boolean playing;  // true while the timer steps the path
+    private boolean seeking;  // true while the scrub bar is moved by playback, not the user
+
+    /**
+     * Create playback controls
+     *
+     * @param search called on the application thread, makes a search from the current board
+     *               that is run on a background thread
+     * @param start gives the path found to the model, returns its number of steps or -1 if it
+     *              can't be played
+     * @param seek shows a step of the path, returns false if the path is no longer played
+     */
+    public PlaybackControls(Supplier<Callable<List<Configuration>>> search,
+                            ToIntFunction<List<Configuration>> start, IntPredicate seek) {
+        this.search = search;
+        this.start = start;
+        this.seek = seek;
+        steps = -1;
+        play = new Button("Solve & Play");
+        step = new Button("Step");
+        scrub = new Slider(0, 1, 0);
+        speed = new Slider(MIN_SPEED, MAX_SPEED, DEFAULT_SPEED);
+        position = new Label("");
+        play.setStyle("-fx-font-size:18");
+        step.setStyle("-fx-font-size:18");
+        scrub.setBlockIncrement(1);
+        scrub.setMajorTickUnit(1);
+        scrub.setMinorTickCount(0);
+        scrub.setSnapToTicks(true);
+        scrub.setPrefWidth(200);
+        speed.setPrefWidth(80);
+        setAlignment(Pos.CENTER);
+        setSpacing(5);
+        setPadding(new Insets(2, 5, 5, 5));
+        getChildren().addAll(play, step, scrub, new Label("Speed"), speed, position);
+
+        timer = new AnimationTimer() {
+            private long last;  // time of the last step, in nanoseconds
+
+            @Override
+            public void start() {
+                last = 0;
+                super.start();
+            }
+
+            @Override
+            public void handle(long now) {
+                if(last == 0 || now - last >= 1e9 / speed.getValue()) {
+                    last = now;
+                    show(shown + 1);
+                }
+            }
+        };
+        play.setOnAction(e -> playPressed());
+        step.setOnAction(e -> {
+            pause();
+            show(shown + 1);
+        });
+        scrub.valueProperty().addListener((observable, old, value) -> {
+            if(!seeking && steps >= 0 && value.intValue() != shown) {
+                pause();
+                show(value.intValue());
+            }
+        });
+        reset();
+    }
+
+    /**
+     * Forget the path, as the board was changed by something else
+     */
+    public void reset() {
+        pause();
+        steps = -1;
+        play.setText("Solve & Play");
+        play.setDisable(searching);
+        step.setDisable(true);
+        scrub.setDisable(true);
+        position.setText("");
+    }
+
+    /**
+     * Pause, or play the path, solving first if there is none
+     */
+    private void playPressed() {
+        if(playing) {
+            pause();
+            return;
+        }
+        if(steps >= 0) {
+            show(shown == steps ? 0 : shown);  // from the start again once at the end
+        }
+        if(steps < 0) {  // no path yet, or the board changed since it was found
+            solve();
+            return;
+        }
+        playing = true;
+        play.setText("Pause");
+        timer.start();
+    }
+
+    /**
+     * Search for a path on a background thread, then play it
+     */
+    private void solve() {
+        Callable<List<Configuration>> task = search.get();
+        searching = true;
+        play.setDisable(true);
+        position.setText("Solving...");
+        Thread thread = new Thread(() -> {
+            List<Configuration> path;
+            try {
+                path = task.call();
+            } catch(Exception e) {
+                path = List.of();
+            }
+            List<Configuration> found = path;
+            Platform.runLater(() -> started(found));
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Give the path found to the model and start playing it
+     *
+     * @param path the path, empty if none was found
+     */
+    private void started(List<Configuration> path) {
+        searching = false;
+        play.setDisable(false);
+        steps = start.applyAsInt(path);
+        if(steps < 0) {
+            reset();
+            return;
+        }
+        shown = 0;
+        step.setDisable(false);
+        scrub.setDisable(false);
+        seeking = true;
+        scrub.setMax(Math.max(1, steps));
+        scrub.setValue(0);
+        seeking = false;
+        position.setText("0 / " + steps);
+        playPressed();
+    }
+
+    /**
+     * Stop the timer, keeping the step shown
+     */
+    private void pause() {
+        timer.stop();
+        playing = false;
+        if(steps >= 0) {
+            play.setText("Play");
+        }
+    }
+
+    /**
+     * Show a step of the path, pausing at the end
+     *
+     * @param index the step
+     */
+    private void show(int index) {
+        if(index > steps) {
+            pause();
+            return;
+        }
+        if(!seek.test(index)) {  // the board changed since the path was found
+            reset();
+            return;
+        }
+        shown = index;
+        seeking = true;
+        scrub.setValue(index);
+        seeking = false;
+        position.setText(index + " / " + steps);
+        if(index == steps) {
+            pause();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package puzzles.common.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * A file of many boards of one puzzle, each packed by its configuration into a record,
+ * with an index of where every record starts. The file is memory mapped when opened and a
+ * record is handed out as a view of the mapping, so nothing is copied until a board is built.
+ *
+ * The layout is the magic number, the puzzle name (a length and ASCII bytes), the number of
+ * records, the offset of every record and of the end of the last one, then the records.
+ * Offsets count from the start of the file.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class BoardArchive {
+    private static final int MAGIC = 0x50424131;  // "PBA1", first bytes of an archive
+    private final ByteBuffer file;  // the mapped file
+    private final String puzzle;  // puzzle the boards are of
+    private final int size;  // number of records
+    private final int index;  // position of the first offset
+
+    /**
+     * Read the header of a mapped archive
+     *
+     * @param file the mapped file
+     * @param name file name, for errors
+     * @throws IOException if the file isn't an archive
+     */
+    private BoardArchive(ByteBuffer file, String name) throws IOException {
+        this.file = file;
+        if(file.limit() < 10 || file.getInt(0) != MAGIC) {
+            throw new IOException(name + " is not a board archive");
+        }
+        int length = file.getShort(4);
+        byte[] puzzleName = new byte[length];
+        file.get(6, puzzleName);
+        puzzle = new String(puzzleName, StandardCharsets.US_ASCII);
+        size = file.getInt(6 + length);
+        index = 10 + length;
+        if(size < 0 || (long) index + 8L * (size + 1) > file.limit() || offset(size) > file.limit()) {
+            throw new IOException(name + " is cut short");
+        }
+    }
+
+    /**
+     * Open an archive, mapping the whole file
+     *
+     * @param path the archive
+     * @return the archive
+     * @throws IOException if the file can't be read or isn't an archive
+     */
+    public static BoardArchive open(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new BoardArchive(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), path.toString());
+        }
+    }
+
+    /**
+     * Write an archive
+     *
+     * @param path the archive, replaced if it exists
+     * @param puzzle name of the puzzle the boards are of
+     * @param records the packed boards
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Path path, String puzzle, List<byte[]> records) throws IOException {
+        byte[] puzzleName = puzzle.getBytes(StandardCharsets.US_ASCII);
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(puzzleName.length);
+            out.write(puzzleName);
+            out.writeInt(records.size());
+            long offset = 10 + puzzleName.length + 8L * (records.size() + 1);
+            for(byte[] record : records) {
+                out.writeLong(offset);
+                offset += record.length;
+            }
+            out.writeLong(offset);
+            for(byte[] record : records) {
+                out.write(record);
+            }
+        }
+    }
+
+    /**
+     * Gets the puzzle the boards are of
+     *
+     * @return the puzzle name
+     */
+    public String getPuzzle() {
+        return puzzle;
+    }
+
+    /**
+     * Gets the number of boards
+     *
+     * @return number of records
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a record, as a view of the mapped file
+     *
+     * @param i index of the record
+     * @return the record's bytes, from position 0 to its limit
+     */
+    public ByteBuffer record(int i) {
+        if(i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        long start = offset(i);
+        return file.slice((int) start, (int) (offset(i + 1) - start));
+    }
+
+    /**
+     * Gets where a record starts
+     *
+     * @param i index of the record, size for the end of the last one
+     * @return offset from the start of the file
+     */
+    private long offset(int i) {
+        return file.getLong(index + 8 * i);
+    }
+}
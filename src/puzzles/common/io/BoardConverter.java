@@ -0,0 +1,93 @@
+package puzzles.common.io;
+
+import puzzles.astro.model.AstroConfig;
+import puzzles.common.solver.Configuration;
+import puzzles.hoppers.model.HoppersConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Converts puzzle files in the text format into a {@link BoardArchive}, and reads archives back.
+ * Each text file is parsed straight from its bytes and packed by its configuration.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class BoardConverter {
+    /**
+     * Reads and packs a text puzzle file
+     */
+    private interface Packer {
+        /**
+         * Read a text puzzle file and pack its board
+         *
+         * @param file the puzzle file
+         * @return the packed board
+         * @throws IOException if the file can't be read or isn't a puzzle
+         */
+        byte[] pack(Path file) throws IOException;
+    }
+
+    /** Packer of each puzzle, by name */
+    private static final Map<String,Packer> PACKERS = Map.of(
+            "astro", file -> new AstroConfig(ByteScanner.open(file)).pack(),
+            "hoppers", file -> new HoppersConfig(ByteScanner.open(file)).pack());
+    /** Unpacker of each puzzle, by name */
+    private static final Map<String,Function<ByteBuffer,Configuration>> UNPACKERS = Map.of(
+            "astro", AstroConfig::new,
+            "hoppers", HoppersConfig::new);
+
+    /**
+     * Build every board of an archive
+     *
+     * @param archive the archive
+     * @return the boards, in archive order
+     * @throws IllegalArgumentException if the archive's puzzle isn't known
+     */
+    public static List<Configuration> load(BoardArchive archive) {
+        Function<ByteBuffer,Configuration> unpacker = UNPACKERS.get(archive.getPuzzle());
+        if(unpacker == null) {
+            throw new IllegalArgumentException("Unknown puzzle: " + archive.getPuzzle());
+        }
+        List<Configuration> boards = new ArrayList<>(archive.size());
+        for(int i = 0; i < archive.size(); i++) {
+            boards.add(unpacker.apply(archive.record(i)));
+        }
+        return boards;
+    }
+
+    /**
+     * The main routine.
+     *
+     * @param args puzzle archive file... to convert, or --read archive to print an archive's boards
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length == 2 && args[0].equals("--read")) {
+            BoardArchive archive = BoardArchive.open(Path.of(args[1]));
+            long before = System.nanoTime();
+            List<Configuration> boards = load(archive);
+            long millis = (System.nanoTime() - before) / 1_000_000;
+            for(int i = 0; i < boards.size(); i++) {
+                System.out.println("Board #" + i + ":");
+                System.out.println(boards.get(i));
+            }
+            System.out.println(boards.size() + " " + archive.getPuzzle() + " boards loaded in " + millis + " ms");
+        } else if(args.length >= 3 && PACKERS.containsKey(args[0])) {
+            Packer packer = PACKERS.get(args[0]);
+            List<byte[]> records = new ArrayList<>(args.length - 2);
+            for(int i = 2; i < args.length; i++) {
+                records.add(packer.pack(Path.of(args[i])));
+            }
+            BoardArchive.write(Path.of(args[1]), args[0], records);
+            System.out.println(records.size() + " boards written to " + args[1]);
+        } else {
+            System.out.println("Usage: java BoardConverter astro|hoppers archive file...");
+            System.out.println("       java BoardConverter --read archive");
+        }
+    }
+}
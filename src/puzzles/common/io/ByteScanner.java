@@ -0,0 +1,210 @@
+package puzzles.common.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads puzzle files straight from their bytes, without a reader, regular expressions or a
+ * string per line. Large files are memory mapped and small ones read in one call, since
+ * mapping costs more than it saves for a few hundred bytes. Spaces, tabs, carriage returns
+ * and commas separate tokens, so "3,4" reads as two numbers; line ends are separators too,
+ * except where a caller asks for the end of a line.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class ByteScanner {
+    /** Files at least this large are memory mapped, in bytes */
+    private static final long MAP_THRESHOLD = 64 * 1024;
+    /** One string per ASCII character, so single character symbols share their strings */
+    private static final String[] SYMBOLS = new String[128];
+
+    static {
+        for(int c = 0; c < SYMBOLS.length; c++) {
+            SYMBOLS[c] = String.valueOf((char) c);
+        }
+    }
+
+    private final ByteBuffer bytes;  // the input, read from its position to its limit
+    private final String source;  // named in errors
+
+    /**
+     * Create a scanner over bytes already in memory
+     *
+     * @param bytes the input, from its position to its limit
+     * @param source name of the input, for errors
+     */
+    public ByteScanner(ByteBuffer bytes, String source) {
+        this.bytes = bytes;
+        this.source = source;
+    }
+
+    /**
+     * Open a file, mapping it if it is large
+     *
+     * @param file the file
+     * @return a scanner over the whole file
+     * @throws IOException if the file can't be read
+     */
+    public static ByteScanner open(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer bytes = size >= MAP_THRESHOLD
+                    ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+                    : ByteBuffer.wrap(Files.readAllBytes(file));
+            return new ByteScanner(bytes, file.toString());
+        }
+    }
+
+    /**
+     * Is there another token?
+     *
+     * @return true if anything but separators is left
+     */
+    public boolean hasNext() {
+        skip(true);
+        return bytes.hasRemaining();
+    }
+
+    /**
+     * Read a whole number
+     *
+     * @return the number
+     * @throws IOException if the next token isn't a number
+     */
+    public int nextInt() throws IOException {
+        skip(true);
+        boolean negative = bytes.hasRemaining() && bytes.get(bytes.position()) == '-';
+        if(negative) {
+            bytes.get();
+        }
+        if(!bytes.hasRemaining() || !isDigit(bytes.get(bytes.position()))) {
+            throw error("a number");
+        }
+        int value = 0;
+        while(bytes.hasRemaining() && isDigit(bytes.get(bytes.position()))) {
+            value = value * 10 + (bytes.get() - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Read the first character of the next token and skip the rest of it
+     *
+     * @return the character
+     * @throws IOException if there is no token left
+     */
+    public char nextChar() throws IOException {
+        skip(true);
+        if(!bytes.hasRemaining()) {
+            throw error("a symbol");
+        }
+        char c = (char) (bytes.get() & 0xFF);
+        while(bytes.hasRemaining() && !isSeparator(bytes.get(bytes.position()))) {
+            bytes.get();
+        }
+        return c;
+    }
+
+    /**
+     * Read the next token as a string, shared with every other single ASCII character token
+     *
+     * @return the token
+     * @throws IOException if there is no token left
+     */
+    public String nextSymbol() throws IOException {
+        skip(true);
+        int start = bytes.position();
+        while(bytes.hasRemaining() && !isSeparator(bytes.get(bytes.position()))) {
+            bytes.get();
+        }
+        int length = bytes.position() - start;
+        if(length == 0) {
+            throw error("a symbol");
+        }
+        if(length == 1) {
+            return symbol(bytes.get(start));
+        }
+        byte[] token = new byte[length];
+        bytes.get(start, token);
+        return new String(token, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Gets the shared string of a single ASCII character, as read by {@link #nextSymbol()}
+     *
+     * @param c the character
+     * @return the string
+     */
+    public static String symbol(byte c) {
+        return c >= 0 ? SYMBOLS[c] : String.valueOf((char) (c & 0xFF));
+    }
+
+    /**
+     * Is the rest of the current line blank?
+     *
+     * @return true if only separators are left before the next line end
+     */
+    public boolean atLineEnd() {
+        skip(false);
+        return !bytes.hasRemaining() || bytes.get(bytes.position()) == '\n';
+    }
+
+    /**
+     * Skip the rest of the current line, line end included
+     */
+    public void nextLine() {
+        while(bytes.hasRemaining() && bytes.get() != '\n') {
+            // up to and including the line end
+        }
+    }
+
+    /**
+     * Skip separators
+     *
+     * @param lines true to skip line ends too
+     */
+    private void skip(boolean lines) {
+        while(bytes.hasRemaining()) {
+            byte b = bytes.get(bytes.position());
+            if(!isSeparator(b) || (b == '\n' && !lines)) {
+                return;
+            }
+            bytes.get();
+        }
+    }
+
+    /**
+     * Is a byte a separator?
+     *
+     * @param b the byte
+     * @return true for spaces, tabs, line ends and commas
+     */
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ',';
+    }
+
+    /**
+     * Is a byte a decimal digit?
+     *
+     * @param b the byte
+     * @return true for 0 to 9
+     */
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * Describe where the input isn't what was expected
+     *
+     * @param expected what was expected
+     * @return the error
+     */
+    private IOException error(String expected) {
+        return new IOException(source + ": expected " + expected + " at byte " + bytes.position());
+    }
+}
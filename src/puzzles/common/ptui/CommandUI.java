@@ -0,0 +1,43 @@
+package puzzles.common.ptui;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * A plain text UI that can be driven one command line at a time, printing to any stream,
+ * so scripts can be replayed without standard input and many games can share one process.
+ * The stream is only flushed by the caller, so it may be buffered.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public interface CommandUI {
+    /**
+     * Choose to print only the rows a command changed instead of the whole board after
+     * every command; the whole board is printed on load and on request. Set before init.
+     *
+     * @param diffOnly true to print only changed rows
+     */
+    void setDiffOnly(boolean diffOnly);
+
+    /**
+     * Load a puzzle and print the help
+     *
+     * @param filename the puzzle file
+     * @param out where the game is printed
+     * @throws IOException if the file can't be read
+     */
+    void init(String filename, PrintStream out) throws IOException;
+
+    /**
+     * Carry out one command line, as typed at the prompt
+     *
+     * @param line the command line
+     * @return false if the command quits
+     */
+    boolean command(String line);
+
+    /**
+     * End the game without quitting the program, stopping any work the model does in the background
+     */
+    void close();
+}
@@ -0,0 +1,207 @@
+package puzzles.common.ptui;
+
+import puzzles.astro.ptui.AstroPTUI;
+import puzzles.hoppers.ptui.HoppersPTUI;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Replays PTUI command scripts headlessly, many sessions at once, each against its own model.
+ * A script named game-n-ptui-in.txt is played on game-n.txt, from the directory the driver
+ * runs in, the way the PTUI would play it from standard input, so each transcript can be
+ * compared with output/game/game-n-ptui-out.txt. Every command is timed, and the latencies
+ * of each kind of command are reported as percentiles over all sessions.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class ReplayDriver {
+    /** Ending of a script's file name */
+    private static final String SCRIPT_SUFFIX = "-ptui-in.txt";
+    /** Percentiles reported */
+    private static final double[] PERCENTILES = {50, 90, 99};
+    /** PTUI of each game, by the start of its puzzle names */
+    private static final Map<String,Supplier<CommandUI>> GAMES = Map.of(
+            "astro", AstroPTUI::new,
+            "hoppers", HoppersPTUI::new);
+    /** Commands by the letter they start with, as in the PTUI help */
+    private static final Map<Character,String> COMMANDS = Map.of(
+            'h', "h(int)", 'l', "l(oad)", 's', "s(elect)", 'm', "m(ove)", 'q', "q(uit)", 'r', "r(eset)");
+
+    /**
+     * What one session printed and how long its commands took
+     *
+     * @param script the script played
+     * @param transcript everything printed, prompts included
+     * @param latencies nanoseconds each command took, by command
+     */
+    private record Session(Path script, String transcript, Map<String,List<Long>> latencies) {}
+
+    /**
+     * Play a script once against a new model
+     *
+     * @param script the script
+     * @param lines its command lines
+     * @param diffOnly true to print only the rows each command changes
+     * @param start released once as many sessions are ready as can run at once
+     * @return the transcript and latencies
+     * @throws Exception if the puzzle can't be loaded or the session is interrupted
+     */
+    private static Session play(Path script, List<String> lines, boolean diffOnly, CountDownLatch start) throws Exception {
+        String name = script.getFileName().toString();
+        String puzzle = name.substring(0, name.length() - SCRIPT_SUFFIX.length());
+        CommandUI ui = GAMES.get(puzzle.substring(0, puzzle.indexOf('-'))).get();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, false);
+        Map<String,List<Long>> latencies = new HashMap<>();
+        ui.setDiffOnly(diffOnly);
+        ui.init(puzzle + ".txt", out);
+        try {
+            start.await();
+            boolean quit = false;
+            for(String line : lines) {
+                out.print("> ");
+                String command = line.isBlank() ? "" : COMMANDS.getOrDefault(line.strip().charAt(0), "other");
+                long before = System.nanoTime();
+                quit = !ui.command(line);
+                latencies.computeIfAbsent(command, c -> new ArrayList<>()).add(System.nanoTime() - before);
+                if(quit) {
+                    break;
+                }
+            }
+            if(!quit) {
+                out.print("> ");  // the PTUI prompts once more before it finds the end of the input
+            }
+        } finally {
+            ui.close();
+        }
+        out.flush();
+        return new Session(script, bytes.toString(), latencies);
+    }
+
+    /**
+     * Gets a percentile of sorted latencies, by the nearest rank
+     *
+     * @param sorted latencies, in increasing order
+     * @param percentile the percentile, 0 to 100
+     * @return the latency in milliseconds
+     */
+    private static double percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    /**
+     * The main routine.
+     *
+     * @param args [--sessions n] [--threads n] [--out dir] [--diff] script...
+     */
+    public static void main(String[] args) throws Exception {
+        int sessions = 1;  // sessions of each script
+        int threads = 0;  // threads running them, 0 for one per session
+        Path outDir = null;  // where every transcript is written, null to print the first of each script only
+        boolean diffOnly = false;  // print only the rows each command changes
+        List<Path> scripts = new ArrayList<>();
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "--sessions" -> sessions = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--out" -> outDir = Path.of(args[++i]);
+                case "--diff" -> diffOnly = true;
+                default -> scripts.add(Path.of(args[i]));
+            }
+        }
+        if(scripts.isEmpty() || sessions < 1) {
+            System.out.println("Usage: java ReplayDriver [--sessions n] [--threads n] [--out dir] [--diff] game-n" + SCRIPT_SUFFIX + "...");
+            return;
+        }
+        Map<Path,List<String>> lines = new LinkedHashMap<>();
+        for(Path script : scripts) {
+            String name = script.getFileName().toString();
+            if(!name.endsWith(SCRIPT_SUFFIX) || name.indexOf('-') < 0
+                    || !GAMES.containsKey(name.substring(0, name.indexOf('-')))) {
+                System.out.println("Not a script of a known game: " + script);
+                return;
+            }
+            lines.put(script, Files.readAllLines(script));
+        }
+
+        int total = sessions * scripts.size();
+        int poolSize = threads > 0 ? Math.min(threads, total) : total;
+        CountDownLatch start = new CountDownLatch(poolSize);  // the sessions that can run at once start together
+        List<Future<Session>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        boolean printChanges = diffOnly;
+        long began = System.nanoTime();
+        for(int n = 0; n < sessions; n++) {
+            for(Path script : scripts) {
+                futures.add(executor.submit(() -> {
+                    start.countDown();
+                    return play(script, lines.get(script), printChanges, start);
+                }));
+            }
+        }
+        List<Session> results = new ArrayList<>();
+        int failed = 0;
+        for(Future<Session> future : futures) {
+            try {
+                results.add(future.get());
+            } catch(ExecutionException e) {
+                failed++;
+                System.out.println("Session failed: " + e.getCause());
+            }
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        executor.shutdown();
+
+        Map<Path,String> first = new LinkedHashMap<>();  // first transcript of each script
+        Map<Path,Integer> matching = new HashMap<>();  // transcripts the same as it
+        Map<String,List<Long>> latencies = new TreeMap<>();
+        int number = 0;
+        for(Session session : results) {
+            String reference = first.putIfAbsent(session.script(), session.transcript());
+            if(reference == null || reference.equals(session.transcript())) {
+                matching.merge(session.script(), 1, Integer::sum);
+            }
+            session.latencies().forEach((command, times) ->
+                    latencies.computeIfAbsent(command, c -> new ArrayList<>()).addAll(times));
+            if(outDir != null) {
+                String name = session.script().getFileName().toString();
+                Files.createDirectories(outDir);
+                Files.writeString(outDir.resolve(name.replace(SCRIPT_SUFFIX, "-" + number++ + "-ptui-out.txt")),
+                        session.transcript());
+            }
+        }
+        if(outDir == null) {
+            first.forEach((script, transcript) -> {
+                System.out.println("== " + script.getFileName() + " ==");
+                System.out.print(transcript);
+                System.out.println();
+            });
+        }
+
+        System.out.printf("Sessions: %d in %.2f s (%.1f per second), %d failed%n", total, seconds, results.size() / seconds, failed);
+        for(Path script : first.keySet()) {
+            System.out.println(script.getFileName() + ": " + matching.get(script) + " of " + sessions
+                    + " transcripts match the first");
+        }
+        System.out.printf("%-10s %8s", "Command", "Count");
+        for(double p : PERCENTILES) {
+            System.out.printf(" %9s", "p" + (int) p + " ms");
+        }
+        System.out.printf(" %9s%n", "max ms");
+        latencies.forEach((command, times) -> {
+            long[] sorted = times.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%-10s %8d", command.isEmpty() ? "(blank)" : command, sorted.length);
+            for(double p : PERCENTILES) {
+                System.out.printf(" %9.3f", percentile(sorted, p));
+            }
+            System.out.printf(" %9.3f%n", sorted[sorted.length - 1] / 1e6);
+        });
+    }
+}
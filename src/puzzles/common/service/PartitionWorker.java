@@ -0,0 +1,407 @@
+package puzzles.common.service;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.EncodableConfiguration;
+import puzzles.common.solver.OffHeapStateStore;
+import puzzles.common.solver.Solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * One worker process of a {@link PartitionedSolver}. It owns the configs whose encodings hash to
+ * its index and keeps them, with their predecessors, in an {@link OffHeapStateStore}. When the
+ * coordinator says so it expands its part of the current layer with a {@link Solver.Search}:
+ * neighbors it owns are stored straight away, the others are buffered by owner and sent in
+ * batches over a socket to each other worker. A batch is its length, then per neighbor the reference to its predecessor, its
+ * flags, and its encoding's length and bytes; a length of -1 ends the worker's part of a layer.
+ *
+ * Every inbound socket has a virtual thread of its own that only queues what arrives, so two
+ * workers sending to each other never wait on each other. Only the main thread touches the store.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class PartitionWorker {
+    private static final int BATCH_BYTES = 1 << 16;  // neighbors buffered for an owner before they are sent
+    private static final byte SOLUTION = 1;  // flag of a neighbor that is a solution
+    private static final byte DEAD_END = 2;  // flag of a neighbor that is never expanded
+    private static final byte[] END = new byte[0];  // queued when a worker ends its part of a layer
+    private static final byte[] FAILED = new byte[0];  // queued when a worker's socket fails
+    private final int index;  // this worker's index
+    private final int workers;  // number of workers
+    private final EncodableConfiguration start;  // starting config, decodes stored configs
+    private final OffHeapStateStore store;  // configs this worker owns
+    private final DataOutputStream[] peers;  // sockets to the other workers, by index
+    private final ByteArrayOutputStream[] buffers;  // neighbors waiting to be sent, by owner
+    private final DataOutputStream[] batches;  // writers of the buffers
+    private final BlockingQueue<byte[]> inbox;  // batches from the other workers
+    private final WorkerSearch search;  // the search over this worker's part of the layers
+    private long added;  // configs stored in the layer being built
+    private long routed;  // neighbors sent to other workers in the layer being built
+    private long solution;  // reference to a solution stored in the layer being built, or NONE
+
+    /**
+     * The search over the addresses of stored configs, queued a layer at a time
+     */
+    private final class WorkerSearch extends Solver.Search<Long> {
+        private long[] layer;  // addresses of the layer being expanded
+        private int layerSize;  // addresses in the layer
+        private int position;  // next address of the layer to take
+        private long[] next;  // addresses of the layer being built
+        private int nextSize;  // addresses in the layer being built
+
+        /**
+         * Create the search
+         */
+        private WorkerSearch() {
+            layer = new long[0];
+            next = new long[16];
+        }
+
+        /**
+         * Queue an address in the layer being built
+         *
+         * @param address the address
+         */
+        @Override
+        protected void add(Long address) {
+            if(nextSize == next.length) {
+                next = Arrays.copyOf(next, nextSize * 2);
+            }
+            next[nextSize++] = address;
+        }
+
+        /**
+         * Take the next address of the layer being expanded
+         *
+         * @return the address, or null once the layer is done
+         */
+        @Override
+        protected Long remove() {
+            return position < layerSize ? layer[position++] : null;
+        }
+
+        /**
+         * Decode the config stored at an address
+         *
+         * @param address the address
+         * @return its config
+         */
+        @Override
+        protected Configuration config(Long address) {
+            return start.decode(store.bytes(address));
+        }
+
+        /**
+         * Store a neighbor this worker owns, or buffer it for its owner
+         *
+         * @param nbr the neighbor
+         * @param from address of the config it was generated from
+         * @return its address if this worker stored it just now, otherwise null
+         */
+        @Override
+        protected Long reach(Configuration nbr, Long from) {
+            try {
+                return route(nbr, PartitionedSolver.reference(index, from));
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Start taking the layer built so far
+         */
+        private void nextLayer() {
+            layer = next;
+            layerSize = nextSize;
+            position = 0;
+            next = new long[Math.max(16, layerSize)];
+            nextSize = 0;
+        }
+    }
+
+    /**
+     * Create a worker and store the start if this worker owns it
+     *
+     * @param index this worker's index
+     * @param workers number of workers
+     * @param start starting config
+     */
+    private PartitionWorker(int index, int workers, EncodableConfiguration start) {
+        this.index = index;
+        this.workers = workers;
+        this.start = start;
+        store = new OffHeapStateStore();
+        peers = new DataOutputStream[workers];
+        buffers = new ByteArrayOutputStream[workers];
+        batches = new DataOutputStream[workers];
+        for(int i = 0; i < workers; i++) {
+            buffers[i] = new ByteArrayOutputStream(BATCH_BYTES + 1024);
+            batches[i] = new DataOutputStream(buffers[i]);
+        }
+        inbox = new LinkedBlockingQueue<>();
+        search = new WorkerSearch();
+        byte[] encoding = start.encode();
+        if(PartitionedSolver.owner(encoding, workers) == index) {
+            search.start(store(encoding, OffHeapStateStore.NONE, false));
+        }
+    }
+
+    /**
+     * Connect to every other worker and start reading what they send
+     *
+     * @param server this worker's socket
+     * @param ports every worker's port, by index
+     * @throws IOException if a worker can't be reached
+     */
+    private void connect(ServerSocket server, int[] ports) throws IOException {
+        for(int i = 0; i < workers; i++) {
+            if(i != index) {
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), ports[i]);
+                peers[i] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BATCH_BYTES));
+                peers[i].writeInt(index);
+                peers[i].flush();
+            }
+        }
+        for(int i = 1; i < workers; i++) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(server.accept().getInputStream(), BATCH_BYTES));
+            in.readInt();  // the sender's index; batches say nothing of where they came from
+            Thread.ofVirtual().start(() -> receive(in));
+        }
+    }
+
+    /**
+     * Queue the batches from one worker until its socket closes
+     *
+     * @param in the socket from the worker
+     */
+    private void receive(DataInputStream in) {
+        try {
+            while(true) {
+                int length = in.readInt();
+                if(length < 0) {
+                    inbox.add(END);
+                } else {
+                    byte[] batch = new byte[length];
+                    in.readFully(batch);
+                    inbox.add(batch);
+                }
+            }
+        } catch(IOException e) {
+            inbox.add(FAILED);
+        }
+    }
+
+    /**
+     * Answer the coordinator's commands until it says to quit
+     *
+     * @param in commands
+     * @param out answers
+     * @throws IOException if a socket fails
+     * @throws InterruptedException if interrupted waiting for other workers
+     */
+    private void serve(DataInputStream in, DataOutputStream out) throws IOException, InterruptedException {
+        while(true) {
+            byte command = in.readByte();
+            if(command == PartitionedSolver.EXPAND) {
+                long generated = expand();
+                out.writeLong(generated);
+                out.writeLong(added);
+                out.writeLong(routed);
+                out.writeLong(solution);
+                out.writeLong(store.getReservedBytes());
+            } else if(command == PartitionedSolver.TRACE) {
+                long address = in.readLong();
+                byte[] encoding = store.bytes(address);
+                out.writeInt(encoding.length);
+                out.write(encoding);
+                out.writeLong(store.parent(address));
+            } else if(command == PartitionedSolver.QUIT) {
+                return;
+            } else {
+                throw new IOException("Unknown command " + command);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Expand this worker's part of the current layer and build its part of the next one from
+     * the neighbors every worker sends
+     *
+     * @return neighbors generated
+     * @throws IOException if a socket fails
+     * @throws InterruptedException if interrupted waiting for other workers
+     */
+    private long expand() throws IOException, InterruptedException {
+        long total = search.getTotalConfigs();
+        long unique = search.getUniqueConfigs();
+        routed = 0;
+        solution = OffHeapStateStore.NONE;
+        int ended = 0;  // workers that have sent all of their part
+        search.nextLayer();
+        for(Long address; (address = search.remove()) != null; ) {
+            try {
+                search.expand(address, search.config(address));
+            } catch(UncheckedIOException e) {
+                throw e.getCause();
+            }
+            for(byte[] batch; (batch = inbox.poll()) != null; ) {  // keep the inbox small
+                ended += unpack(batch);
+            }
+        }
+        for(int i = 0; i < workers; i++) {
+            if(i != index) {
+                send(i);
+                peers[i].writeInt(-1);
+                peers[i].flush();
+            }
+        }
+        while(ended < workers - 1) {
+            ended += unpack(inbox.take());
+        }
+        added = search.getUniqueConfigs() - unique;
+        return search.getTotalConfigs() - total;
+    }
+
+    /**
+     * Store a neighbor this worker owns, or buffer it for its owner
+     *
+     * @param nbr the neighbor
+     * @param reference reference to the config it was generated from
+     * @return its address if this worker stored it just now, otherwise null
+     * @throws IOException if a full batch can't be sent
+     */
+    private Long route(Configuration nbr, long reference) throws IOException {
+        byte[] encoding = nbr.encode();
+        int owner = PartitionedSolver.owner(encoding, workers);
+        if(owner == index) {
+            return store(encoding, reference, nbr.isSolution());
+        }
+        byte flags = (byte) ((nbr.isSolution() ? SOLUTION : 0) | (nbr.isDeadEnd() ? DEAD_END : 0));
+        routed++;
+        DataOutputStream batch = batches[owner];
+        batch.writeLong(reference);
+        batch.writeByte(flags);
+        batch.writeInt(encoding.length);
+        batch.write(encoding);
+        if(buffers[owner].size() >= BATCH_BYTES) {
+            send(owner);
+        }
+        return null;
+    }
+
+    /**
+     * Send the neighbors buffered for a worker as one batch
+     *
+     * @param owner index of the worker
+     * @throws IOException if the socket fails
+     */
+    private void send(int owner) throws IOException {
+        if(buffers[owner].size() > 0) {
+            peers[owner].writeInt(buffers[owner].size());
+            buffers[owner].writeTo(peers[owner]);
+            peers[owner].flush();
+            buffers[owner].reset();
+        }
+    }
+
+    /**
+     * Store the neighbors of a batch from another worker
+     *
+     * @param batch the batch
+     * @return 1 if the batch ends the sender's part of the layer, 0 otherwise
+     * @throws IOException if the sender's socket failed
+     */
+    private int unpack(byte[] batch) throws IOException {
+        if(batch == END) {
+            return 1;
+        }
+        if(batch == FAILED) {
+            throw new IOException("Lost a worker");
+        }
+        ByteBuffer in = ByteBuffer.wrap(batch);
+        while(in.hasRemaining()) {
+            long reference = in.getLong();
+            byte flags = in.get();
+            byte[] encoding = new byte[in.getInt()];
+            in.get(encoding);
+            Long address = store(encoding, reference, (flags & SOLUTION) != 0);
+            if(address != null) {
+                search.reached(address, (flags & DEAD_END) != 0);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Store a config unless it is stored already, noting it if it is the layer's first solution
+     *
+     * @param encoding its encoding
+     * @param reference reference to its predecessor, or NONE
+     * @param isSolution true if it is a solution
+     * @return its address, or null if it was stored already
+     */
+    private Long store(byte[] encoding, long reference, boolean isSolution) {
+        long address = store.add(encoding, reference);
+        if(address == OffHeapStateStore.NONE) {
+            return null;
+        }
+        if(isSolution && solution == OffHeapStateStore.NONE) {
+            solution = PartitionedSolver.reference(index, address);
+        }
+        return address;
+    }
+
+    /**
+     * The main routine, run by the coordinator
+     *
+     * @param args coordinator's port, number of workers, this worker's index
+     * @throws Exception if the puzzle can't be read or a socket fails
+     */
+    public static void main(String[] args) throws Exception {
+        if(args.length != 3) {
+            System.out.println("Usage: java PartitionWorker port workers index (started by PartitionedSolver)");
+            return;
+        }
+        int port = Integer.parseInt(args[0]);
+        int workers = Integer.parseInt(args[1]);
+        int index = Integer.parseInt(args[2]);
+        try(Socket coordinator = new Socket(InetAddress.getLoopbackAddress(), port);
+            ServerSocket server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress())) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(coordinator.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(coordinator.getOutputStream()));
+            out.writeInt(index);
+            out.writeInt(server.getLocalPort());
+            out.flush();
+            byte[] key = new byte[in.readInt()];
+            in.readFully(key);
+            int[] ports = new int[workers];
+            for(int i = 0; i < workers; i++) {
+                ports[i] = in.readInt();
+            }
+            PuzzleSpec puzzle = PuzzleSpec.parse(new String(key, StandardCharsets.UTF_8));
+            if(!(puzzle.start() instanceof EncodableConfiguration start)) {
+                throw new IOException("Partitioning needs an EncodableConfiguration");
+            }
+            PartitionWorker worker = new PartitionWorker(index, workers, start);
+            worker.connect(server, ports);
+            out.writeByte(PartitionedSolver.READY);
+            out.flush();
+            worker.serve(in, out);
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package puzzles.common.service;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.EncodableConfiguration;
+import puzzles.common.solver.Encodings;
+import puzzles.common.solver.OffHeapStateStore;
+import puzzles.common.solver.Solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A breadth first solver for state spaces too large for one JVM. It starts worker processes on
+ * this machine, each a {@link PartitionWorker} that owns the configs whose encodings hash to it
+ * and keeps them off its heap. The solver is the coordinator: it runs the search a layer at a
+ * time, telling every worker to expand its part of the layer and waiting until all have, while
+ * the workers send each neighbor to its owner in batches over loopback sockets. Once a layer holds
+ * a solution, the path is rebuilt by asking the workers for each predecessor in turn.
+ *
+ * Workers are given the puzzle by its {@link PuzzleSpec} key and run with this JVM's class path
+ * and options, so -Xmx sets the heap of each. Their states are off the heap, so the number of
+ * workers is bounded by the machine's memory rather than by any one heap. Counts cover whole
+ * layers, up to the end of the one the solution is found in, and which of several shortest
+ * paths is found depends on the order batches arrive in.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class PartitionedSolver extends Solver {
+    /** Most workers, so a worker's index fits in the top byte of a reference */
+    public static final int MAX_WORKERS = 127;
+    /** Command to expand the current layer */
+    static final byte EXPAND = 'E';
+    /** Command to look up a stored config and its predecessor */
+    static final byte TRACE = 'T';
+    /** Command to stop */
+    static final byte QUIT = 'Q';
+    /** Sent by a worker once it is connected to every other worker */
+    static final byte READY = 'R';
+    private static final int STARTUP_MILLIS = 60_000;  // longest wait for a worker to connect
+    private final String key;  // the puzzle, as workers read it
+    private final int workers;  // worker processes
+    private long totalCount;  // neighbors generated, past the int range of Solver's counts
+    private long uniqueCount;  // configs stored
+    private long routedConfigs;  // neighbors sent to another worker
+    private long workerBytes;  // off-heap memory the workers reserved
+    private int layers;  // layers expanded
+
+    /**
+     * A worker's connection to the coordinator
+     *
+     * @param socket the socket
+     * @param in commands' answers
+     * @param out commands
+     */
+    private record Channel(Socket socket, DataInputStream in, DataOutputStream out) {}
+
+    /**
+     * Create a solver that partitions the search across worker processes
+     *
+     * @param key the puzzle's {@link PuzzleSpec} key; the workers solve from its start
+     * @param workers worker processes to start, from 1 to {@link #MAX_WORKERS}
+     */
+    public PartitionedSolver(String key, int workers) {
+        if(workers < 1 || workers > MAX_WORKERS) {
+            throw new IllegalArgumentException("Workers must be from 1 to " + MAX_WORKERS + ": " + workers);
+        }
+        this.key = key;
+        this.workers = workers;
+    }
+
+    /**
+     * Solves puzzle starting with initial config using Breadth First Search across the workers
+     *
+     * @param initial starting config, the start of the key, must be an {@link EncodableConfiguration}
+     * @return list of configs from start to solution, empty if there is none
+     */
+    @Override
+    public List<Configuration> solve(Configuration initial) {
+        if(!(initial instanceof EncodableConfiguration)) {
+            throw new IllegalArgumentException("Partitioning needs an EncodableConfiguration");
+        }
+        uniqueCount = 1;
+        totalCount = 1;
+        routedConfigs = 0;
+        workerBytes = 0;
+        layers = 0;
+        if(initial.isSolution()) {
+            List<Configuration> path = new LinkedList<>();
+            path.add(initial);
+            return path;
+        }
+        List<Process> processes = new ArrayList<>();
+        try(ServerSocket server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress())) {
+            launch(server.getLocalPort(), processes);
+            Channel[] channels = connect(server);
+            try {
+                long solution = search(channels);
+                List<Configuration> path = solution == OffHeapStateStore.NONE
+                        ? new LinkedList<>() : path(initial, solution, channels);
+                for(Channel channel : channels) {
+                    channel.out().writeByte(QUIT);
+                    channel.out().flush();
+                }
+                for(Process process : processes) {
+                    process.waitFor();
+                }
+                return path;
+            } finally {
+                for(Channel channel : channels) {
+                    channel.socket().close();
+                }
+            }
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the workers", e);
+        } finally {
+            for(Process process : processes) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Start the worker processes, each told to connect back to a port
+     *
+     * @param port the coordinator's port
+     * @param processes gets the started workers
+     * @throws IOException if a worker can't be started
+     */
+    private void launch(int port, List<Process> processes) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        for(String option : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if(!option.startsWith("-agentlib") && !option.startsWith("-javaagent")) {  // a debugger's port can't be shared
+                command.add(option);
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(PartitionWorker.class.getName());
+        command.add(String.valueOf(port));
+        command.add(String.valueOf(workers));
+        for(int i = 0; i < workers; i++) {
+            List<String> workerCommand = new ArrayList<>(command);
+            workerCommand.add(String.valueOf(i));
+            processes.add(new ProcessBuilder(workerCommand)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start());
+        }
+    }
+
+    /**
+     * Accept every worker, send each the puzzle and the other workers' ports, and wait until
+     * they are all connected to each other
+     *
+     * @param server the coordinator's socket
+     * @return channels to the workers, by index
+     * @throws IOException if a worker doesn't connect in time or fails
+     */
+    private Channel[] connect(ServerSocket server) throws IOException {
+        server.setSoTimeout(STARTUP_MILLIS);
+        Channel[] channels = new Channel[workers];
+        int[] ports = new int[workers];
+        try {
+            for(int i = 0; i < workers; i++) {
+                Socket socket = server.accept();
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                int index = in.readInt();
+                if(index < 0 || index >= workers || channels[index] != null) {
+                    socket.close();
+                    throw new IOException("Unexpected worker " + index);
+                }
+                channels[index] = new Channel(socket, in, out);
+                ports[index] = in.readInt();
+            }
+            byte[] puzzle = key.getBytes(StandardCharsets.UTF_8);
+            for(Channel channel : channels) {
+                channel.out().writeInt(puzzle.length);
+                channel.out().write(puzzle);
+                for(int port : ports) {
+                    channel.out().writeInt(port);
+                }
+                channel.out().flush();
+            }
+            for(Channel channel : channels) {
+                if(channel.in().readByte() != READY) {
+                    throw new IOException("Worker failed to start");
+                }
+            }
+        } catch(IOException e) {
+            for(Channel channel : channels) {
+                if(channel != null) {
+                    channel.socket().close();
+                }
+            }
+            throw e;
+        }
+        return channels;
+    }
+
+    /**
+     * Expand layer after layer until one holds a solution or a layer is empty
+     *
+     * @param channels the workers
+     * @return reference to the solution, NONE if there is none
+     * @throws IOException if a worker fails
+     */
+    private long search(Channel[] channels) throws IOException {
+        while(true) {
+            for(Channel channel : channels) {
+                channel.out().writeByte(EXPAND);
+                channel.out().flush();
+            }
+            long solution = OffHeapStateStore.NONE;
+            long added = 0;
+            long bytes = 0;
+            for(Channel channel : channels) {  // the barrier: every worker has finished the layer
+                totalCount += channel.in().readLong();
+                long workerAdded = channel.in().readLong();
+                routedConfigs += channel.in().readLong();
+                long workerSolution = channel.in().readLong();
+                bytes += channel.in().readLong();
+                added += workerAdded;
+                if(solution == OffHeapStateStore.NONE) {
+                    solution = workerSolution;
+                }
+            }
+            uniqueCount += added;
+            workerBytes = bytes;
+            layers++;
+            if(solution != OffHeapStateStore.NONE || added == 0) {
+                return solution;
+            }
+        }
+    }
+
+    /**
+     * Rebuild the path from the start to a stored configuration, asking its owner for each
+     * config and its predecessor, then replaying forward from the start and picking the
+     * neighbor whose encoding matches at each step
+     *
+     * @param initial starting config
+     * @param reference reference to the last config of the path
+     * @param channels the workers
+     * @return list of configs from start to the stored config
+     * @throws IOException if a worker fails or traces a config that can't be reached
+     */
+    private static List<Configuration> path(Configuration initial, long reference, Channel[] channels) throws IOException {
+        LinkedList<byte[]> encodings = new LinkedList<>();
+        for(long step = reference; step != OffHeapStateStore.NONE; ) {
+            Channel channel = channels[worker(step)];
+            channel.out().writeByte(TRACE);
+            channel.out().writeLong(address(step));
+            channel.out().flush();
+            byte[] encoding = new byte[channel.in().readInt()];
+            channel.in().readFully(encoding);
+            encodings.addFirst(encoding);
+            step = channel.in().readLong();
+        }
+        List<Configuration> path = new LinkedList<>();
+        Configuration config = initial;
+        path.add(config);
+        for(byte[] encoding : encodings.subList(1, encodings.size())) {
+            Configuration next = null;
+            for(Configuration nbr : config.getNeighbors()) {
+                if(Arrays.equals(nbr.encode(), encoding)) {
+                    next = nbr;
+                    break;
+                }
+            }
+            if(next == null) {
+                throw new IOException("A traced config isn't a neighbor of the one before it");
+            }
+            config = next;
+            path.add(config);
+        }
+        return path;
+    }
+
+    /**
+     * Gets the worker that owns a config. The top half of the hash picks it, as the store's
+     * table is indexed by the bottom half.
+     *
+     * @param encoding the config's encoding
+     * @param workers number of workers
+     * @return index of the owner
+     */
+    static int owner(byte[] encoding, int workers) {
+        return (int) ((Encodings.hash(encoding) >>> 32) % workers);
+    }
+
+    /**
+     * Refer to a config stored by a worker
+     *
+     * @param worker index of the worker
+     * @param address address in its store
+     * @return the reference
+     */
+    static long reference(int worker, long address) {
+        return (long) worker << 56 | address;
+    }
+
+    /**
+     * Gets the worker a reference is to
+     *
+     * @param reference the reference
+     * @return index of the worker
+     */
+    static int worker(long reference) {
+        return (int) (reference >>> 56);
+    }
+
+    /**
+     * Gets the address a reference is to
+     *
+     * @param reference the reference
+     * @return address in the worker's store
+     */
+    static long address(long reference) {
+        return reference & 0x00FFFFFFFFFFFFFFL;
+    }
+
+    /**
+     * Gets total configs, at most the largest int; see {@link #getTotalCount()}
+     *
+     * @return number of total configs
+     */
+    @Override
+    public int getTotalConfigs() {
+        return (int) Math.min(Integer.MAX_VALUE, totalCount);
+    }
+
+    /**
+     * Gets unique configs, at most the largest int; see {@link #getUniqueCount()}
+     *
+     * @return number of unique configs
+     */
+    @Override
+    public int getUniqueConfigs() {
+        return (int) Math.min(Integer.MAX_VALUE, uniqueCount);
+    }
+
+    /**
+     * Gets total configs, which can pass the largest int across many workers
+     *
+     * @return number of total configs
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Gets unique configs, which can pass the largest int across many workers
+     *
+     * @return number of unique configs
+     */
+    public long getUniqueCount() {
+        return uniqueCount;
+    }
+
+    /**
+     * Gets the number of worker processes
+     *
+     * @return workers
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Gets the neighbors sent from the worker that generated them to the one that owns them
+     *
+     * @return number of routed configs
+     */
+    public long getRoutedConfigs() {
+        return routedConfigs;
+    }
+
+    /**
+     * Gets the off-heap memory all the workers reserved for their states
+     *
+     * @return bytes reserved when the search ended
+     */
+    public long getWorkerBytes() {
+        return workerBytes;
+    }
+
+    /**
+     * Gets the layers expanded
+     *
+     * @return number of layers
+     */
+    public int getLayers() {
+        return layers;
+    }
+}
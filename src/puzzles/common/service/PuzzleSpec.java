@@ -0,0 +1,124 @@
+package puzzles.common.service;
+
+import puzzles.astro.model.AstroConfig;
+import puzzles.clock.ClockConfig;
+import puzzles.common.io.ByteScanner;
+import puzzles.common.solver.Configuration;
+import puzzles.dice.DiceConfig;
+import puzzles.dice.Die;
+import puzzles.hoppers.model.HoppersConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A puzzle read from its text, as sent to the solver daemon or handed to partition workers.
+ * The key is the puzzle's name on a line of its own, then the puzzle normalized, so equal puzzles
+ * have equal keys and a key can be read back into the same puzzle by {@link #parse(String)}.
+ *
+ * Astro and Hoppers puzzles are the text of a puzzle file, a Clock puzzle is "hours start end"
+ * and a Dice puzzle is "start end die...", the dice as numbers of faces.
+ *
+ * @param key the puzzle's name and the puzzle normalized
+ * @param start the config to solve
+ * @param multiline true if steps are printed on lines of their own, as boards are
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public record PuzzleSpec(String key, Configuration start, boolean multiline) {
+    /**
+     * Reads a puzzle of one kind from its text
+     */
+    private interface Reader {
+        /**
+         * Read a puzzle
+         *
+         * @param body the text
+         * @return the puzzle
+         * @throws IOException if the text isn't a puzzle
+         */
+        PuzzleSpec read(ByteScanner body) throws IOException;
+    }
+
+    /** Reader of each puzzle, by name */
+    private static final Map<String,Reader> READERS = Map.of(
+            "astro", body -> {
+                AstroConfig config = new AstroConfig(body);
+                return new PuzzleSpec("astro\n" + config.toFileText(), config, true);
+            },
+            "hoppers", body -> {
+                HoppersConfig config = new HoppersConfig(body);
+                return new PuzzleSpec("hoppers\n" + config.toFileText(), config, true);
+            },
+            "clock", body -> {
+                int hours = body.nextInt();
+                int start = body.nextInt();
+                int end = body.nextInt();
+                if(hours < 1) {
+                    throw new IOException("A clock needs at least one hour");
+                }
+                return new PuzzleSpec("clock\n" + hours + " " + start + " " + end, new ClockConfig(hours, start, end), false);
+            },
+            "dice", body -> {
+                String start = body.nextSymbol();
+                String end = body.nextSymbol();
+                StringBuilder key = new StringBuilder("dice\n").append(start).append(' ').append(end);
+                List<Die> dice = new ArrayList<>();
+                while(body.hasNext()) {
+                    int faces = body.nextInt();  // only numbers, so only die-n.txt files are read
+                    dice.add(Die.load(String.valueOf(faces)));
+                    key.append(' ').append(faces);
+                }
+                if(dice.isEmpty() || dice.size() != start.length() || dice.size() != end.length()) {
+                    throw new IOException("Give a face of every die at the start and end");
+                }
+                return new PuzzleSpec(key.toString(), new DiceConfig(dice, start, end), false);
+            });
+
+    /**
+     * Is there a puzzle of this name?
+     *
+     * @param name the puzzle's name
+     * @return true if its text can be read
+     */
+    public static boolean isKnown(String name) {
+        return READERS.containsKey(name);
+    }
+
+    /**
+     * Read a puzzle from its text
+     *
+     * @param name the puzzle's name
+     * @param body the text
+     * @return the puzzle
+     * @throws IOException if the name is unknown or the text isn't a puzzle
+     */
+    public static PuzzleSpec read(String name, ByteScanner body) throws IOException {
+        Reader reader = READERS.get(name);
+        if(reader == null) {
+            throw new IOException("Unknown puzzle: " + name);
+        }
+        return reader.read(body);
+    }
+
+    /**
+     * Read a puzzle back from its key
+     *
+     * @param key a key made by {@link #read(String, ByteScanner)}
+     * @return the puzzle
+     * @throws IOException if the key isn't a puzzle
+     */
+    public static PuzzleSpec parse(String key) throws IOException {
+        int newline = key.indexOf('\n');
+        if(newline < 0) {
+            throw new IOException("No puzzle name in the key");
+        }
+        String name = key.substring(0, newline);
+        byte[] body = key.substring(newline + 1).getBytes(StandardCharsets.UTF_8);
+        return read(name, new ByteScanner(ByteBuffer.wrap(body), name));
+    }
+}
@@ -0,0 +1,172 @@
+package puzzles.common.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Solutions by puzzle, kept least recently used first within a memory budget, with the solves
+ * still running, so identical requests that arrive together share one search (single flight).
+ * A failed solve is handed to every request waiting on it and isn't cached.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class SolveCache {
+    /** Bytes of bookkeeping counted for each cached solution, besides its strings */
+    private static final long ENTRY_OVERHEAD = 96;
+
+    /**
+     * Where an answer came from
+     */
+    public enum Source {
+        /** Found in the cache */
+        HIT,
+        /** Solved for this request */
+        MISS,
+        /** Solved for an identical request that was already running */
+        SHARED
+    }
+
+    /**
+     * An answer to a request
+     *
+     * @param text the solution, as sent back
+     * @param source where it came from
+     */
+    public record Answer(String text, Source source) {}
+
+    /**
+     * Counts for monitoring
+     *
+     * @param hits answers found in the cache
+     * @param misses solves run
+     * @param shared answers shared with a solve already running
+     * @param evictions solutions dropped to stay within the budget
+     * @param entries solutions cached
+     * @param bytes estimated memory of the cached solutions
+     */
+    public record Stats(long hits, long misses, long shared, long evictions, int entries, long bytes) {}
+
+    private final long maxBytes;  // memory budget of the cached solutions
+    private final LinkedHashMap<String,String> cache = new LinkedHashMap<>(16, 0.75f, true);  // least recently used first
+    private final Map<String,CompletableFuture<String>> running = new ConcurrentHashMap<>();  // solves in flight, by key
+    private long bytes;  // estimated memory of the cached solutions
+    private long hits;  // answers found in the cache
+    private long misses;  // solves run
+    private long shared;  // answers shared with a running solve
+    private long evictions;  // solutions dropped
+
+    /**
+     * Create an empty cache
+     *
+     * @param maxBytes memory budget of the cached solutions, estimated from their strings
+     */
+    public SolveCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Answer a request from the cache, from an identical solve already running, or by solving it
+     *
+     * @param key the puzzle, normalized so equal puzzles have equal keys
+     * @param solve solves the puzzle on the calling thread
+     * @return the solution and where it came from
+     * @throws Exception whatever the solve threw
+     */
+    public Answer get(String key, Callable<String> solve) throws Exception {
+        String text = lookUp(key);
+        if(text != null) {
+            return new Answer(text, Source.HIT);
+        }
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> other = running.putIfAbsent(key, mine);
+        if(other != null) {
+            synchronized(this) {
+                shared++;
+            }
+            try {
+                return new Answer(other.get(), Source.SHARED);
+            } catch(ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+        try {
+            text = lookUp(key);  // a solve may have finished since the first look
+            if(text != null) {
+                mine.complete(text);
+                return new Answer(text, Source.HIT);
+            }
+            synchronized(this) {
+                misses++;
+            }
+            text = solve.call();
+            put(key, text);
+            mine.complete(text);
+            return new Answer(text, Source.MISS);
+        } catch(Throwable e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            running.remove(key, mine);
+        }
+    }
+
+    /**
+     * Gets the counts for monitoring
+     *
+     * @return hits, misses and size so far
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, shared, evictions, cache.size(), bytes);
+    }
+
+    /**
+     * Look a puzzle up, counting a hit
+     *
+     * @param key the puzzle
+     * @return the solution, null if it isn't cached
+     */
+    private synchronized String lookUp(String key) {
+        String text = cache.get(key);
+        if(text != null) {
+            hits++;
+        }
+        return text;
+    }
+
+    /**
+     * Cache a solution, dropping the least recently used ones over the budget
+     *
+     * @param key the puzzle
+     * @param text the solution
+     */
+    private synchronized void put(String key, String text) {
+        String old = cache.put(key, text);
+        if(old != null) {
+            bytes -= weight(key, old);
+        }
+        bytes += weight(key, text);
+        Iterator<Map.Entry<String,String>> eldest = cache.entrySet().iterator();
+        while(bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String,String> entry = eldest.next();
+            bytes -= weight(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Estimate the memory of a cached solution
+     *
+     * @param key the puzzle
+     * @param text the solution
+     * @return bytes, two per character plus bookkeeping
+     */
+    private static long weight(String key, String text) {
+        return 2L * (key.length() + text.length()) + ENTRY_OVERHEAD;
+    }
+}
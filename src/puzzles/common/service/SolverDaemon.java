@@ -0,0 +1,203 @@
+package puzzles.common.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import puzzles.common.io.ByteScanner;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Solver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A long running solver, so front ends don't start and warm up a JVM for every puzzle. It serves
+ * HTTP on the loopback address only, handling each request on its own virtual thread:
+ *
+ * POST /solve/astro or /solve/hoppers with the text of a puzzle file,
+ * POST /solve/clock with "hours start end", or /solve/dice with "start end die...",
+ * answers with the configs searched and the steps of the solution, as the puzzle's own main
+ * prints them, and an X-Cache header of hit, miss or shared.
+ * GET /stats answers with the cache counts.
+ *
+ * Puzzles are normalized before they are looked up, so files that differ only in spacing or
+ * the order of their robots share one solution. Identical puzzles solved at the same time share
+ * one search, and at most one search per processor runs at once.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class SolverDaemon {
+    /** Default port */
+    public static final int DEFAULT_PORT = 8642;
+    /** Default memory budget of cached solutions, in megabytes */
+    public static final int DEFAULT_CACHE_MB = 64;
+    /** Largest request body accepted, in bytes */
+    private static final int MAX_BODY = 1 << 20;
+
+    private final SolveCache cache;  // solutions, and the solves running
+    private final Semaphore searches;  // searches allowed to run at once
+
+    /**
+     * Create a daemon
+     *
+     * @param cacheBytes memory budget of cached solutions
+     * @param maxSearches searches allowed to run at once
+     */
+    public SolverDaemon(long cacheBytes, int maxSearches) {
+        cache = new SolveCache(cacheBytes);
+        searches = new Semaphore(maxSearches);
+    }
+
+    /**
+     * Solve a puzzle and describe the solution
+     *
+     * @param puzzle the puzzle
+     * @return configs searched and the steps, or that there is no solution
+     * @throws InterruptedException if interrupted waiting for a search to finish
+     */
+    private String solve(PuzzleSpec puzzle) throws InterruptedException {
+        searches.acquire();
+        try {
+            Solver solver = new Solver();
+            List<Configuration> solution = solver.solve(puzzle.start());
+            StringBuilder text = new StringBuilder();
+            text.append("Total configs: ").append(solver.getTotalConfigs()).append('\n');
+            text.append("Unique configs: ").append(solver.getUniqueConfigs()).append('\n');
+            if(!solution.isEmpty() && solution.get(solution.size() - 1).isSolution()) {
+                for(int stepNum = 0; stepNum < solution.size(); stepNum++) {
+                    text.append("Step ").append(stepNum).append(": ");
+                    if(puzzle.multiline()) {
+                        text.append('\n').append(solution.get(stepNum)).append("\n\n");
+                    } else {
+                        text.append(solution.get(stepNum)).append('\n');
+                    }
+                }
+            } else {
+                text.append("No solution\n");
+            }
+            return text.toString();
+        } finally {
+            searches.release();
+        }
+    }
+
+    /**
+     * Answer a solve request
+     *
+     * @param exchange the request
+     * @throws IOException if the answer can't be sent
+     */
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        if(!exchange.getRequestMethod().equals("POST")) {
+            send(exchange, 405, "Use POST\n");
+            return;
+        }
+        String name = exchange.getRequestURI().getPath().substring("/solve/".length());
+        if(!PuzzleSpec.isKnown(name)) {
+            send(exchange, 404, "Unknown puzzle: " + name + "\n");
+            return;
+        }
+        byte[] body;
+        try(InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY + 1);
+        }
+        if(body.length > MAX_BODY) {
+            send(exchange, 413, "Puzzle too large\n");
+            return;
+        }
+        PuzzleSpec puzzle;
+        try {
+            puzzle = PuzzleSpec.read(name, new ByteScanner(ByteBuffer.wrap(body), name));
+        } catch(IOException | RuntimeException e) {
+            send(exchange, 400, "Bad " + name + " puzzle: " + e.getMessage() + "\n");
+            return;
+        }
+        long before = System.nanoTime();
+        SolveCache.Answer answer;
+        try {
+            answer = cache.get(puzzle.key(), () -> solve(puzzle));
+        } catch(Exception e) {
+            send(exchange, 500, "Solve failed: " + e + "\n");
+            return;
+        }
+        exchange.getResponseHeaders().set("X-Cache", answer.source().name().toLowerCase());
+        exchange.getResponseHeaders().set("X-Solve-Millis", String.valueOf((System.nanoTime() - before) / 1_000_000));
+        send(exchange, 200, answer.text());
+    }
+
+    /**
+     * Answer a stats request
+     *
+     * @param exchange the request
+     * @throws IOException if the answer can't be sent
+     */
+    private void handleStats(HttpExchange exchange) throws IOException {
+        SolveCache.Stats stats = cache.getStats();
+        send(exchange, 200, "Hits: " + stats.hits() + "\nMisses: " + stats.misses() + "\nShared: " + stats.shared()
+                + "\nEvictions: " + stats.evictions() + "\nEntries: " + stats.entries() + "\nBytes: " + stats.bytes() + "\n");
+    }
+
+    /**
+     * Send a plain text answer and end the exchange
+     *
+     * @param exchange the request
+     * @param status HTTP status
+     * @param text the answer
+     * @throws IOException if the answer can't be sent
+     */
+    private static void send(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try(OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Start serving on the loopback address
+     *
+     * @param port the port, 0 for any free one
+     * @return the server, already started
+     * @throws IOException if the port can't be bound
+     */
+    public HttpServer start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/solve/", this::handleSolve);
+        server.createContext("/stats", this::handleStats);
+        server.start();
+        return server;
+    }
+
+    /**
+     * The main routine. Die files are read from the directory the daemon runs in.
+     *
+     * @param args [--port n] [--cache-mb n] [--searches n]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        long cacheMb = DEFAULT_CACHE_MB;
+        int maxSearches = Runtime.getRuntime().availableProcessors();
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--cache-mb" -> cacheMb = Long.parseLong(args[++i]);
+                case "--searches" -> maxSearches = Integer.parseInt(args[++i]);
+                default -> {
+                    System.out.println("Usage: java SolverDaemon [--port n] [--cache-mb n] [--searches n]");
+                    return;
+                }
+            }
+        }
+        HttpServer server = new SolverDaemon(cacheMb << 20, maxSearches).start(port);
+        System.out.println("Solving on http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/solve/");
+    }
+}
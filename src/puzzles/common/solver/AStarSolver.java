@@ -0,0 +1,87 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * A solver that uses A* search ordered by moves so far plus a heuristic estimate.
+ * With an admissible, consistent heuristic the path is as short as the BFS one
+ * while far fewer configurations are expanded.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class AStarSolver extends Solver {
+    private final Heuristic heuristic;  // estimate of moves left
+
+    /**
+     * Create an A* solver
+     *
+     * @param heuristic admissible estimate of moves to a solution
+     */
+    public AStarSolver(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Open list entry
+     *
+     * @param config the configuration
+     * @param moves moves from the start
+     * @param priority moves plus estimate
+     */
+    private record Node(Configuration config, int moves, int priority) {}
+
+    /**
+     * Solves puzzle starting with initial config using A* search
+     *
+     * @param initial starting config
+     * @return list of configs from start to solution
+     */
+    @Override
+    public List<Configuration> solve(Configuration initial) {
+        Map<Configuration,Configuration> predecessors = new HashMap<>();
+        Map<Configuration,Integer> bestMoves = new HashMap<>();
+        PriorityQueue<Node> open = new PriorityQueue<>(
+                Comparator.comparingInt(Node::priority).thenComparing(Comparator.comparingInt(Node::moves).reversed()));
+        predecessors.put(initial, null);
+        bestMoves.put(initial, 0);
+        totalConfigs++;
+        uniqueConfigs++;
+        int estimate = initial.isDeadEnd() ? Heuristic.UNSOLVABLE : heuristic.estimate(initial);
+        if(estimate != Heuristic.UNSOLVABLE) {
+            open.add(new Node(initial, 0, estimate));
+        }
+        Configuration current = null;
+        while(!open.isEmpty()) {
+            Node node = open.remove();
+            if(node.moves() > bestMoves.get(node.config())) {  // stale entry, a shorter route was found
+                continue;
+            }
+            current = node.config();
+            if(current.isSolution()) {
+                break;
+            }
+            int moves = node.moves() + 1;
+            for(Configuration nbr : current.getNeighbors()) {
+                totalConfigs++;
+                Integer known = bestMoves.get(nbr);
+                if(known == null) {
+                    uniqueConfigs++;
+                } else if(known <= moves) {
+                    continue;
+                }
+                predecessors.put(nbr, current);
+                bestMoves.put(nbr, moves);
+                estimate = nbr.isDeadEnd() ? Heuristic.UNSOLVABLE : heuristic.estimate(nbr);
+                if(estimate != Heuristic.UNSOLVABLE) {
+                    open.add(new Node(nbr, moves, moves + estimate));
+                }
+            }
+        }
+        List<Configuration> path = new LinkedList<>();
+        while(current != null) {
+            path.addFirst(current);
+            current = predecessors.get(current);
+        }
+        return path;
+    }
+}
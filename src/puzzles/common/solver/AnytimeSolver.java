@@ -0,0 +1,159 @@
+package puzzles.common.solver;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * An anytime solver (anytime weighted A*). The search is ordered by moves so far plus a weighted
+ * heuristic estimate, which finds a first solution quickly; it then keeps searching, pruning
+ * every configuration whose moves plus unweighted estimate can't beat the best solution so far,
+ * and publishes each shorter path it finds. When nothing is left to search the best path is
+ * proven to be a shortest one; if the time budget runs out first it is only the best so far.
+ * The budget bounds the refinement: the search goes on past it until a first path is found.
+ * A search run in the background can be bounded harder, by a limit on the configurations it
+ * keeps, and stops early when its thread is interrupted; either may leave it without a path.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class AnytimeSolver extends Solver {
+    private final Heuristic heuristic;  // admissible estimate of moves left
+    private final int weight;  // how much more the estimate counts than the moves so far
+    private final long budgetNanos;  // time allowed for one solve
+    private Consumer<List<Configuration>> listener;  // told about each shorter path found
+    private int configLimit = Integer.MAX_VALUE;  // most unique configs kept before giving up
+    private boolean optimal;  // true if the last path returned is proven shortest
+
+    /**
+     * Create an anytime solver
+     *
+     * @param heuristic admissible estimate of moves to a solution
+     * @param weight weight of the estimate, 1 for plain A*
+     * @param budgetMillis time allowed for a solve, in milliseconds
+     */
+    public AnytimeSolver(Heuristic heuristic, int weight, long budgetMillis) {
+        this.heuristic = heuristic;
+        this.weight = weight;
+        this.budgetNanos = budgetMillis * 1_000_000;
+    }
+
+    /**
+     * Open list entry
+     *
+     * @param config the configuration
+     * @param moves moves from the start
+     * @param estimate heuristic estimate of moves left
+     */
+    private record Node(Configuration config, int moves, int estimate) {}
+
+    /**
+     * Set who is told about each shorter path as soon as it is found
+     *
+     * @param listener gets the path from the start to the solution
+     */
+    public void setListener(Consumer<List<Configuration>> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Set how many unique configurations the search may keep, bounding its memory even
+     * before a first path is found; once reached, it returns the best path so far
+     *
+     * @param configLimit most unique configurations kept
+     */
+    public void setConfigLimit(int configLimit) {
+        this.configLimit = configLimit;
+    }
+
+    /**
+     * Solves puzzle starting with initial config, stopping when the best path is proven
+     * shortest or, once a path is found, the time budget runs out
+     *
+     * @param initial starting config
+     * @return list of configs from start to the best solution found, empty if there is none
+     */
+    @Override
+    public List<Configuration> solve(Configuration initial) {
+        long deadline = System.nanoTime() + budgetNanos;
+        Map<Configuration,Configuration> predecessors = new HashMap<>();
+        Map<Configuration,Integer> bestMoves = new HashMap<>();
+        PriorityQueue<Node> open = new PriorityQueue<>(Comparator
+                .comparingLong((Node node) -> node.moves() + (long) weight * node.estimate())
+                .thenComparing(Comparator.comparingInt(Node::moves).reversed()));
+        predecessors.put(initial, null);
+        bestMoves.put(initial, 0);
+        totalConfigs++;
+        uniqueConfigs++;
+        Configuration best = null;  // best solution so far
+        int bestLength = Integer.MAX_VALUE;  // its moves from the start
+        int estimate = initial.isDeadEnd() ? Heuristic.UNSOLVABLE : heuristic.estimate(initial);
+        if(initial.isSolution()) {
+            best = initial;
+            bestLength = 0;
+        } else if(estimate != Heuristic.UNSOLVABLE) {
+            open.add(new Node(initial, 0, estimate));
+        }
+        while(!open.isEmpty() && (best == null || System.nanoTime() < deadline)) {  // always find a first path
+            if(uniqueConfigs >= configLimit || Thread.currentThread().isInterrupted()) {
+                break;  // out of memory budget, or cancelled
+            }
+            Node node = open.remove();
+            Configuration current = node.config();
+            if(node.moves() > bestMoves.get(current) || node.moves() + node.estimate() >= bestLength) {
+                continue;  // stale entry, or it can't lead to a shorter solution
+            }
+            int moves = node.moves() + 1;
+            for(Configuration nbr : current.getNeighbors()) {
+                totalConfigs++;
+                Integer known = bestMoves.get(nbr);
+                if(known == null) {
+                    uniqueConfigs++;
+                } else if(known <= moves) {
+                    continue;
+                }
+                predecessors.put(nbr, current);
+                bestMoves.put(nbr, moves);
+                if(nbr.isSolution()) {
+                    if(moves < bestLength) {
+                        best = nbr;
+                        bestLength = moves;
+                        if(listener != null) {
+                            listener.accept(path(best, predecessors));
+                        }
+                    }
+                    continue;
+                }
+                estimate = nbr.isDeadEnd() ? Heuristic.UNSOLVABLE : heuristic.estimate(nbr);
+                if(estimate != Heuristic.UNSOLVABLE && moves + estimate < bestLength) {
+                    open.add(new Node(nbr, moves, estimate));
+                }
+            }
+        }
+        int bound = bestLength;
+        optimal = open.stream().allMatch(node -> node.moves() + node.estimate() >= bound);  // nothing left could beat it
+        return best == null ? new LinkedList<>() : path(best, predecessors);
+    }
+
+    /**
+     * Follow predecessors back to the start
+     *
+     * @param last last config of the path
+     * @param predecessors predecessor of each reached config
+     * @return list of configs from start to last
+     */
+    private static List<Configuration> path(Configuration last, Map<Configuration,Configuration> predecessors) {
+        List<Configuration> path = new LinkedList<>();
+        for(Configuration config = last; config != null; config = predecessors.get(config)) {
+            path.addFirst(config);
+        }
+        return path;
+    }
+
+    /**
+     * Was the last search finished, so its path is proven shortest?
+     *
+     * @return true if proven, false if the time budget ran out first
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+}
@@ -0,0 +1,207 @@
+package puzzles.common.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * An approximate depth-first solver in the style of bitstate hashing (supertrace). Instead of
+ * storing visited configurations it sets k bits of a large bit array, chosen by hashing each
+ * configuration's {@link Configuration#encode() encoding}; a configuration whose k bits are all
+ * set already is treated as visited. The search walks a single board in place through
+ * {@link MutableConfiguration#makeMove(Move)} and {@link MutableConfiguration#unmakeMove(Move)},
+ * holding only the moves on the current path and the index of the next move to try at each
+ * depth; a board's moves are listed again when the search backs up to it. Paths are at most a
+ * given number of moves long, and boards at that depth are checked for a solution but neither
+ * marked nor expanded, so a shallower path can still reach them.
+ * A hash collision can make a configuration look visited when it isn't, so part of the space
+ * may be left out and a solvable puzzle may be reported unsolvable; a found path is always real,
+ * but it need not be the shortest.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class BitstateSolver extends Solver {
+    private final long[] bits;  // the bit array
+    private final long mask;  // bit count minus one, the bit count being a power of two
+    private final int hashes;  // bits set per configuration
+    private final int maxDepth;  // longest path searched
+    private final boolean verify;  // replay a found path exactly before returning it
+    private long setBits;  // bits set so far
+
+    /**
+     * Create a bitstate solver
+     *
+     * @param log2Bits base 2 logarithm of the bit array size, from 6 to 36 (2^36 bits is 8 GB)
+     * @param hashes bits set per configuration, at least 1
+     * @param maxDepth longest path to search, at least 1
+     * @param verify true to check a found path move by move before returning it
+     */
+    public BitstateSolver(int log2Bits, int hashes, int maxDepth, boolean verify) {
+        if(log2Bits < 6 || log2Bits > 36 || hashes < 1 || maxDepth < 1) {
+            throw new IllegalArgumentException("Bit array must have 2^6 to 2^36 bits, at least one hash and a depth of at least one");
+        }
+        this.bits = new long[1 << (log2Bits - 6)];
+        this.mask = (1L << log2Bits) - 1;
+        this.hashes = hashes;
+        this.maxDepth = maxDepth;
+        this.verify = verify;
+    }
+
+    /**
+     * Solves puzzle starting with initial config using bitstate Depth First Search
+     *
+     * @param initial starting config, must be a {@link MutableConfiguration}
+     * @return list of configs from start to solution, empty if none was found
+     */
+    @Override
+    public List<Configuration> solve(Configuration initial) {
+        if(!(initial instanceof MutableConfiguration start)) {
+            throw new IllegalArgumentException("Bitstate search needs a MutableConfiguration");
+        }
+        MutableConfiguration board = start.copy();
+        List<Move> moves = new ArrayList<>();  // moves of the board at the current depth
+        Move[] pathMoves = new Move[16];  // moves from the start to the current board
+        int[] nextMoves = new int[16];  // index of the next move to try, per depth
+        mark(board);
+        totalConfigs++;
+        uniqueConfigs++;
+        int depth = 0;
+        int solutionDepth = board.isSolution() ? 0 : -1;
+        if(solutionDepth < 0 && !board.isDeadEnd()) {  // never expand subtrees that can't reach a solution
+            board.getMoves(moves);
+        }
+        while(solutionDepth < 0) {
+            if(nextMoves[depth] < moves.size()) {
+                Move move = moves.get(nextMoves[depth]++);
+                board.makeMove(move);
+                totalConfigs++;
+                if(board.isSolution()) {
+                    pathMoves[depth] = move;
+                    solutionDepth = depth + 1;
+                } else if(depth + 1 < maxDepth && mark(board)) {
+                    uniqueConfigs++;
+                    if(!board.isDeadEnd()) {
+                        if(depth + 1 == pathMoves.length) {
+                            pathMoves = Arrays.copyOf(pathMoves, pathMoves.length * 2);
+                            nextMoves = Arrays.copyOf(nextMoves, nextMoves.length * 2);
+                        }
+                        pathMoves[depth++] = move;
+                        nextMoves[depth] = 0;
+                        board.getMoves(moves);
+                        continue;
+                    }
+                }
+                board.unmakeMove(move);
+            } else if(depth == 0) {
+                break;
+            } else {
+                board.unmakeMove(pathMoves[--depth]);
+                board.getMoves(moves);  // listed again in the same order, so the index still applies
+            }
+        }
+        List<Configuration> path = new LinkedList<>();
+        if(solutionDepth >= 0) {
+            MutableConfiguration step = start.copy();
+            path.add(start);
+            for(int i = 0; i < solutionDepth; i++) {
+                step.makeMove(pathMoves[i]);
+                path.add(step.copy());
+            }
+        }
+        if(verify && !isValidPath(initial, path)) {
+            throw new IllegalStateException("Bitstate search returned an invalid path");
+        }
+        return path;
+    }
+
+    /**
+     * Set the bits of a configuration
+     *
+     * @param config the config
+     * @return true if at least one bit was clear, i.e. the config is new
+     */
+    private boolean mark(Configuration config) {
+        long first = Encodings.hash(config.encode());
+        long step = Encodings.mix(first + 1) | 1;  // odd, so the k probes are distinct
+        boolean isNew = false;
+        for(int i = 0; i < hashes; i++) {
+            long bit = (first + i * step) & mask;  // double hashing stands in for k independent hashes
+            int word = (int) (bit >>> 6);
+            long flag = 1L << bit;
+            if((bits[word] & flag) == 0) {
+                bits[word] |= flag;
+                setBits++;
+                isNew = true;
+            }
+        }
+        return isNew;
+    }
+
+    /**
+     * Checks a path exactly, without the bit array: it starts at the initial config, every
+     * config is one move from the one before and the last one is a solution
+     *
+     * @param initial starting config
+     * @param path path to check
+     * @return true if the path is valid or empty
+     */
+    public static boolean isValidPath(Configuration initial, List<Configuration> path) {
+        if(path.isEmpty()) {
+            return true;
+        }
+        Configuration previous = null;
+        for(Configuration config : path) {
+            if(previous == null ? !config.equals(initial) : !isStep(previous, config)) {
+                return false;
+            }
+            previous = config;
+        }
+        return previous.isSolution();
+    }
+
+    /**
+     * Is a config one move from another? Mutable configs are checked against the moves they
+     * list, which the search plays, and others against their neighbors
+     *
+     * @param from the config before
+     * @param to the config after
+     * @return true if one move leads from one to the other
+     */
+    private static boolean isStep(Configuration from, Configuration to) {
+        if(!(from instanceof MutableConfiguration mutable)) {
+            return from.getNeighbors().contains(to);
+        }
+        List<Move> moves = new ArrayList<>();
+        mutable.getMoves(moves);
+        MutableConfiguration board = mutable.copy();
+        for(Move move : moves) {
+            board.makeMove(move);
+            boolean reached = board.equals(to);
+            board.unmakeMove(move);
+            if(reached) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the fraction of the bit array that is set
+     *
+     * @return fill ratio from 0 to 1
+     */
+    public double getFillRatio() {
+        return (double) setBits / (mask + 1);
+    }
+
+    /**
+     * Gets the estimated chance that a new configuration was taken for a visited one,
+     * which is the chance that all k of its bits were already set
+     *
+     * @return omission probability from 0 to 1
+     */
+    public double getOmissionProbability() {
+        return Math.pow(getFillRatio(), hashes);
+    }
+}
@@ -0,0 +1,378 @@
+package puzzles.common.solver;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * A breadth first solver that keeps its search in a checkpoint file, so it can be paused and
+ * resumed in another run. Every configuration gets an index in the order it is reached and
+ * each layer is appended to the file once it is complete, as the encodings of its new
+ * configurations and the indexes of their predecessors, so each configuration is written
+ * once. A layer is a block with its length and a CRC; a block cut short by a crash is
+ * dropped when the file is read back, which loses at most the layer being written.
+ *
+ * The search runs one layer per {@link #step()}; {@link #solve} runs them all.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class CheckpointSolver extends Solver {
+    private static final int MAGIC = 0x50434B31;  // "PCK1", first bytes of a checkpoint file
+    private final Path file;  // checkpoint file
+    private final List<Configuration> configs;  // configs by index
+    private final Map<Configuration,Integer> indexes;  // index of each reached config
+    private int[] predecessors;  // predecessor index by index, -1 for the start
+    private EncodableConfiguration start;  // starting config, decodes the file
+    private int layerStart;  // first index of the layer to expand next
+    private int depth;  // depth of that layer
+    private int solution;  // index of the solution found, -1 if none yet
+    private boolean finished;  // true once a solution is found or nothing is left
+    private int resumedLayers;  // layers read back from the file
+    private CheckpointSearch search;  // the search being run
+
+    /**
+     * The search over indexes, queued a layer at a time
+     */
+    private final class CheckpointSearch extends Search<Integer> {
+        private int[] layer;  // indexes of the layer being expanded
+        private int layerSize;  // indexes in the layer
+        private int position;  // next index of the layer to take
+        private int[] next;  // indexes of the layer being built
+        private int nextSize;  // indexes in the layer being built
+
+        /**
+         * Create the search
+         */
+        private CheckpointSearch() {
+            layer = new int[0];
+            next = new int[16];
+        }
+
+        /**
+         * Queue an index in the layer being built
+         *
+         * @param index the index
+         */
+        @Override
+        protected void add(Integer index) {
+            if(nextSize == next.length) {
+                next = Arrays.copyOf(next, nextSize * 2);
+            }
+            next[nextSize++] = index;
+        }
+
+        /**
+         * Take the next index of the layer being expanded
+         *
+         * @return the index, or null once the layer is done
+         */
+        @Override
+        protected Integer remove() {
+            return position < layerSize ? layer[position++] : null;
+        }
+
+        /**
+         * Get the config of an index
+         *
+         * @param index the index
+         * @return its config
+         */
+        @Override
+        protected Configuration config(Integer index) {
+            return configs.get(index);
+        }
+
+        /**
+         * Give a neighbor the next index unless it has one
+         *
+         * @param nbr the neighbor
+         * @param from index of the config it was generated from
+         * @return its index, or null if it was reached before
+         */
+        @Override
+        protected Integer reach(Configuration nbr, Integer from) {
+            return indexes.containsKey(nbr) ? null : index(nbr, from);
+        }
+
+        /**
+         * Start taking the layer built so far, dropping what is left of the current one
+         */
+        private void nextLayer() {
+            layer = next;
+            layerSize = nextSize;
+            position = 0;
+            next = new int[Math.max(16, layerSize)];
+            nextSize = 0;
+        }
+    }
+
+    /**
+     * Create a solver that checkpoints to a file
+     *
+     * @param file checkpoint file, resumed if it holds a search of the same puzzle
+     */
+    public CheckpointSolver(Path file) {
+        this.file = file;
+        configs = new ArrayList<>();
+        indexes = new HashMap<>();
+        predecessors = new int[16];
+    }
+
+    /**
+     * Solves puzzle starting with initial config using Breadth First Search, resuming
+     * from the checkpoint file if it holds a search of this puzzle
+     *
+     * @param initial starting config, must be an {@link EncodableConfiguration}
+     * @return list of configs from start to solution, empty if there is none
+     */
+    @Override
+    public List<Configuration> solve(Configuration initial) {
+        if(!(initial instanceof EncodableConfiguration encodable)) {
+            throw new IllegalArgumentException("Checkpointing needs an EncodableConfiguration");
+        }
+        try {
+            start(encodable);
+            while(step()) {
+                // one layer at a time, each appended to the file
+            }
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return getPath();
+    }
+
+    /**
+     * Start a search, reading back the layers in the checkpoint file if it holds a search
+     * from this config, otherwise starting the file over
+     *
+     * @param initial starting config
+     * @throws IOException if the file can't be read or written, or holds another puzzle
+     */
+    public void start(EncodableConfiguration initial) throws IOException {
+        start = initial;
+        configs.clear();
+        indexes.clear();
+        search = new CheckpointSearch();
+        solution = -1;
+        finished = false;
+        resumedLayers = Files.exists(file) && Files.size(file) > 0 ? read() : 0;
+        if(resumedLayers == 0) {
+            try(DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+                out.writeInt(MAGIC);
+            }
+            search.start(index(initial, -1));
+            depth = 0;
+            layerStart = 0;
+            countSearch();
+            append(0);
+        } else {
+            countSearch();
+        }
+        checkLayers(0);  // a resumed search may have reached this puzzle's solution already
+    }
+
+    /**
+     * Expand the current layer and append the next one to the checkpoint file.
+     * Stopping between steps pauses the search; calling it again resumes.
+     *
+     * @return true if there is more to search
+     * @throws IOException if the file can't be written
+     */
+    public boolean step() throws IOException {
+        if(finished) {
+            return false;
+        }
+        int layerEnd = configs.size();
+        search.nextLayer();
+        for(Integer current; (current = search.remove()) != null; ) {
+            search.expand(current, configs.get(current));
+        }
+        layerStart = layerEnd;
+        depth++;
+        countSearch();
+        append(layerEnd);
+        checkLayers(layerStart);
+        return !finished;
+    }
+
+    /**
+     * Add what the search counted since the last call to this solver's counts
+     */
+    private void countSearch() {
+        count(search);
+        search.totalConfigs = 0;
+        search.uniqueConfigs = 0;
+    }
+
+    /**
+     * Has the search found a solution or run out of configs?
+     *
+     * @return true if there is nothing left to search
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Gets the path found by the search
+     *
+     * @return list of configs from start to solution, empty if none is found (yet)
+     */
+    public List<Configuration> getPath() {
+        List<Configuration> path = new LinkedList<>();
+        for(int i = solution; i >= 0; i = predecessors[i]) {
+            path.addFirst(configs.get(i));
+        }
+        return path;
+    }
+
+    /**
+     * Gets how many layers were read back from the checkpoint file when the search started
+     *
+     * @return number of layers resumed, 0 for a fresh search
+     */
+    public int getResumedLayers() {
+        return resumedLayers;
+    }
+
+    /**
+     * Gets the size of the checkpoint file
+     *
+     * @return bytes in the file
+     * @throws IOException if the file can't be read
+     */
+    public long getCheckpointBytes() throws IOException {
+        return Files.size(file);
+    }
+
+    /**
+     * Give a config the next index
+     *
+     * @param config newly reached config
+     * @param predecessor index of the config it was reached from, -1 for the start
+     * @return its index
+     */
+    private int index(Configuration config, int predecessor) {
+        int index = configs.size();
+        if(index == predecessors.length) {
+            predecessors = Arrays.copyOf(predecessors, index * 2);
+        }
+        predecessors[index] = predecessor;
+        configs.add(config);
+        indexes.put(config, index);
+        return index;
+    }
+
+    /**
+     * Look for a solution from an index on, the first one in reaching order as the plain
+     * solver would, and finish if there is one or the layer to expand next is empty
+     *
+     * @param from first index to look at
+     */
+    private void checkLayers(int from) {
+        for(int i = from; i < configs.size() && solution < 0; i++) {
+            if(configs.get(i).isSolution()) {
+                solution = i;
+            }
+        }
+        finished = solution >= 0 || layerStart == configs.size();
+    }
+
+    /**
+     * Append the configs from an index on as one block: its length, then the depth, total
+     * configs so far, number of configs and each predecessor and encoding, then the CRC
+     *
+     * @param from first index of the layer
+     * @throws IOException if the file can't be written
+     */
+    private void append(int from) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream block = new DataOutputStream(bytes);
+        block.writeInt(depth);
+        block.writeInt(totalConfigs);
+        block.writeInt(configs.size() - from);
+        for(int i = from; i < configs.size(); i++) {
+            byte[] encoding = configs.get(i).encode();
+            block.writeInt(predecessors[i]);
+            block.writeInt(encoding.length);
+            block.write(encoding);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.APPEND)))) {
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+            out.writeLong(crc.getValue());
+        }
+    }
+
+    /**
+     * Read back the complete blocks of the checkpoint file and cut off a partly written one
+     *
+     * @return number of layers read, 0 if the file was started but has none
+     * @throws IOException if the file can't be read or holds a search of another puzzle
+     */
+    private int read() throws IOException {
+        long size = Files.size(file);
+        long good;  // end of the last complete block
+        int layers = 0;
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if(size < 4 || in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a checkpoint file");
+            }
+            good = 4;
+            while(good + 4 <= size) {
+                int length = in.readInt();
+                if(length < 12 || good + 4 + length + 8 > size) {
+                    break;  // cut short while being written
+                }
+                byte[] block = new byte[length];
+                in.readFully(block);
+                CRC32 crc = new CRC32();
+                crc.update(block);
+                if(in.readLong() != crc.getValue()) {
+                    break;
+                }
+                readLayer(new DataInputStream(new ByteArrayInputStream(block)), layers);
+                good += 4 + length + 8;
+                layers++;
+            }
+        }
+        if(good < size) {
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(good);
+            }
+        }
+        return layers;
+    }
+
+    /**
+     * Read back one layer of the checkpoint file
+     *
+     * @param in the block
+     * @param layer number of layers read before it
+     * @throws IOException if the first layer isn't a search from the starting config
+     */
+    private void readLayer(DataInputStream in, int layer) throws IOException {
+        depth = in.readInt();
+        search.totalConfigs = in.readInt();
+        int count = in.readInt();
+        layerStart = configs.size();
+        search.nextLayer();  // only the last layer read is left to expand
+        for(int i = 0; i < count; i++) {
+            int predecessor = in.readInt();
+            byte[] encoding = new byte[in.readInt()];
+            in.readFully(encoding);
+            if(layer == 0 && !Arrays.equals(encoding, start.encode())) {
+                throw new IOException(file + " holds a search from a different start");
+            }
+            Configuration config = layer == 0 ? start : start.decode(encoding);
+            search.reached(index(config, predecessor), config.isDeadEnd());
+        }
+    }
+}
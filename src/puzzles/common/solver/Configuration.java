@@ -1,5 +1,6 @@
 package puzzles.common.solver;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 
 /**
@@ -20,6 +21,43 @@ public interface Configuration {
      */
     Collection<Configuration> getNeighbors();
 
+    /**
+     * Can this configuration be proven to never lead to a solution? The solver
+     * still records dead ends as visited but never expands them.
+     * @return true if no solution is reachable from here; false by default
+     */
+    default boolean isDeadEnd() {
+        return false;
+    }
+
+    /**
+     * The footprint of the move that produced this configuration from its parent.
+     * The solver uses it to skip one ordering of every pair of commuting moves.
+     * @return the footprint, or null if the puzzle does not describe its moves
+     */
+    default Footprint getFootprint() {
+        return null;
+    }
+
+    /**
+     * Cost of the move that produced this configuration, for solvers that minimise total cost
+     * instead of the number of moves
+     *
+     * @return a positive cost; 1 unless a puzzle weighs its moves
+     */
+    default int getMoveCost() {
+        return 1;
+    }
+
+    /**
+     * Encode this configuration as bytes. Equal configurations must have equal
+     * encodings, so solvers can hash or store the bytes instead of the object.
+     * @return the encoding; the bytes of toString unless a puzzle has a more compact one
+     */
+    default byte[] encode() {
+        return toString().getBytes(StandardCharsets.UTF_8);
+    }
+
     //////////////////////////////////////////////////////////////////////////////////////
     // The predecessor map from the BFS Solver forces to any puzzle configuration       //
     // to override the equals and hashCode methods.                                     //
@@ -0,0 +1,285 @@
+package puzzles.common.solver;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * A breadth first solver that also counts every shortest solution without listing them.
+ * Each configuration keeps how many shortest paths reach it, the sum of the counts of its
+ * predecessors one layer up, and the count of the solution layer is the sum over its solutions.
+ * Once a solution is reached the search only finishes the layer it came from, so it costs about
+ * as much as a plain solve. It also records how many configurations each layer has and how many
+ * shortest path moves leave it.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class CountingSolver extends Solver {
+    private final List<Layer> layers;  // statistics per depth
+    private BigInteger solutionCount;  // shortest solutions of the last search
+
+    /**
+     * Statistics of one breadth first layer
+     *
+     * @param depth moves from the start
+     * @param configs configs first reached at this depth
+     * @param edges moves from this layer to the next that are on shortest paths
+     */
+    public record Layer(int depth, int configs, long edges) {
+        /**
+         * Average number of shortest path moves out of a config of this layer
+         *
+         * @return edges per config
+         */
+        public double branching() {
+            return configs == 0 ? 0 : (double) edges / configs;
+        }
+    }
+
+    /**
+     * A reached configuration and the number of shortest paths to it. Counts are kept
+     * in a long until they overflow, then in a BigInteger.
+     */
+    private static final class Node {
+        private final Configuration config;  // the config
+        private final Node predecessor;  // first predecessor found, for the returned path
+        private final int depth;  // moves from the start
+        private long count;  // shortest paths to it, while it fits
+        private BigInteger bigCount;  // shortest paths to it once it doesn't, else null
+
+        /**
+         * Record a newly reached config
+         *
+         * @param config the config
+         * @param predecessor node it was first reached from, null for the start
+         * @param depth moves from the start
+         */
+        private Node(Configuration config, Node predecessor, int depth) {
+            this.config = config;
+            this.predecessor = predecessor;
+            this.depth = depth;
+        }
+
+        /**
+         * Add the shortest paths through a predecessor
+         *
+         * @param other predecessor one layer up
+         */
+        private void add(Node other) {
+            if(bigCount == null && other.bigCount == null) {
+                long sum = count + other.count;
+                if(((count ^ sum) & (other.count ^ sum)) >= 0) {  // no overflow
+                    count = sum;
+                    return;
+                }
+            }
+            bigCount = getCount().add(other.getCount());
+        }
+
+        /**
+         * Get the number of shortest paths to this config
+         *
+         * @return the count
+         */
+        private BigInteger getCount() {
+            return bigCount != null ? bigCount : BigInteger.valueOf(count);
+        }
+    }
+
+    /**
+     * Create a counting solver
+     */
+    public CountingSolver() {
+        layers = new ArrayList<>();
+        solutionCount = BigInteger.ZERO;
+    }
+
+    /**
+     * The search over nodes, queued first in, first out. It ends at the first node of the
+     * solution layer taken from the queue, once the layer before it is done and the counts of
+     * its solutions are final. Configs and shortest path moves are tallied by depth.
+     */
+    private static final class CountingSearch extends Search<Node> {
+        private final Map<Configuration,Node> nodes;  // node of each reached config
+        private final Queue<Node> queue;  // nodes to expand
+        private final List<Node> solutions;  // solutions of the shallowest solution layer
+        private int[] configs;  // configs first reached at each depth
+        private long[] edges;  // shortest path moves out of each depth
+        private int depths;  // depths tallied
+
+        /**
+         * Create the search
+         */
+        private CountingSearch() {
+            nodes = new HashMap<>();
+            queue = new LinkedList<>();
+            solutions = new ArrayList<>();
+            configs = new int[16];
+            edges = new long[16];
+        }
+
+        /**
+         * Queue a node
+         *
+         * @param node the node
+         */
+        @Override
+        protected void add(Node node) {
+            queue.add(node);
+        }
+
+        /**
+         * Take the next node
+         *
+         * @return the node, or null if there is none
+         */
+        @Override
+        protected Node remove() {
+            return queue.poll();
+        }
+
+        /**
+         * Get the config of a node
+         *
+         * @param node the node
+         * @return its config
+         */
+        @Override
+        protected Configuration config(Node node) {
+            return node.config;
+        }
+
+        /**
+         * The search ends once the layer before the solutions is done
+         *
+         * @param node node taken from the queue
+         * @param config its config
+         * @return true if it is as deep as the solutions
+         */
+        @Override
+        protected boolean isGoal(Node node, Configuration config) {
+            return !solutions.isEmpty() && node.depth >= solutions.get(0).depth;
+        }
+
+        /**
+         * Tally the layer below a node before it is expanded
+         *
+         * @param node the node
+         * @param config its config
+         * @return the config's neighbors
+         */
+        @Override
+        protected Collection<Configuration> neighbors(Node node, Configuration config) {
+            if(node.depth + 1 == depths) {
+                tally(depths);
+            }
+            return config.getNeighbors();
+        }
+
+        /**
+         * Record a newly reached config with the shortest paths through the node it came from
+         *
+         * @param nbr the config
+         * @param from node it was generated from, null for the start
+         * @return its node, or null if it was reached before
+         */
+        @Override
+        protected Node reach(Configuration nbr, Node from) {
+            if(nodes.containsKey(nbr)) {
+                return null;
+            }
+            Node node;
+            if(from == null) {
+                node = new Node(nbr, null, 0);
+                node.count = 1;
+                tally(0);
+            } else {
+                node = new Node(nbr, from, from.depth + 1);
+                node.count = from.count;
+                node.bigCount = from.bigCount;
+                edges[from.depth]++;
+            }
+            nodes.put(nbr, node);
+            configs[node.depth]++;
+            if(nbr.isSolution()) {
+                solutions.add(node);
+            }
+            return node;
+        }
+
+        /**
+         * Add the shortest paths through a node to a config reached before in the next layer
+         *
+         * @param nbr the config
+         * @param from node it was generated from
+         * @return null, the config is queued already
+         */
+        @Override
+        protected Node reachAgain(Configuration nbr, Node from) {
+            Node node = nodes.get(nbr);
+            if(node.depth == from.depth + 1) {  // another shortest path to it
+                node.add(from);
+                edges[from.depth]++;
+            }
+            return null;
+        }
+
+        /**
+         * Start tallying a depth
+         *
+         * @param depth the depth, one more than the deepest tallied
+         */
+        private void tally(int depth) {
+            if(depth == configs.length) {
+                configs = Arrays.copyOf(configs, depth * 2);
+                edges = Arrays.copyOf(edges, depth * 2);
+            }
+            depths = depth + 1;
+        }
+    }
+
+    /**
+     * Solves puzzle starting with initial config using Breadth First Search,
+     * counting the shortest solutions
+     *
+     * @param initial starting config
+     * @return list of configs from start to the first shortest solution, empty if there is none
+     */
+    @Override
+    public List<Configuration> solve(Configuration initial) {
+        CountingSearch search = new CountingSearch();
+        search.run(search.reach(initial, null));
+        count(search);
+        layers.clear();
+        for(int depth = 0; depth < search.depths; depth++) {
+            layers.add(new Layer(depth, search.configs[depth], search.edges[depth]));
+        }
+        solutionCount = BigInteger.ZERO;
+        List<Node> solutions = search.solutions;
+        for(Node solution : solutions) {
+            solutionCount = solutionCount.add(solution.getCount());
+        }
+        List<Configuration> path = new LinkedList<>();
+        for(Node node = solutions.isEmpty() ? null : solutions.get(0); node != null; node = node.predecessor) {
+            path.addFirst(node.config);
+        }
+        return path;
+    }
+
+    /**
+     * Gets the number of shortest solutions found by the last search
+     *
+     * @return number of distinct shortest paths to a solution, 0 if there is none
+     */
+    public BigInteger getSolutionCount() {
+        return solutionCount;
+    }
+
+    /**
+     * Gets the statistics of every layer searched, from the start to the solution layer
+     *
+     * @return layers by depth
+     */
+    public List<Layer> getLayers() {
+        return layers;
+    }
+}
@@ -0,0 +1,17 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration that can be rebuilt from its {@link #encode() encoding}, so a search can be
+ * written to a file and read back in another run.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public interface EncodableConfiguration extends Configuration {
+    /**
+     * Get the configuration of this puzzle with a given encoding
+     *
+     * @param bytes an encoding made by {@link #encode()} on a configuration of the same puzzle
+     * @return the configuration
+     */
+    EncodableConfiguration decode(byte[] bytes);
+}
@@ -0,0 +1,44 @@
+package puzzles.common.solver;
+
+/**
+ * Hashing of {@link Configuration#encode() encoded} configurations, shared by the
+ * solvers that keep encodings instead of configurations, and by the partitioned solver's workers.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public final class Encodings {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;  // 64 bit FNV-1a offset basis
+    private static final long FNV_PRIME = 0x100000001b3L;  // 64 bit FNV-1a prime
+
+    /**
+     * No instances, only static helpers
+     */
+    private Encodings() {
+    }
+
+    /**
+     * Hash an encoding with FNV-1a, then spread its bits with the MurmurHash3 finalizer
+     *
+     * @param bytes the encoding
+     * @return a well mixed 64 bit hash
+     */
+    public static long hash(byte[] bytes) {
+        long hash = FNV_OFFSET;
+        for(byte b : bytes) {
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Spread the bits of a hash (the MurmurHash3 finalizer)
+     *
+     * @param hash a hash
+     * @return the mixed hash
+     */
+    static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
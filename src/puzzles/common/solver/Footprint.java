@@ -0,0 +1,27 @@
+package puzzles.common.solver;
+
+import java.util.BitSet;
+
+/**
+ * The footprint of the move that produced a configuration: an id for the move and
+ * every board cell the move read or wrote, including the cells that decided whether
+ * the move was generated at all. Two moves with disjoint footprints commute, so
+ * playing them in either order reaches the same configuration.
+ *
+ * @param move id of the move, the same in every configuration it is played from; a long, since
+ *             a from and to cell pair passes the int range on boards of more than 46340 cells
+ * @param cells cells read or written, as row * cols + col
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public record Footprint(long move, BitSet cells) {
+    /**
+     * Do these moves act on disjoint parts of the board?
+     *
+     * @param other footprint of another move
+     * @return true if the moves commute
+     */
+    public boolean commutesWith(Footprint other) {
+        return !cells.intersects(other.cells);
+    }
+}
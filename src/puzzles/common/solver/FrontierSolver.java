@@ -0,0 +1,152 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * A breadth first solver that keeps only the previous, current and next layers instead of
+ * every visited configuration. When every move can be undone, a neighbor of the current layer
+ * can only be in one of those three layers, so they are enough to detect duplicates and the
+ * total and unique counts match the regular solver. The path is rebuilt by divide and conquer:
+ * a second search records each configuration's ancestor in the middle layer, then the two
+ * halves are solved the same way.
+ * Where some moves can't be undone an older configuration may be found again and expanded
+ * again, so the shortest path is still found but the counts can be larger; the depth bound
+ * then stops searches that have no solution.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class FrontierSolver extends Solver {
+    private final int maxDepth;  // deepest layer searched
+    private int peakConfigs;  // most configurations held at once
+    private int reconstructionConfigs;  // configurations generated while rebuilding the path
+
+    /**
+     * Create a frontier solver for puzzles whose moves can all be undone
+     */
+    public FrontierSolver() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a frontier solver with a depth bound
+     *
+     * @param maxDepth deepest layer to search, at least the longest shortest path
+     */
+    public FrontierSolver(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Result of one frontier search
+     *
+     * @param found configuration that was searched for
+     * @param depth moves from the start
+     * @param middle its ancestor in the middle layer
+     */
+    private record Found(Configuration found, int depth, Configuration middle) {}
+
+    /**
+     * Solves puzzle starting with initial config using layered Breadth First Search
+     *
+     * @param initial starting config
+     * @return list of configs from start to solution, empty if there is none
+     */
+    @Override
+    public List<Configuration> solve(Configuration initial) {
+        List<Configuration> path = new LinkedList<>();
+        Found solution = search(initial, null, -1, true);
+        if(solution != null) {
+            path.add(initial);
+            build(initial, solution.found(), solution.depth(), path);
+        }
+        return path;
+    }
+
+    /**
+     * Append the path between two configurations by splitting it at its middle layer
+     *
+     * @param from start of the path, already in the path
+     * @param to end of the path
+     * @param depth moves from start to end
+     * @param path path to append to
+     */
+    private void build(Configuration from, Configuration to, int depth, List<Configuration> path) {
+        if(depth == 0) {
+            return;
+        }
+        if(depth == 1) {
+            path.add(to);
+            return;
+        }
+        int middle = depth / 2;
+        Configuration halfway = search(from, to, middle, false).middle();
+        build(from, halfway, middle, path);
+        build(halfway, to, depth - middle, path);
+    }
+
+    /**
+     * Layered breadth first search holding three layers at a time
+     *
+     * @param start starting config
+     * @param target config to find, or null to find any solution
+     * @param middleDepth layer whose ancestors are recorded, or -1 for none
+     * @param counted true if this search counts towards total and unique configs
+     * @return what was found, or null if nothing was
+     */
+    private Found search(Configuration start, Configuration target, int middleDepth, boolean counted) {
+        Set<Configuration> previous = new HashSet<>();
+        Map<Configuration,Configuration> current = new LinkedHashMap<>();  // config -> ancestor in the middle layer
+        current.put(start, middleDepth == 0 ? start : null);
+        if(counted) {
+            totalConfigs++;
+            uniqueConfigs++;
+        }
+        for(int depth = 0; !current.isEmpty() && depth <= maxDepth; depth++) {
+            Map<Configuration,Configuration> next = new LinkedHashMap<>();
+            for(Map.Entry<Configuration,Configuration> entry : current.entrySet()) {
+                Configuration config = entry.getKey();
+                if(target == null ? config.isSolution() : config.equals(target)) {
+                    return new Found(config, depth, entry.getValue());
+                }
+                if(config.isDeadEnd()) {  // never expand subtrees that can't reach a solution
+                    continue;
+                }
+                for(Configuration nbr : config.getNeighbors()) {
+                    if(counted) {
+                        totalConfigs++;
+                    } else {
+                        reconstructionConfigs++;
+                    }
+                    if(!previous.contains(nbr) && !current.containsKey(nbr) && !next.containsKey(nbr)) {
+                        next.put(nbr, depth + 1 == middleDepth ? nbr : entry.getValue());
+                        if(counted) {
+                            uniqueConfigs++;
+                        }
+                    }
+                }
+                peakConfigs = Math.max(peakConfigs, previous.size() + current.size() + next.size());
+            }
+            previous = current.keySet();
+            current = next;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the most configurations held in memory at once
+     *
+     * @return size of the widest three consecutive layers seen
+     */
+    public int getPeakConfigs() {
+        return peakConfigs;
+    }
+
+    /**
+     * Gets configurations generated while rebuilding the path, not part of total configs
+     *
+     * @return number of reconstruction configs
+     */
+    public int getReconstructionConfigs() {
+        return reconstructionConfigs;
+    }
+}
@@ -0,0 +1,42 @@
+package puzzles.common.solver;
+
+import java.util.List;
+
+/**
+ * An admissible estimate of how many moves a configuration is from a solution.
+ * Informed solvers such as {@link AStarSolver} use it to order their search.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public interface Heuristic {
+    /** Estimate returned when no solution can be reached from a configuration */
+    int UNSOLVABLE = Integer.MAX_VALUE;
+
+    /**
+     * Estimate the number of moves left; must never overestimate
+     *
+     * @param config configuration to estimate
+     * @return lower bound on moves to a solution, or {@link #UNSOLVABLE}
+     */
+    int estimate(Configuration config);
+
+    /**
+     * Combine several admissible heuristics by taking the largest estimate,
+     * which is still admissible
+     *
+     * @param heuristics heuristics to combine
+     * @return the combined heuristic
+     */
+    static Heuristic max(List<? extends Heuristic> heuristics) {
+        return config -> {
+            int best = 0;
+            for(Heuristic heuristic : heuristics) {
+                best = Math.max(best, heuristic.estimate(config));
+                if(best == UNSOLVABLE) {
+                    break;
+                }
+            }
+            return best;
+        };
+    }
+}
@@ -0,0 +1,227 @@
+package puzzles.common.solver;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Searches for hints ahead of time while the player thinks. A model gives it the configs the
+ * moves of the selected piece lead to; one low priority background thread runs the hint search
+ * from each and keeps the paths in a small least recently used cache, so the hint after one of
+ * those moves is served at once. The searches of one selection share a CPU time budget and each
+ * search keeps a limited number of configs. A new selection cancels the searches still running
+ * for the last one, and a new board cancels everything and empties the cache. Hits, misses and
+ * the CPU time spent on searches that were never used are counted for tuning.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class HintSpeculator {
+    /** Default number of hints kept */
+    public static final int DEFAULT_CAPACITY = 32;
+    /** Default number of unique configs one search may keep */
+    public static final int DEFAULT_CONFIG_LIMIT = 200_000;
+    /** Default CPU time the searches for one selection may take, in milliseconds */
+    public static final long DEFAULT_CPU_MILLIS = 500;
+
+    /**
+     * A hint found ahead of time
+     *
+     * @param path configs from the config searched from to a solution, empty if there is none
+     * @param optimal true if the path is proven shortest, or proven not to exist
+     */
+    public record Hint(List<Configuration> path, boolean optimal) {}
+
+    /**
+     * Counts for tuning the budgets
+     *
+     * @param hits hints served from the cache
+     * @param misses hints asked for that weren't in the cache
+     * @param searches searches run ahead of time
+     * @param cpuMillis CPU time of those searches, in milliseconds
+     * @param wastedMillis CPU time of the searches that were cancelled, gave up without a path,
+     *                     or were dropped from the cache unused, in milliseconds
+     */
+    public record Stats(int hits, int misses, int searches, long cpuMillis, long wastedMillis) {
+        /**
+         * Gets the share of hints served from the cache
+         *
+         * @return hits over hints asked for, 0 if none were
+         */
+        public double hitRate() {
+            return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        }
+    }
+
+    /**
+     * A cached hint
+     *
+     * @param hint the hint
+     * @param cpuNanos CPU time its search took, wasted if it is dropped unused
+     */
+    private record Entry(Hint hint, long cpuNanos) {}
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();  // CPU time of the search thread
+    private final Supplier<AnytimeSolver> solvers;  // makes the same search a hint runs
+    private final int configLimit;  // most unique configs one search may keep
+    private final long cpuBudgetNanos;  // CPU time the searches for one selection may take
+    private final Map<Configuration,Entry> cache;  // hints by the config searched from, least recently used first
+    private final ExecutorService executor;  // the low priority search thread
+    private Future<?> running;  // searches for the last selection, null if none were started
+    private int hits;  // hints served from the cache
+    private int misses;  // hints asked for that weren't cached
+    private int searches;  // searches run
+    private long cpuNanos;  // CPU time of all searches
+    private long wastedNanos;  // CPU time of searches that were never used
+
+    /**
+     * Create a speculator with the default budgets
+     *
+     * @param solvers makes a solver that searches the way a hint does
+     */
+    public HintSpeculator(Supplier<AnytimeSolver> solvers) {
+        this(solvers, DEFAULT_CAPACITY, DEFAULT_CONFIG_LIMIT, DEFAULT_CPU_MILLIS);
+    }
+
+    /**
+     * Create a speculator
+     *
+     * @param solvers makes a solver that searches the way a hint does
+     * @param capacity most hints kept
+     * @param configLimit most unique configs one search may keep
+     * @param cpuBudgetMillis CPU time the searches for one selection may take, in milliseconds
+     */
+    public HintSpeculator(Supplier<AnytimeSolver> solvers, int capacity, int configLimit, long cpuBudgetMillis) {
+        this.solvers = solvers;
+        this.configLimit = configLimit;
+        this.cpuBudgetNanos = cpuBudgetMillis * 1_000_000;
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Configuration,Entry> eldest) {
+                if(size() <= capacity) {
+                    return false;
+                }
+                wastedNanos += eldest.getValue().cpuNanos();
+                return true;
+            }
+        };
+        executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "hint-speculator");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);  // the player's own actions come first
+            return thread;
+        });
+    }
+
+    /**
+     * Start searching from the configs the selected piece can move to, cancelling the
+     * searches for the last selection. The configs must not be changed afterwards.
+     *
+     * @param starts configs one move away, most likely first
+     */
+    public synchronized void speculate(List<Configuration> starts) {
+        if(executor.isShutdown()) {
+            return;
+        }
+        if(running != null) {
+            running.cancel(true);
+        }
+        running = executor.submit(() -> run(starts));
+    }
+
+    /**
+     * Take the hint for a config out of the cache
+     *
+     * @param config the config a hint is asked for
+     * @return the hint, null if none was found ahead of time
+     */
+    public synchronized Hint take(Configuration config) {
+        Entry entry = cache.remove(config);
+        if(entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.hint();
+    }
+
+    /**
+     * Cancel every search and empty the cache, as the board was replaced
+     */
+    public synchronized void cancel() {
+        if(running != null) {
+            running.cancel(true);
+            running = null;
+        }
+        for(Entry entry : cache.values()) {
+            wastedNanos += entry.cpuNanos();
+        }
+        cache.clear();
+    }
+
+    /**
+     * Cancel every search and end the search thread, as the game is over
+     */
+    public synchronized void close() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Gets the counts for tuning
+     *
+     * @return hits, misses and CPU time so far
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, searches, cpuNanos / 1_000_000, wastedNanos / 1_000_000);
+    }
+
+    /**
+     * Search from each config not cached yet, until the CPU budget is spent or the
+     * searches are cancelled
+     *
+     * @param starts configs to search from
+     */
+    private void run(List<Configuration> starts) {
+        long spent = 0;
+        for(Configuration start : starts) {
+            if(spent >= cpuBudgetNanos || Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            synchronized(this) {
+                if(cache.containsKey(start)) {  // found for an earlier selection
+                    continue;
+                }
+            }
+            long before = cpuTime();
+            AnytimeSolver solver = solvers.get();
+            solver.setConfigLimit(configLimit);
+            List<Configuration> path = solver.solve(start);
+            long used = cpuTime() - before;
+            spent += used;
+            synchronized(this) {
+                searches++;
+                cpuNanos += used;
+                if(Thread.currentThread().isInterrupted() || (path.isEmpty() && !solver.isOptimal())) {  // cut short
+                    wastedNanos += used;
+                } else {
+                    cache.put(start, new Entry(new Hint(path, solver.isOptimal()), used));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the CPU time of the current thread, or the wall clock where that isn't measured
+     *
+     * @return time in nanoseconds
+     */
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+}
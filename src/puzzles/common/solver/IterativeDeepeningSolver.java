@@ -0,0 +1,226 @@
+package puzzles.common.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A depth-first solver that walks a single board in place through
+ * {@link MutableConfiguration#makeMove(Move)} and {@link MutableConfiguration#unmakeMove(Move)},
+ * so no configuration is copied or hashed per node. Iterative deepening raises the depth
+ * bound one layer at a time, which finds a shortest path; with a heuristic this is IDA*.
+ * A bounded transposition table remembers the shallowest depth each board was searched from
+ * in the current iteration, and a board met again no shallower is skipped, since the first
+ * search of it had at least as many moves left. Boards are told apart by a 64 bit hash of
+ * their encoding, and the table is direct mapped and overwrites on a clash, so its memory is
+ * fixed and a forgotten board is simply searched again. Unique configs counts the nodes of
+ * the last iteration.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class IterativeDeepeningSolver extends Solver {
+    private static final int FOUND = -1;  // search result when a solution was reached
+    private static final int TABLE_SLOTS = 1 << 20;  // transposition table size, 12 MB
+    private final int maxDepth;  // deepest bound tried
+    private final Heuristic heuristic;  // admissible estimate of moves left
+    private final List<List<Move>> movesByDepth;  // reusable move list per depth
+    private Move[] pathMoves;  // moves from the start to the current node
+    private int solutionDepth;  // length of the path found
+    private int iterationConfigs;  // nodes generated by the current iteration
+    private long[] tableKeys;  // hash of the board in each slot
+    private int[] tableDepths;  // shallowest depth the board was searched from this iteration, MAX_VALUE if none
+
+    /**
+     * Create an iterative deepening solver
+     *
+     * @param maxDepth deepest bound to try
+     */
+    public IterativeDeepeningSolver(int maxDepth) {
+        this(maxDepth, config -> 0);
+    }
+
+    /**
+     * Create an IDA* solver
+     *
+     * @param maxDepth deepest bound to try
+     * @param heuristic admissible estimate of moves to a solution
+     */
+    public IterativeDeepeningSolver(int maxDepth, Heuristic heuristic) {
+        this.maxDepth = maxDepth;
+        this.heuristic = heuristic;
+        this.movesByDepth = new ArrayList<>();
+        this.pathMoves = new Move[16];
+    }
+
+    /**
+     * Solves puzzle starting with initial config using iterative deepening
+     *
+     * @param initial starting config, must be a {@link MutableConfiguration}
+     * @return list of configs from start to solution, or just the start if there is none
+     */
+    @Override
+    public List<Configuration> solve(Configuration initial) {
+        MutableConfiguration board = mutable(initial).copy();
+        totalConfigs++;
+        uniqueConfigs++;
+        int bound = estimate(board);
+        while(bound <= maxDepth) {
+            startIteration();
+            int next = search(board, 0, bound);
+            uniqueConfigs = iterationConfigs + 1;
+            if(next == FOUND) {
+                return replay(mutable(initial));
+            }
+            if(next == Integer.MAX_VALUE) {  // nothing was cut off, so no deeper search finds more
+                break;
+            }
+            bound = next;
+        }
+        List<Configuration> path = new LinkedList<>();
+        path.add(initial);
+        return path;
+    }
+
+    /**
+     * Solves puzzle with a single depth-first search, returning the first path found
+     * within the depth limit, which need not be the shortest
+     *
+     * @param initial starting config, must be a {@link MutableConfiguration}
+     * @param depthLimit longest path to consider
+     * @return list of configs from start to solution, or just the start if there is none
+     */
+    public List<Configuration> solveDepthFirst(Configuration initial, int depthLimit) {
+        MutableConfiguration board = mutable(initial).copy();
+        totalConfigs++;
+        uniqueConfigs++;
+        startIteration();
+        int found = estimate(board) <= depthLimit ? search(board, 0, depthLimit) : depthLimit + 1;
+        uniqueConfigs = iterationConfigs + 1;
+        if(found == FOUND) {
+            return replay(mutable(initial));
+        }
+        List<Configuration> path = new LinkedList<>();
+        path.add(initial);
+        return path;
+    }
+
+    /**
+     * Depth-first search below the current node, undoing every move on the way back
+     *
+     * @param board the single board being searched
+     * @param depth moves from the start
+     * @param bound largest moves plus estimate to expand
+     * @return FOUND, or the smallest moves plus estimate that was cut off
+     */
+    private int search(MutableConfiguration board, int depth, int bound) {
+        int estimate = estimate(board);
+        if(estimate == Heuristic.UNSOLVABLE) {
+            return Integer.MAX_VALUE;
+        }
+        if(depth + estimate > bound) {
+            return depth + estimate;
+        }
+        if(board.isSolution()) {
+            solutionDepth = depth;
+            return FOUND;
+        }
+        if(!visit(board, depth)) {  // searched already this iteration with as many moves left
+            return Integer.MAX_VALUE;
+        }
+        if(depth == movesByDepth.size()) {
+            movesByDepth.add(new ArrayList<>());
+        }
+        if(depth == pathMoves.length) {
+            pathMoves = Arrays.copyOf(pathMoves, depth * 2);
+        }
+        List<Move> moves = movesByDepth.get(depth);
+        board.getMoves(moves);
+        int smallest = Integer.MAX_VALUE;
+        for(int i = 0; i < moves.size(); i++) {
+            Move move = moves.get(i);
+            board.makeMove(move);
+            totalConfigs++;
+            iterationConfigs++;
+            pathMoves[depth] = move;
+            int result = search(board, depth + 1, bound);
+            board.unmakeMove(move);
+            if(result == FOUND) {
+                return FOUND;
+            }
+            smallest = Math.min(smallest, result);
+        }
+        return smallest;
+    }
+
+    /**
+     * Start an iteration with no nodes generated and an empty transposition table
+     */
+    private void startIteration() {
+        iterationConfigs = 0;
+        if(tableKeys == null) {
+            tableKeys = new long[TABLE_SLOTS];
+            tableDepths = new int[TABLE_SLOTS];
+        }
+        Arrays.fill(tableDepths, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Record that the board is searched from a depth, unless it was searched this iteration
+     * from that depth or a shallower one
+     *
+     * @param board the board
+     * @param depth moves from the start
+     * @return true if the board should be searched
+     */
+    private boolean visit(MutableConfiguration board, int depth) {
+        long key = Encodings.hash(board.encode());
+        int slot = (int) key & (TABLE_SLOTS - 1);
+        if(tableKeys[slot] == key && tableDepths[slot] <= depth) {
+            return false;
+        }
+        tableKeys[slot] = key;
+        tableDepths[slot] = depth;
+        return true;
+    }
+
+    /**
+     * Estimate for the current node
+     *
+     * @param board the board
+     * @return heuristic estimate, or {@link Heuristic#UNSOLVABLE} for dead ends
+     */
+    private int estimate(MutableConfiguration board) {
+        return board.isDeadEnd() ? Heuristic.UNSOLVABLE : heuristic.estimate(board);
+    }
+
+    /**
+     * Rebuild the path of configs by replaying the found moves on a copy of the start
+     *
+     * @param initial starting config
+     * @return list of configs from start to solution
+     */
+    private List<Configuration> replay(MutableConfiguration initial) {
+        List<Configuration> path = new LinkedList<>();
+        path.add(initial);
+        MutableConfiguration board = initial.copy();
+        for(int i = 0; i < solutionDepth; i++) {
+            board.makeMove(pathMoves[i]);
+            path.add(board.copy());
+        }
+        return path;
+    }
+
+    /**
+     * Checks the config can be searched in place
+     *
+     * @param config a config
+     * @return the config as a mutable config
+     */
+    private static MutableConfiguration mutable(Configuration config) {
+        if(!(config instanceof MutableConfiguration mutable)) {
+            throw new IllegalArgumentException("Iterative deepening needs a MutableConfiguration");
+        }
+        return mutable;
+    }
+}
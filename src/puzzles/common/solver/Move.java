@@ -3,17 +3,20 @@ package puzzles.common.solver;
 import puzzles.common.Coordinates;
 import puzzles.common.Direction;
 
+import java.util.Objects;
+
 /**
  * Class that helps with moving entities
  *
  * @author Quang Huynh (qth9368)
  */
 public class Move {
-    private Coordinates coordinates;
-    private Direction direction;
+    private final Coordinates coordinates;
+    private final Direction direction;
+    private final Coordinates target;
 
     /**
-     *
+     * A move of the piece at coordinates in a direction, ending wherever the board stops it
      *
      * @param coordinates coordinates of node
      * @param direction cardinal direction (N, S, E, W)
@@ -21,12 +24,25 @@ public class Move {
     public Move (Coordinates coordinates, Direction direction) {
         this.coordinates = coordinates;
         this.direction = direction;
+        this.target = null;
+    }
+
+    /**
+     * A move of the piece at coordinates to a fixed target, e.g. a jump
+     *
+     * @param coordinates coordinates of node
+     * @param target coordinates the piece lands on
+     */
+    public Move (Coordinates coordinates, Coordinates target) {
+        this.coordinates = coordinates;
+        this.direction = null;
+        this.target = target;
     }
 
     /**
      * get direction of where node is going
      *
-     * @return direction that it is facing
+     * @return direction that it is facing, or null for a move to a fixed target
      */
     public Direction getDirection() {
         return direction;
@@ -40,4 +56,49 @@ public class Move {
     public Coordinates getCoordinates() {
         return coordinates;
     }
+
+    /**
+     * get coordinates the piece lands on
+     *
+     * @return target, or null for a move in a direction
+     */
+    public Coordinates getTarget() {
+        return target;
+    }
+
+    /**
+     * Checks if another move moves the same piece the same way
+     *
+     * @param other The object to compare against.
+     * @return true if the moves are equal, false otherwise.
+     */
+    @Override
+    public boolean equals(Object other) {
+        boolean result = false;
+        if(other instanceof Move otherMove) {
+            result = Objects.equals(coordinates, otherMove.coordinates) && direction == otherMove.direction
+                    && Objects.equals(target, otherMove.target);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the hash code for this move
+     *
+     * @return The hash code of the move
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(coordinates, direction, target);
+    }
+
+    /**
+     * Prints the move
+     *
+     * @return the piece coordinates followed by the direction or target
+     */
+    @Override
+    public String toString() {
+        return coordinates + " " + (direction != null ? direction : target);
+    }
 }
@@ -0,0 +1,40 @@
+package puzzles.common.solver;
+
+import java.util.List;
+
+/**
+ * A configuration that can be searched in place: it lists its legal moves,
+ * applies one to itself and undoes it exactly, so a depth-first search can
+ * walk a single board instead of copying one per node.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public interface MutableConfiguration extends Configuration {
+    /**
+     * Fill a list with every legal move from this configuration
+     *
+     * @param moves list to fill, cleared first
+     */
+    void getMoves(List<Move> moves);
+
+    /**
+     * Apply a legal move to this configuration
+     *
+     * @param move the move, as listed by {@link #getMoves(List)}
+     */
+    void makeMove(Move move);
+
+    /**
+     * Undo the most recent move applied to this configuration
+     *
+     * @param move the move that was applied
+     */
+    void unmakeMove(Move move);
+
+    /**
+     * Get an independent copy of this configuration
+     *
+     * @return the copy
+     */
+    MutableConfiguration copy();
+}
@@ -0,0 +1,146 @@
+package puzzles.common.solver;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * A breadth first solver whose visited set and predecessors live off the Java heap in an
+ * {@link OffHeapStateStore}, as {@link Configuration#encode() encodings} and parent addresses,
+ * so only the queue is on the heap. The store is freed as soon as the solve finishes. The path
+ * is rebuilt by following parent addresses back to the start, then replaying forward and
+ * picking the neighbor whose encoding matches at each step. Counts and path are the same as
+ * the regular solver's.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class OffHeapSolver extends Solver {
+    private long offHeapBytes;  // off-heap memory reserved when the search ended
+
+    /**
+     * A queued configuration and the address of its stored encoding
+     *
+     * @param config the config
+     * @param address its address in the store
+     */
+    private record Queued(Configuration config, long address) {}
+
+    /**
+     * The search over stored encodings: configs are queued first in, first out with the
+     * address of their encoding
+     */
+    private static final class OffHeapSearch extends Search<Queued> {
+        private final OffHeapStateStore store;  // visited configs and predecessors
+        private final Queue<Queued> queue;  // configs to expand
+
+        /**
+         * Create the search
+         *
+         * @param store the store to keep visited configs in
+         */
+        private OffHeapSearch(OffHeapStateStore store) {
+            this.store = store;
+            queue = new LinkedList<>();
+        }
+
+        /**
+         * Queue a config
+         *
+         * @param entry the config and its address
+         */
+        @Override
+        protected void add(Queued entry) {
+            queue.add(entry);
+        }
+
+        /**
+         * Take the next config
+         *
+         * @return the config and its address, or null if there is none
+         */
+        @Override
+        protected Queued remove() {
+            return queue.poll();
+        }
+
+        /**
+         * Get the config of a queued entry
+         *
+         * @param entry the entry
+         * @return its config
+         */
+        @Override
+        protected Configuration config(Queued entry) {
+            return entry.config();
+        }
+
+        /**
+         * Store a neighbor's encoding with the address of the config it came from
+         *
+         * @param nbr the neighbor
+         * @param from the config it was generated from
+         * @return the neighbor and its address, or null if it is stored already
+         */
+        @Override
+        protected Queued reach(Configuration nbr, Queued from) {
+            long address = store.add(nbr.encode(), from.address());
+            return address == OffHeapStateStore.NONE ? null : new Queued(nbr, address);
+        }
+    }
+
+    /**
+     * Solves puzzle starting with initial config using Breadth First Search
+     *
+     * @param initial starting config
+     * @return list of configs from start to solution
+     */
+    @Override
+    public List<Configuration> solve(Configuration initial) {
+        try(OffHeapStateStore store = new OffHeapStateStore()) {
+            OffHeapSearch search = new OffHeapSearch(store);
+            Queued start = new Queued(initial, store.add(initial.encode(), OffHeapStateStore.NONE));
+            Queued last = search.run(start);
+            count(search);
+            offHeapBytes = store.getReservedBytes();
+            return path(initial, (last == null ? start : last).address(), store);
+        }
+    }
+
+    /**
+     * Rebuild the path from the start to a stored configuration
+     *
+     * @param initial starting config
+     * @param address address of the last config of the path
+     * @param store the store
+     * @return list of configs from start to the stored config
+     */
+    private static List<Configuration> path(Configuration initial, long address, OffHeapStateStore store) {
+        LinkedList<byte[]> encodings = new LinkedList<>();
+        for(long step = address; step != OffHeapStateStore.NONE; step = store.parent(step)) {
+            encodings.addFirst(store.bytes(step));
+        }
+        List<Configuration> path = new LinkedList<>();
+        Configuration config = initial;
+        path.add(config);
+        for(byte[] encoding : encodings.subList(1, encodings.size())) {
+            for(Configuration nbr : config.getNeighbors()) {
+                if(Arrays.equals(nbr.encode(), encoding)) {
+                    config = nbr;
+                    break;
+                }
+            }
+            path.add(config);
+        }
+        return path;
+    }
+
+    /**
+     * Gets the off-heap memory the visited set and predecessors used
+     *
+     * @return bytes reserved off the heap when the search ended
+     */
+    public long getOffHeapBytes() {
+        return offHeapBytes;
+    }
+}
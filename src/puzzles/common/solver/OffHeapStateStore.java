@@ -0,0 +1,193 @@
+package puzzles.common.solver;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A visited set and predecessor map of {@link Configuration#encode() encoded} configurations
+ * kept outside the Java heap. Each state is a record in a chunked, append-only log:
+ * its parent's address, its hash, its length and its bytes. An open addressing table of
+ * record addresses, probed linearly, finds a state by its bytes. Everything is allocated
+ * from arenas that are freed when the store is closed.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public final class OffHeapStateStore implements AutoCloseable {
+    /** Address of a state that was already stored, or of the parent of the first state */
+    public static final long NONE = -1;
+    private static final int CHUNK_BYTES = 1 << 22;  // size of a log chunk, 4 MB
+    private static final int HEADER_BYTES = 16;  // parent address, hash and length before the bytes
+    private static final int INITIAL_SLOTS = 1 << 12;  // first table capacity
+    private final Arena logArena;  // owns the log chunks until the store is closed
+    private final List<MemorySegment> chunks;  // the log
+    private long chunkUsed;  // bytes used in the last chunk
+    private Arena tableArena;  // owns the current table, replaced when the table grows
+    private MemorySegment table;  // slots holding a record address plus one, or 0 when empty
+    private long slots;  // table capacity, a power of two
+    private long size;  // states stored
+    private long logBytes;  // bytes reserved for the log
+
+    /**
+     * Create an empty store
+     */
+    public OffHeapStateStore() {
+        logArena = Arena.ofConfined();
+        chunks = new ArrayList<>();
+        allocateTable(INITIAL_SLOTS);
+    }
+
+    /**
+     * Store a state unless it is already stored
+     *
+     * @param bytes the state's encoding
+     * @param parent address of the state it was reached from, or NONE
+     * @return the new state's address, or NONE if it was already stored
+     */
+    public long add(byte[] bytes, long parent) {
+        int hash = (int) Encodings.hash(bytes);
+        long slot = hash & (slots - 1);
+        MemorySegment key = MemorySegment.ofArray(bytes);
+        for(long entry; (entry = table.getAtIndex(ValueLayout.JAVA_LONG, slot)) != 0; slot = (slot + 1) & (slots - 1)) {
+            long address = entry - 1;
+            MemorySegment chunk = chunk(address);
+            long offset = offset(address);
+            if(chunk.get(ValueLayout.JAVA_INT_UNALIGNED, offset + 8) == hash
+                    && chunk.get(ValueLayout.JAVA_INT_UNALIGNED, offset + 12) == bytes.length
+                    && MemorySegment.mismatch(chunk, offset + HEADER_BYTES, offset + HEADER_BYTES + bytes.length,
+                            key, 0, bytes.length) == -1) {
+                return NONE;
+            }
+        }
+        long address = append(bytes, parent, hash);
+        table.setAtIndex(ValueLayout.JAVA_LONG, slot, address + 1);
+        size++;
+        if(size * 2 > slots) {  // keep the table at most half full
+            grow();
+        }
+        return address;
+    }
+
+    /**
+     * Get the encoding of a stored state
+     *
+     * @param address the state's address
+     * @return its bytes
+     */
+    public byte[] bytes(long address) {
+        MemorySegment chunk = chunk(address);
+        long offset = offset(address);
+        int length = chunk.get(ValueLayout.JAVA_INT_UNALIGNED, offset + 12);
+        return chunk.asSlice(offset + HEADER_BYTES, length).toArray(ValueLayout.JAVA_BYTE);
+    }
+
+    /**
+     * Get the parent of a stored state
+     *
+     * @param address the state's address
+     * @return the address of the state it was first reached from, or NONE
+     */
+    public long parent(long address) {
+        return chunk(address).get(ValueLayout.JAVA_LONG_UNALIGNED, offset(address));
+    }
+
+    /**
+     * Gets the off-heap memory reserved by the log and the table
+     *
+     * @return bytes reserved
+     */
+    public long getReservedBytes() {
+        return logBytes + table.byteSize();
+    }
+
+    /**
+     * Free all off-heap memory; the store can't be used afterwards
+     */
+    @Override
+    public void close() {
+        tableArena.close();
+        logArena.close();
+    }
+
+    /**
+     * Append a record to the log, starting a new chunk if it doesn't fit
+     *
+     * @param bytes the state's encoding
+     * @param parent its parent's address
+     * @param hash its hash
+     * @return the record's address
+     */
+    private long append(byte[] bytes, long parent, int hash) {
+        long recordBytes = HEADER_BYTES + bytes.length;
+        if(chunks.isEmpty() || chunkUsed + recordBytes > chunks.getLast().byteSize()) {
+            MemorySegment chunk = logArena.allocate(Math.max(CHUNK_BYTES, recordBytes), 8);
+            chunks.add(chunk);
+            logBytes += chunk.byteSize();
+            chunkUsed = 0;
+        }
+        MemorySegment chunk = chunks.getLast();
+        long offset = chunkUsed;
+        chunk.set(ValueLayout.JAVA_LONG_UNALIGNED, offset, parent);
+        chunk.set(ValueLayout.JAVA_INT_UNALIGNED, offset + 8, hash);
+        chunk.set(ValueLayout.JAVA_INT_UNALIGNED, offset + 12, bytes.length);
+        MemorySegment.copy(bytes, 0, chunk, ValueLayout.JAVA_BYTE, offset + HEADER_BYTES, bytes.length);
+        chunkUsed += (recordBytes + 7) & ~7;  // keep records 8 byte aligned
+        return ((long) (chunks.size() - 1) << 32) | offset;
+    }
+
+    /**
+     * Double the table, rehashing every record from its stored hash
+     */
+    private void grow() {
+        Arena oldArena = tableArena;
+        MemorySegment oldTable = table;
+        long oldSlots = slots;
+        allocateTable(slots * 2);
+        for(long i = 0; i < oldSlots; i++) {
+            long entry = oldTable.getAtIndex(ValueLayout.JAVA_LONG, i);
+            if(entry != 0) {
+                long address = entry - 1;
+                int hash = chunk(address).get(ValueLayout.JAVA_INT_UNALIGNED, offset(address) + 8);
+                long slot = hash & (slots - 1);
+                while(table.getAtIndex(ValueLayout.JAVA_LONG, slot) != 0) {
+                    slot = (slot + 1) & (slots - 1);
+                }
+                table.setAtIndex(ValueLayout.JAVA_LONG, slot, entry);
+            }
+        }
+        oldArena.close();
+    }
+
+    /**
+     * Allocate an empty table in a new arena
+     *
+     * @param capacity number of slots, a power of two
+     */
+    private void allocateTable(long capacity) {
+        tableArena = Arena.ofConfined();
+        table = tableArena.allocate(capacity * Long.BYTES, Long.BYTES);  // zeroed, so every slot is empty
+        slots = capacity;
+    }
+
+    /**
+     * Get the chunk holding a record
+     *
+     * @param address the record's address
+     * @return its chunk
+     */
+    private MemorySegment chunk(long address) {
+        return chunks.get((int) (address >>> 32));
+    }
+
+    /**
+     * Get a record's offset in its chunk
+     *
+     * @param address the record's address
+     * @return the offset
+     */
+    private static long offset(long address) {
+        return address & 0xFFFFFFFFL;
+    }
+}
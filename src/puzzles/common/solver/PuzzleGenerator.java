@@ -0,0 +1,229 @@
+package puzzles.common.solver;
+
+import puzzles.common.io.BoardArchive;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates puzzles a known number of moves from solved, by a {@link RetrogradeSearch} from
+ * solved boards a puzzle makes up. Each puzzle gets its own random numbers from the seed and its
+ * number, so the same seed always gives the same puzzles, whatever the number of threads.
+ * Puzzles are written as text files the puzzle loads, or packed into one {@link BoardArchive}.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public abstract class PuzzleGenerator {
+    /** Default most configs kept on one level of the search */
+    public static final int DEFAULT_WIDTH = 2000;
+    /** Searches tried for one puzzle before giving up on it */
+    private static final int MAX_ATTEMPTS = 20;
+    /** Configs of one search checked for their optimal length before trying another search */
+    private static final int MAX_CHECKS = 32;
+    /** Puzzles handed to the threads at a time, so results can be written in order as they come */
+    private static final int BATCH = 256;
+    /** Mixes a puzzle's number into the seed */
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+
+    private final String puzzle;  // puzzle name, for file names and archives
+    private int levelWidth = DEFAULT_WIDTH;  // most configs kept on one level of the search
+
+    /**
+     * Create a generator
+     *
+     * @param puzzle name of the puzzle
+     */
+    protected PuzzleGenerator(String puzzle) {
+        this.puzzle = puzzle;
+    }
+
+    /**
+     * Make up the solved boards a search starts from
+     *
+     * @param random random numbers of this puzzle
+     * @return solved configs
+     */
+    protected abstract List<ReversibleConfiguration> solutions(Random random);
+
+    /**
+     * Build a board from a record packed by {@link #pack(Configuration)}, as if it was just loaded
+     *
+     * @param record the packed board
+     * @return the config
+     */
+    protected abstract Configuration unpack(ByteBuffer record);
+
+    /**
+     * Pack a board into a record
+     *
+     * @param config the board
+     * @return the record
+     */
+    protected abstract byte[] pack(Configuration config);
+
+    /**
+     * Gets the text of a puzzle file that loads a board
+     *
+     * @param config the board
+     * @return the file's text
+     */
+    protected abstract String toFileText(Configuration config);
+
+    /**
+     * Is a freshly loaded board found a number of reverse moves from the solutions searched from
+     * really that far from every solution? A puzzle whose solutions all have the same length, or
+     * whose searches start from every solution, needs no check.
+     *
+     * @param config the board, as loaded
+     * @param depth reverse moves it was found at
+     * @return true if its shortest solution is that long
+     */
+    protected boolean isOptimalAt(Configuration config, int depth) {
+        return true;
+    }
+
+    /**
+     * Gets the length of a board's shortest solution, by breadth first search
+     *
+     * @param config the board
+     * @return moves in the shortest solution, -1 if there is none
+     */
+    protected static int shortestSolution(Configuration config) {
+        List<Configuration> path = new Solver().solve(config);
+        return !path.isEmpty() && path.getLast().isSolution() ? path.size() - 1 : -1;
+    }
+
+    /**
+     * Set the most configs kept on one level of the search
+     *
+     * @param levelWidth the width
+     */
+    public void setLevelWidth(int levelWidth) {
+        this.levelWidth = levelWidth;
+    }
+
+    /**
+     * Generate one puzzle
+     *
+     * @param depth moves its shortest solution takes
+     * @param seed seed of the batch
+     * @param number number of the puzzle in the batch
+     * @return the packed board, null if none was found
+     */
+    public byte[] generate(int depth, long seed, long number) {
+        Random random = new Random(seed ^ (number + 1) * MIX);
+        RetrogradeSearch search = new RetrogradeSearch(levelWidth);
+        for(int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            List<ReversibleConfiguration> found = new ArrayList<>(search.search(solutions(random), depth, random));
+            Collections.shuffle(found, random);
+            for(Configuration config : found.subList(0, Math.min(found.size(), MAX_CHECKS))) {
+                byte[] record = pack(config);
+                if(isOptimalAt(unpack(ByteBuffer.wrap(record)), depth)) {
+                    return record;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Generate a batch of puzzles from the command line and write them out
+     *
+     * @param args depth count [--seed n] [--threads n] [--width n] [--verify] (--out dir | --archive file),
+     *             after the puzzle's own arguments
+     * @param first index of the first of those arguments
+     * @param usage the puzzle's own arguments, for the usage message
+     * @throws Exception if the puzzles can't be written or a thread fails
+     */
+    public void run(String[] args, int first, String usage) throws Exception {
+        if(args.length < first + 2) {
+            System.out.println("Usage: java " + getClass().getSimpleName() + " " + usage
+                    + " depth count [--seed n] [--threads n] [--width n] [--verify] (--out dir | --archive file)");
+            return;
+        }
+        int depth = Integer.parseInt(args[first]);
+        int count = Integer.parseInt(args[first + 1]);
+        long seed = 0;  // seed of the batch
+        int threads = Runtime.getRuntime().availableProcessors();  // threads generating
+        boolean verify = false;  // solve every puzzle again to check its length
+        Path outDir = null;  // where text files are written
+        Path archive = null;  // where the archive is written
+        for(int i = first + 2; i < args.length; i++) {
+            switch(args[i]) {
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--width" -> setLevelWidth(Integer.parseInt(args[++i]));
+                case "--verify" -> verify = true;
+                case "--out" -> outDir = Path.of(args[++i]);
+                case "--archive" -> archive = Path.of(args[++i]);
+                default -> {
+                    System.out.println("Unknown option: " + args[i]);
+                    return;
+                }
+            }
+        }
+        if((outDir == null) == (archive == null)) {
+            System.out.println("Give exactly one of --out and --archive");
+            return;
+        }
+        if(outDir != null) {
+            Files.createDirectories(outDir);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<byte[]> records = new ArrayList<>();
+        int written = 0;
+        int failed = 0;
+        int wrong = 0;
+        long began = System.nanoTime();
+        try {
+            for(int start = 0; start < count; start += BATCH) {
+                List<Callable<byte[]>> tasks = new ArrayList<>();
+                for(int n = start; n < Math.min(count, start + BATCH); n++) {
+                    long number = n;
+                    long batchSeed = seed;
+                    tasks.add(() -> generate(depth, batchSeed, number));
+                }
+                for(Future<byte[]> future : executor.invokeAll(tasks)) {
+                    byte[] record = future.get();
+                    if(record == null) {
+                        failed++;
+                        continue;
+                    }
+                    if(verify && shortestSolution(unpack(ByteBuffer.wrap(record))) != depth) {
+                        wrong++;
+                    }
+                    if(archive != null) {
+                        records.add(record);
+                    } else {
+                        String text = toFileText(unpack(ByteBuffer.wrap(record)));
+                        Files.writeString(outDir.resolve(puzzle + "-" + depth + "-" + written + ".txt"), text,
+                                StandardCharsets.US_ASCII);
+                    }
+                    written++;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        if(archive != null) {
+            BoardArchive.write(archive, puzzle, records);
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        System.out.printf("Puzzles: %d at depth %d in %.2f s (%.0f per hour), %d not found%n",
+                written, depth, seconds, written / seconds * 3600, failed);
+        if(verify) {
+            System.out.println("Verified: " + (written - wrong) + " of " + written + " have a shortest solution of " + depth);
+        }
+    }
+}
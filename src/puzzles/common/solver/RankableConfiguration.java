@@ -0,0 +1,43 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration whose puzzle has a finite state space that can be numbered densely,
+ * so a solver can index flat arrays by rank instead of hashing configurations.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public interface RankableConfiguration extends Configuration {
+    /**
+     * Get the number of configurations of this puzzle
+     *
+     * @return size of the space; every rank is below it
+     */
+    long getSpaceSize();
+
+    /**
+     * Get this configuration's rank; equal configurations have equal ranks
+     *
+     * @return rank from 0 to the space size minus one
+     */
+    long rank();
+
+    /**
+     * Get the configuration of this puzzle with a given rank
+     *
+     * @param rank a rank below the space size
+     * @return the configuration
+     */
+    RankableConfiguration unrank(long rank);
+
+    /**
+     * Get the blocks ranks are grouped in, when every move leads from a configuration to one
+     * in the block before its own, as when every move removes a piece. A solver can then keep
+     * a table for each block it reaches, and a configuration's depth is how many blocks it lies
+     * before the start's.
+     *
+     * @return the first rank of each block followed by the space size, or null if moves make no such promise
+     */
+    default long[] getLayerStarts() {
+        return null;
+    }
+}
@@ -0,0 +1,302 @@
+package puzzles.common.solver;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A breadth first solver for {@link RankableConfiguration ranked} puzzles. Instead of hashing
+ * configurations it keeps a bit per rank for visited and a byte per rank for the depth, taken
+ * modulo 256, and only the ranks of the current and next layers. When the puzzle groups its
+ * ranks in {@link RankableConfiguration#getLayerStarts() layers}, the bits are kept per layer,
+ * only for the layers the search reaches, and the depth of a rank is its layer's, so no depths
+ * are kept. The path is rebuilt by walking back from the solution, one layer at a time, to a
+ * configuration one layer shallower that has it as a neighbor; the neighbors of the current
+ * configuration are tried first, which is enough when moves can be undone, otherwise the
+ * visited configurations of that layer are scanned.
+ * Depths are only compared modulo 256, so on puzzles with moves that can't be undone, paths
+ * of 256 moves or more and no layers the walk could pick a deeper configuration.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class RankedSolver extends Solver {
+    public static final long MAX_SPACE = Integer.MAX_VALUE - 8;  // most ranks one table can hold, the largest byte array
+    private long[] blockStarts;  // first rank of each block of bits, then the space size
+    private boolean layered;  // every move leads to the block before, so a block is a layer
+    private int startBlock;  // block of the starting config
+    private long[][] visited;  // one bit per rank of each block, null until the search reaches it
+    private byte[] depths;  // depth of each visited rank, modulo 256, unless blocks are layers
+    private long tableBytes;  // bytes of the visited bits and depths
+
+    /**
+     * The search over ranks, queued a layer at a time in arrays of ranks
+     */
+    private final class RankedSearch extends Search<Long> {
+        private final RankableConfiguration start;  // starting config, unranks the others
+        private long[] layer;  // ranks of the layer being expanded
+        private int layerSize;  // ranks in the layer
+        private int position;  // next rank of the layer to take
+        private long[] next;  // ranks of the layer being built
+        private int nextSize;  // ranks in the layer being built
+        private int depth;  // depth of the layer being expanded
+
+        /**
+         * Create the search
+         *
+         * @param start starting config
+         */
+        private RankedSearch(RankableConfiguration start) {
+            this.start = start;
+            layer = new long[0];
+            next = new long[16];
+            depth = -1;
+        }
+
+        /**
+         * Queue a rank in the layer being built
+         *
+         * @param rank the rank
+         */
+        @Override
+        protected void add(Long rank) {
+            if(nextSize == next.length) {
+                next = Arrays.copyOf(next, nextSize * 2);
+            }
+            next[nextSize++] = rank;
+        }
+
+        /**
+         * Take the next rank, moving on to the layer built so far once the current one is done
+         *
+         * @return the rank, or null if there is none
+         */
+        @Override
+        protected Long remove() {
+            if(position == layerSize) {
+                if(nextSize == 0) {
+                    return null;
+                }
+                layer = next;
+                layerSize = nextSize;
+                position = 0;
+                next = new long[Math.max(16, layerSize)];
+                nextSize = 0;
+                depth++;
+            }
+            return layer[position++];
+        }
+
+        /**
+         * Get the config of a rank
+         *
+         * @param rank the rank
+         * @return its config
+         */
+        @Override
+        protected Configuration config(Long rank) {
+            return start.unrank(rank);
+        }
+
+        /**
+         * Mark a neighbor visited one layer deeper than the one being expanded
+         *
+         * @param nbr the neighbor
+         * @param from rank of the config it was generated from
+         * @return its rank, or null if it was visited before
+         */
+        @Override
+        protected Long reach(Configuration nbr, Long from) {
+            long rank = ((RankableConfiguration) nbr).rank();
+            if(isVisited(rank)) {
+                return null;
+            }
+            mark(rank, depth + 1);
+            return rank;
+        }
+    }
+
+    /**
+     * Solves puzzle starting with initial config using Breadth First Search over ranks
+     *
+     * @param initial starting config, must be a {@link RankableConfiguration}
+     * @return list of configs from start to solution, empty if there is none
+     */
+    @Override
+    public List<Configuration> solve(Configuration initial) {
+        if(!(initial instanceof RankableConfiguration start)) {
+            throw new IllegalArgumentException("Ranked search needs a RankableConfiguration");
+        }
+        long largest = getLargestTable(start);
+        if(largest > MAX_SPACE) {
+            throw new IllegalArgumentException("Table of " + largest + " ranks is too large to hold");
+        }
+        long[] layers = start.getLayerStarts();
+        layered = layers != null;
+        blockStarts = layered ? layers : new long[] {0, start.getSpaceSize()};
+        visited = new long[blockStarts.length - 1][];
+        depths = layered ? null : new byte[(int) start.getSpaceSize()];
+        tableBytes = layered ? 0 : depths.length;
+        startBlock = block(start.rank());
+        RankedSearch search = new RankedSearch(start);
+        Long last = search.run(search.reach(start, null));
+        count(search);
+        List<Configuration> path = new LinkedList<>();
+        if(last != null) {
+            RankableConfiguration solution = start.unrank(last);
+            if(solution.isSolution()) {
+                walkBack(start, solution, search.depth, path);
+            }
+        }
+        blockStarts = null;
+        visited = null;
+        depths = null;
+        return path;
+    }
+
+    /**
+     * Gets the most ranks one table of a search from a config has to hold: the largest layer,
+     * or the whole space if the puzzle has no layers
+     *
+     * @param config starting config
+     * @return ranks of the largest table, Long.MAX_VALUE if the space doesn't fit in a long
+     */
+    public static long getLargestTable(RankableConfiguration config) {
+        long[] starts = config.getLayerStarts();
+        if(starts == null) {
+            return config.getSpaceSize();
+        }
+        if(starts[starts.length - 1] == Long.MAX_VALUE) {  // the space size saturated, so the last layers are unknown
+            return Long.MAX_VALUE;
+        }
+        long largest = 0;
+        for(int block = 0; block + 1 < starts.length; block++) {
+            largest = Math.max(largest, starts[block + 1] - starts[block]);
+        }
+        return largest;
+    }
+
+    /**
+     * Gets the memory of the visited bits and depths: about one byte per config of the space,
+     * or a bit per config of the layers reached when the puzzle has layers
+     *
+     * @return bytes of the tables
+     */
+    public long getTableBytes() {
+        return tableBytes;
+    }
+
+    /**
+     * Build the path by walking back from the solution through shallower layers
+     *
+     * @param start starting config
+     * @param solution the solution found
+     * @param depth depth of the solution
+     * @param path list to fill with configs from start to solution
+     */
+    private void walkBack(RankableConfiguration start, RankableConfiguration solution, int depth,
+                          List<Configuration> path) {
+        RankableConfiguration current = solution;
+        path.add(current);
+        for(int d = depth; d > 0; d--) {
+            RankableConfiguration previous = null;
+            for(Configuration nbr : current.getNeighbors()) {  // enough when the move can be undone
+                if(isPredecessor((RankableConfiguration) nbr, current, d - 1)) {
+                    previous = (RankableConfiguration) nbr;
+                    break;
+                }
+            }
+            long from = 0;
+            long to = blockStarts[blockStarts.length - 1];
+            if(layered) {  // only the ranks of the shallower layer can have its depth
+                from = blockStarts[startBlock - (d - 1)];
+                to = blockStarts[startBlock - (d - 1) + 1];
+            }
+            for(long rank = from; previous == null && rank < to; rank++) {
+                if(isVisited(rank) && hasDepth(rank, d - 1)) {
+                    RankableConfiguration candidate = start.unrank(rank);
+                    if(isPredecessor(candidate, current, d - 1)) {
+                        previous = candidate;
+                    }
+                }
+            }
+            current = previous;
+            path.addFirst(current);
+        }
+    }
+
+    /**
+     * Checks whether a config was expanded at a depth and has another config as a neighbor
+     *
+     * @param candidate possible predecessor
+     * @param config the config it should lead to
+     * @param depth depth the predecessor must have
+     * @return true if candidate is a predecessor of config
+     */
+    private boolean isPredecessor(RankableConfiguration candidate, Configuration config, int depth) {
+        long rank = candidate.rank();
+        return isVisited(rank) && hasDepth(rank, depth)
+                && !candidate.isDeadEnd() && candidate.getNeighbors().contains(config);
+    }
+
+    /**
+     * Checks the visited bit of a rank
+     *
+     * @param rank the rank
+     * @return true if visited
+     */
+    private boolean isVisited(long rank) {
+        int block = block(rank);
+        long offset = rank - blockStarts[block];
+        return visited[block] != null && (visited[block][(int) (offset >>> 6)] & (1L << offset)) != 0;
+    }
+
+    /**
+     * Checks the depth of a visited rank, exactly when blocks are layers, otherwise modulo 256
+     *
+     * @param rank the rank
+     * @param depth the depth
+     * @return true if the rank was reached at that depth
+     */
+    private boolean hasDepth(long rank, int depth) {
+        if(layered) {
+            return startBlock - block(rank) == depth;
+        }
+        return (depths[(int) rank] & 0xFF) == (depth & 0xFF);
+    }
+
+    /**
+     * Set the visited bit and depth of a rank, making the bits of its block on first use
+     *
+     * @param rank the rank
+     * @param depth its depth
+     */
+    private void mark(long rank, int depth) {
+        int block = block(rank);
+        if(visited[block] == null) {
+            visited[block] = new long[(int) ((blockStarts[block + 1] - blockStarts[block] + 63) >>> 6)];
+            tableBytes += visited[block].length * 8L;
+        }
+        long offset = rank - blockStarts[block];
+        visited[block][(int) (offset >>> 6)] |= 1L << offset;
+        if(depths != null) {
+            depths[(int) rank] = (byte) depth;
+        }
+    }
+
+    /**
+     * Find the block a rank falls in
+     *
+     * @param rank the rank
+     * @return index of its block
+     */
+    private int block(long rank) {
+        int block = Arrays.binarySearch(blockStarts, rank);
+        if(block < 0) {
+            block = -block - 2;
+        }
+        while(blockStarts[block + 1] <= rank) {  // empty blocks start at the same rank as the next one
+            block++;
+        }
+        return block;
+    }
+}
@@ -0,0 +1,70 @@
+package puzzles.common.solver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Breadth first search backwards from solutions, one level of reverse moves at a time. A config
+ * first found on level n is n moves from the solutions searched from, and no closer. Levels are
+ * capped at a width so deep searches stay small: a level over the cap is shuffled and cut, and
+ * the configs cut are still remembered, so they are never mistaken for deeper ones later.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class RetrogradeSearch {
+    private final int levelWidth;  // most configs kept on one level
+    private int uniqueConfigs;  // configs found by the last search
+
+    /**
+     * Create a search
+     *
+     * @param levelWidth most configs kept on one level
+     */
+    public RetrogradeSearch(int levelWidth) {
+        this.levelWidth = levelWidth;
+    }
+
+    /**
+     * Find configs a given number of reverse moves from solutions
+     *
+     * @param solutions solved configs to search from
+     * @param depth reverse moves to make
+     * @param random shuffles levels over the width, so the same seed cuts the same configs
+     * @return configs first found at that depth, in the order found; empty if the search died out
+     */
+    public List<ReversibleConfiguration> search(Collection<? extends ReversibleConfiguration> solutions, int depth, Random random) {
+        Set<Configuration> visited = new HashSet<>(solutions);
+        List<ReversibleConfiguration> level = new ArrayList<>(solutions);
+        for(int n = 0; n < depth && !level.isEmpty(); n++) {
+            List<ReversibleConfiguration> next = new ArrayList<>();
+            for(ReversibleConfiguration config : level) {
+                for(ReversibleConfiguration predecessor : config.getPredecessors()) {
+                    if(visited.add(predecessor)) {
+                        next.add(predecessor);
+                    }
+                }
+            }
+            if(next.size() > levelWidth) {
+                Collections.shuffle(next, random);
+                next = new ArrayList<>(next.subList(0, levelWidth));
+            }
+            level = next;
+        }
+        uniqueConfigs = visited.size();
+        return level;
+    }
+
+    /**
+     * Get the number of configs found by the last search, cut ones included
+     *
+     * @return unique configs
+     */
+    public int getUniqueConfigs() {
+        return uniqueConfigs;
+    }
+}
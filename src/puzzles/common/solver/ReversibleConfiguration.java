@@ -0,0 +1,19 @@
+package puzzles.common.solver;
+
+import java.util.List;
+
+/**
+ * A configuration that can list the configurations one move before it, so a search can run
+ * backwards from solutions, e.g. to generate puzzles a known number of moves from solved.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public interface ReversibleConfiguration extends Configuration {
+    /**
+     * Get every configuration one move before this one: exactly those whose
+     * {@link #getNeighbors()} include this configuration
+     *
+     * @return the predecessors, in the same order every time
+     */
+    List<ReversibleConfiguration> getPredecessors();
+}
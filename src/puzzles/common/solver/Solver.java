@@ -9,50 +9,405 @@ import java.util.*;
  * @author Quang Huynh (qth9368)
  */
 public class Solver {
-    private int uniqueConfigs;  // number of unique configurations
-    private int totalConfigs;  // total number of configurations
+    protected int uniqueConfigs;  // number of unique configurations
+    protected int totalConfigs;  // total number of configurations
+    private int skippedConfigs;  // neighbors skipped as transpositions of commuting moves
+    private final boolean reduceTranspositions;  // skip one ordering of commuting moves
 
     public Solver() {
+        this(false);
+    }
+
+    /**
+     * Create a solver that may skip transpositions of commuting moves. Configurations
+     * that describe their moves with a {@link Footprint} only have commuting moves
+     * generated in increasing move order, which keeps every shortest path length.
+     *
+     * @param reduceTranspositions true to skip transpositions of commuting moves
+     */
+    public Solver(boolean reduceTranspositions) {
         uniqueConfigs = 0;
         totalConfigs = 0;
+        skippedConfigs = 0;
+        this.reduceTranspositions = reduceTranspositions;
     }
 
     /**
-     * Solves puzzle starting with initial config using Breadth First Search
+     * The moves a queued configuration was reached by along shortest paths
      *
-     * @param initial starting config
-     * @return list of configs from start to solution
+     * @param depth moves from the start
+     * @param footprints footprints of those moves
      */
-    public List<Configuration> solve(Configuration initial) {
-        Map<Configuration,Configuration> predecessors = new HashMap<>();
-        Queue<Configuration> queue = new LinkedList<>();
-        queue.add(initial);
-        predecessors.put(initial, null);
-        Configuration current = null;
-        totalConfigs++;
-        uniqueConfigs++;
-        while(!queue.isEmpty()){
-            current = queue.remove();
-            if(current.isSolution()){
-                break;
+    private record Arrivals(int depth, List<Footprint> footprints) {
+        /**
+         * May a move be skipped because every shortest arrival commutes with it
+         * and comes later in move order, so the swapped ordering is generated instead?
+         *
+         * @param next footprint of the move to play next
+         * @return true if the move can be skipped
+         */
+        boolean sleeps(Footprint next) {
+            if(next == null || footprints.isEmpty()) {
+                return false;
             }
-            for(Configuration nbr : current.getNeighbors()){
+            for(Footprint arrival : footprints) {
+                if(arrival == null || !next.commutesWith(arrival) || next.move() > arrival.move()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The breadth first search the solvers share. It counts configurations, takes them from its
+     * queue until one is a solution and never queues a dead end; each solver decides how reached
+     * configurations are remembered and in what order the queue gives them back. Solvers that
+     * search a layer at a time call {@link #expand} on each configuration instead of {@link #run}.
+     *
+     * @param <T> a reached configuration, as the solver remembers it
+     */
+    public abstract static class Search<T> {
+        protected long totalConfigs;  // neighbors generated, and the start
+        protected long uniqueConfigs;  // configurations reached
+        protected long skippedConfigs;  // neighbors skipped without being generated
+
+        /**
+         * Create a search with nothing counted yet
+         */
+        protected Search() {
+            totalConfigs = 0;
+            uniqueConfigs = 0;
+            skippedConfigs = 0;
+        }
+
+        /**
+         * Queue an entry to be expanded
+         *
+         * @param entry the entry
+         */
+        protected abstract void add(T entry);
+
+        /**
+         * Take the next entry to expand from the queue
+         *
+         * @return the entry, or null if there is none
+         */
+        protected abstract T remove();
+
+        /**
+         * Get the configuration of an entry
+         *
+         * @param entry the entry
+         * @return its config
+         */
+        protected abstract Configuration config(T entry);
+
+        /**
+         * Remember a neighbor unless it was reached before
+         *
+         * @param nbr the neighbor
+         * @param from entry of the config it was generated from
+         * @return the neighbor's entry, or null if it was reached before
+         */
+        protected abstract T reach(Configuration nbr, T from);
+
+        /**
+         * Take note of another way to a neighbor that was reached before
+         *
+         * @param nbr the neighbor
+         * @param from entry of the config it was generated from
+         * @return a new entry to queue for the neighbor, or null to leave it as it is
+         */
+        protected T reachAgain(Configuration nbr, T from) {
+            return null;
+        }
+
+        /**
+         * May a neighbor be skipped without counting it as generated?
+         *
+         * @param nbr the neighbor
+         * @param from entry of the config it was generated from
+         * @return true to skip it
+         */
+        protected boolean skip(Configuration nbr, T from) {
+            return false;
+        }
+
+        /**
+         * Does the search end at an entry taken from the queue?
+         *
+         * @param entry the entry
+         * @param config its config
+         * @return true if it is a solution
+         */
+        protected boolean isGoal(T entry, Configuration config) {
+            return config.isSolution();
+        }
+
+        /**
+         * Get the neighbors of an entry about to be expanded
+         *
+         * @param entry the entry
+         * @param config its config
+         * @return the config's neighbors
+         */
+        protected Collection<Configuration> neighbors(T entry, Configuration config) {
+            return config.getNeighbors();
+        }
+
+        /**
+         * Count the start and queue it
+         *
+         * @param start entry of the starting config
+         */
+        public void start(T start) {
+            totalConfigs++;
+            reached(start, config(start).isDeadEnd());
+        }
+
+        /**
+         * Count a newly reached configuration and queue it
+         *
+         * @param entry its entry
+         * @param deadEnd true if it can never lead to a solution
+         */
+        public void reached(T entry, boolean deadEnd) {
+            uniqueConfigs++;
+            queue(entry, deadEnd);
+        }
+
+        /**
+         * Generate the neighbors of an entry, counting and queueing those not reached before
+         *
+         * @param current the entry
+         * @param config its config
+         */
+        public void expand(T current, Configuration config) {
+            for(Configuration nbr : neighbors(current, config)) {
+                if(skip(nbr, current)) {
+                    skippedConfigs++;
+                    continue;
+                }
                 totalConfigs++;
-                if(!predecessors.containsKey(nbr)){
-                    predecessors.put(nbr, current);
-                    queue.add(nbr);
-                    uniqueConfigs++;
+                T entry = reach(nbr, current);
+                if(entry != null) {
+                    reached(entry, nbr.isDeadEnd());
+                } else {
+                    entry = reachAgain(nbr, current);
+                    if(entry != null) {
+                        queue(entry, nbr.isDeadEnd());
+                    }
+                }
+            }
+        }
+
+        /**
+         * Search from the start until a solution is taken from the queue or the queue is empty
+         *
+         * @param start entry of the starting config
+         * @return the last entry taken from the queue, the solution if there is one;
+         *         null if nothing was queued
+         */
+        public T run(T start) {
+            start(start);
+            T last = null;
+            for(T current; (current = remove()) != null; ) {
+                last = current;
+                Configuration config = config(current);
+                if(isGoal(current, config)) {
+                    break;
+                }
+                expand(current, config);
+            }
+            return last;
+        }
+
+        /**
+         * Queue an entry unless it is a dead end, whose subtree can never reach a solution
+         *
+         * @param entry the entry
+         * @param deadEnd true if it can never lead to a solution
+         */
+        private void queue(T entry, boolean deadEnd) {
+            if(!deadEnd) {
+                add(entry);
+            }
+        }
+
+        /**
+         * Gets total configs
+         *
+         * @return the start and every neighbor generated
+         */
+        public long getTotalConfigs() {
+            return totalConfigs;
+        }
+
+        /**
+         * Gets unique configs
+         *
+         * @return configs reached
+         */
+        public long getUniqueConfigs() {
+            return uniqueConfigs;
+        }
+
+        /**
+         * Gets skipped configs
+         *
+         * @return neighbors skipped
+         */
+        public long getSkippedConfigs() {
+            return skippedConfigs;
+        }
+    }
+
+    /**
+     * The plain search: configs are queued first in, first out and remembered with the config
+     * they were first reached from. When reducing transpositions, each queued config also keeps
+     * the moves it was reached by along shortest paths.
+     */
+    private final class BreadthFirstSearch extends Search<Configuration> {
+        private final Map<Configuration,Configuration> predecessors;  // config each was first reached from
+        private final Map<Configuration,Arrivals> arrivals;  // only used when reducing transpositions
+        private final Queue<Configuration> queue;  // configs to expand
+        private Arrivals arrived;  // how the config being expanded was reached, null if not reducing
+
+        /**
+         * Create the search
+         */
+        private BreadthFirstSearch() {
+            predecessors = new HashMap<>();
+            arrivals = new HashMap<>();
+            queue = new LinkedList<>();
+        }
+
+        /**
+         * Queue a config, with the move it was reached by when reducing
+         *
+         * @param config the config
+         */
+        @Override
+        protected void add(Configuration config) {
+            queue.add(config);
+            if(reduceTranspositions) {
+                List<Footprint> footprints = new ArrayList<>(1);
+                if(arrived != null) {
+                    footprints.add(config.getFootprint());
                 }
+                arrivals.put(config, new Arrivals(arrived == null ? 0 : arrived.depth() + 1, footprints));
             }
         }
+
+        /**
+         * Take the next config and how it was reached
+         *
+         * @return the config, or null if there is none
+         */
+        @Override
+        protected Configuration remove() {
+            Configuration current = queue.poll();
+            arrived = arrivals.remove(current);
+            return current;
+        }
+
+        /**
+         * A config is its own entry
+         *
+         * @param config the config
+         * @return the config
+         */
+        @Override
+        protected Configuration config(Configuration config) {
+            return config;
+        }
+
+        /**
+         * Remember the config a neighbor was first reached from
+         *
+         * @param nbr the neighbor
+         * @param from config it was generated from, null for the start
+         * @return the neighbor, or null if it was reached before
+         */
+        @Override
+        protected Configuration reach(Configuration nbr, Configuration from) {
+            if(predecessors.containsKey(nbr)) {
+                return null;
+            }
+            predecessors.put(nbr, from);
+            return nbr;
+        }
+
+        /**
+         * Another shortest arrival wakes up more moves
+         *
+         * @param nbr the neighbor
+         * @param from config it was generated from
+         * @return null, the neighbor is queued already
+         */
+        @Override
+        protected Configuration reachAgain(Configuration nbr, Configuration from) {
+            if(arrived != null) {
+                Arrivals other = arrivals.get(nbr);
+                if(other != null && other.depth() == arrived.depth() + 1) {
+                    other.footprints().add(nbr.getFootprint());
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Skip a move when every shortest arrival commutes with it and comes later in move order
+         *
+         * @param nbr the neighbor
+         * @param from config it was generated from
+         * @return true to skip it
+         */
+        @Override
+        protected boolean skip(Configuration nbr, Configuration from) {
+            return arrived != null && arrived.sleeps(nbr.getFootprint());
+        }
+    }
+
+    /**
+     * Solves puzzle starting with initial config using Breadth First Search
+     *
+     * @param initial starting config
+     * @return list of configs from start to solution
+     */
+    public List<Configuration> solve(Configuration initial) {
+        BreadthFirstSearch search = new BreadthFirstSearch();
+        Configuration current = search.run(search.reach(initial, null));
+        count(search);
         List<Configuration> path = new LinkedList<>();
         while(current != null){
             path.addFirst(current);
-            current = predecessors.get(current);
+            current = search.predecessors.get(current);
         }
         return path;
     }
 
+    /**
+     * Add the counts of a search to this solver's, at most the largest int
+     *
+     * @param search the search
+     */
+    protected void count(Search<?> search) {
+        totalConfigs = saturate(totalConfigs + search.getTotalConfigs());
+        uniqueConfigs = saturate(uniqueConfigs + search.getUniqueConfigs());
+        skippedConfigs = saturate(skippedConfigs + search.getSkippedConfigs());
+    }
+
+    /**
+     * Fit a count in an int
+     *
+     * @param count the count
+     * @return the count, or the largest int if it is larger
+     */
+    protected static int saturate(long count) {
+        return (int) Math.min(Integer.MAX_VALUE, count);
+    }
 
     /**
      * Gets total configs
@@ -71,4 +426,13 @@ public class Solver {
     public int getUniqueConfigs() {
         return uniqueConfigs;
     }
+
+    /**
+     * Gets neighbors skipped as transpositions of commuting moves
+     *
+     * @return number of skipped configs
+     */
+    public int getSkippedConfigs() {
+        return skippedConfigs;
+    }
 }
@@ -0,0 +1,170 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * A solver that finds the path of least total {@link Configuration#getMoveCost() move cost}
+ * with Dijkstra's algorithm. Costs are small positive integers, so the priority queue is a
+ * monotone bucket queue: one FIFO bucket per total cost, emptied in increasing order, with no
+ * log factor per operation. With unit costs the buckets are the breadth first layers and the
+ * search, counts and path are the same as the regular solver's.
+ *
+ * @author Quang Huynh (qth9368)
+ */
+public class WeightedSolver extends Solver {
+    private int pathCost;  // total cost of the last path found
+
+    /**
+     * What is known about a reached configuration; it is also the queue entry, so a pop
+     * needs no lookup to tell whether a cheaper route was found since it was queued
+     */
+    private static final class Visit {
+        private final Configuration config;  // the config
+        private final Visit predecessor;  // visit it is cheapest to reach it from
+        private final int cost;  // total cost from the start
+        private boolean superseded;  // a cheaper route was found after this one
+
+        /**
+         * Record a route to a config
+         *
+         * @param config the config
+         * @param predecessor visit of the config it was reached from
+         * @param cost total cost from the start
+         */
+        private Visit(Configuration config, Visit predecessor, int cost) {
+            this.config = config;
+            this.predecessor = predecessor;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * The search with visits queued by total cost, taken from the cheapest bucket first.
+     * A config reached more cheaply is queued again and its earlier visit skipped when taken.
+     */
+    private static final class WeightedSearch extends Search<Visit> {
+        private final Map<Configuration,Visit> visits;  // cheapest known visit of each reached config
+        private final List<ArrayDeque<Visit>> buckets;  // visits by total cost
+        private int cost;  // total cost of the bucket being emptied
+        private int queued;  // visits in the buckets
+
+        /**
+         * Create the search
+         */
+        private WeightedSearch() {
+            visits = new HashMap<>();
+            buckets = new ArrayList<>();
+        }
+
+        /**
+         * Queue a visit in the bucket of its total cost
+         *
+         * @param visit the visit
+         */
+        @Override
+        protected void add(Visit visit) {
+            while(buckets.size() <= visit.cost) {
+                buckets.add(new ArrayDeque<>());
+            }
+            buckets.get(visit.cost).add(visit);
+            queued++;
+        }
+
+        /**
+         * Take the cheapest visit no cheaper route was found for since it was queued
+         *
+         * @return the visit, or null if there is none
+         */
+        @Override
+        protected Visit remove() {
+            while(queued > 0) {
+                ArrayDeque<Visit> bucket = buckets.get(cost);
+                while(!bucket.isEmpty()) {
+                    Visit visit = bucket.remove();
+                    queued--;
+                    if(!visit.superseded) {  // else stale, a cheaper route was found
+                        return visit;
+                    }
+                }
+                buckets.set(cost++, null);  // never used again
+            }
+            return null;
+        }
+
+        /**
+         * Get the config of a visit
+         *
+         * @param visit the visit
+         * @return its config
+         */
+        @Override
+        protected Configuration config(Visit visit) {
+            return visit.config;
+        }
+
+        /**
+         * Record the first route to a neighbor
+         *
+         * @param nbr the neighbor
+         * @param from visit of the config it was generated from, null for the start
+         * @return the neighbor's visit, or null if it was reached before
+         */
+        @Override
+        protected Visit reach(Configuration nbr, Visit from) {
+            if(visits.containsKey(nbr)) {
+                return null;
+            }
+            Visit next = new Visit(nbr, from, from == null ? 0 : from.cost + nbr.getMoveCost());
+            visits.put(nbr, next);
+            return next;
+        }
+
+        /**
+         * Record a route to a neighbor reached before, if it is cheaper
+         *
+         * @param nbr the neighbor
+         * @param from visit of the config it was generated from
+         * @return the neighbor's new visit, or null if the route is no cheaper
+         */
+        @Override
+        protected Visit reachAgain(Configuration nbr, Visit from) {
+            int nbrCost = from.cost + nbr.getMoveCost();
+            Visit known = visits.get(nbr);
+            if(known.cost <= nbrCost) {
+                return null;
+            }
+            known.superseded = true;
+            Visit next = new Visit(nbr, from, nbrCost);
+            visits.put(nbr, next);
+            return next;
+        }
+    }
+
+    /**
+     * Solves puzzle starting with initial config using Dijkstra's algorithm
+     *
+     * @param initial starting config
+     * @return list of configs from start to the cheapest solution
+     */
+    @Override
+    public List<Configuration> solve(Configuration initial) {
+        WeightedSearch search = new WeightedSearch();
+        Visit current = search.run(search.reach(initial, null));
+        count(search);
+        List<Configuration> path = new LinkedList<>();
+        pathCost = current == null ? 0 : current.cost;
+        for(Visit visit = current; visit != null; visit = visit.predecessor) {
+            path.addFirst(visit.config);
+        }
+        return path;
+    }
+
+    /**
+     * Gets the total move cost of the last path found
+     *
+     * @return sum of the move costs along the path
+     */
+    public int getPathCost() {
+        return pathCost;
+    }
+}
@@ -1,9 +1,15 @@
 package puzzles.dice;
 
+import puzzles.common.service.PartitionedSolver;
+import puzzles.common.solver.CheckpointSolver;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.FrontierSolver;
+import puzzles.common.solver.OffHeapSolver;
+import puzzles.common.solver.RankedSolver;
 import puzzles.common.solver.Solver;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -17,19 +23,35 @@ public class Dice {
     /**
      * Main method used to call common solver and display solution and steps to output
      *
-     * @param args command line argument (expect for file)
+     * @param args command line argument (expect start, end and dice, optionally followed by --frontier, --offheap, --ranked, --checkpoint file or --workers n)
      * @throws IOException if file not found
      */
     public static void main(String[] args) throws IOException {
+        boolean frontier = args.length > 0 && args[args.length - 1].equals("--frontier");  // keep only three layers
+        boolean offHeap = args.length > 0 && args[args.length - 1].equals("--offheap");  // visited set off the heap
+        boolean ranked = args.length > 0 && args[args.length - 1].equals("--ranked");  // a bit and a byte per roll
+        if(frontier || offHeap || ranked) {
+            args = Arrays.copyOf(args, args.length - 1);
+        }
+        String checkpoint = null;  // search kept in a file that a later run resumes
+        if(args.length > 1 && args[args.length - 2].equals("--checkpoint")) {
+            checkpoint = args[args.length - 1];
+            args = Arrays.copyOf(args, args.length - 2);
+        }
+        int workers = 0;  // rolls split across this many worker processes
+        if(args.length > 1 && args[args.length - 2].equals("--workers")) {
+            workers = Integer.parseInt(args[args.length - 1]);
+            args = Arrays.copyOf(args, args.length - 2);
+        }
         if (args.length < 3) {
-            System.out.println("Usage: java Dice start end die1 die2...");
+            System.out.println("Usage: java Dice start end die1 die2... [--frontier|--offheap|--ranked|--checkpoint file|--workers n]");
         } else {
             String start = args[0];
             String end = args[1];
             List<Integer> numFaces = new ArrayList<>();
             List<Die> dice = new ArrayList<>();  // store dice
             for(int i = 2; i < args.length; i++) {   // Create die objects
-                Die die = new Die(args[i]);
+                Die die = Die.load(args[i]);
                 dice.add(die);
                 int faces = Integer.parseInt(args[i]);
                 numFaces.add(faces);
@@ -52,9 +74,59 @@ public class Dice {
             System.out.println("Start: " + start + ", End: " + end);
             DiceConfig initialConfig = new DiceConfig(dice, start, end);  // initial dice config
             Solver solver = new Solver();  // instantiate solver
+            if(frontier) {  // no path is longer than the number of rolls
+                int rolls = 1;
+                for(Die die : dice) {
+                    rolls = (int) Math.min(Integer.MAX_VALUE, (long) rolls * die.getNumFaces());
+                }
+                solver = new FrontierSolver(rolls);
+            }
+            if(offHeap) {
+                solver = new OffHeapSolver();
+            }
+            if(ranked) {
+                if(initialConfig.getSpaceSize() > RankedSolver.MAX_SPACE) {  // ranks can't all be held
+                    System.out.println("Usage: --ranked needs at most " + RankedSolver.MAX_SPACE + " configs, these dice have " + initialConfig.getSpaceSize());
+                    return;
+                }
+                if(!initialConfig.isRoll(start) || !initialConfig.isRoll(end)) {  // a face off its die has no rank
+                    System.out.println("Usage: --ranked needs start and end rolls with one face of each die");
+                    return;
+                }
+                solver = new RankedSolver();
+            }
+            if(checkpoint != null) {
+                solver = new CheckpointSolver(Path.of(checkpoint));
+            }
+            if(workers > 0) {
+                solver = new PartitionedSolver("dice\n" + start + " " + end + " " + String.join(" ", Arrays.copyOfRange(args, 2, args.length)), workers);
+            }
             List<Configuration> solution = solver.solve(initialConfig);
-            System.out.println("Total configs: " + solver.getTotalConfigs());
-            System.out.println("Unique configs: " + solver.getUniqueConfigs());
+            if(solver instanceof PartitionedSolver partitionedSolver) {  // counts can pass the int range of the other solvers
+                System.out.println("Total configs: " + partitionedSolver.getTotalCount());
+                System.out.println("Unique configs: " + partitionedSolver.getUniqueCount());
+            } else {
+                System.out.println("Total configs: " + solver.getTotalConfigs());
+                System.out.println("Unique configs: " + solver.getUniqueConfigs());
+            }
+            if(solver instanceof FrontierSolver frontierSolver) {
+                System.out.println("Peak configs in memory: " + frontierSolver.getPeakConfigs());
+            }
+            if(solver instanceof OffHeapSolver offHeapSolver) {
+                System.out.println("Off-heap bytes: " + offHeapSolver.getOffHeapBytes());
+            }
+            if(solver instanceof RankedSolver rankedSolver) {
+                System.out.println("Ranked table bytes: " + rankedSolver.getTableBytes());
+            }
+            if(solver instanceof PartitionedSolver partitionedSolver) {
+                System.out.println("Workers: " + partitionedSolver.getWorkers() + ", layers: " + partitionedSolver.getLayers());
+                System.out.println("Routed configs: " + partitionedSolver.getRoutedConfigs());
+                System.out.println("Worker off-heap bytes: " + partitionedSolver.getWorkerBytes());
+            }
+            if(solver instanceof CheckpointSolver checkpointSolver) {
+                System.out.println("Resumed layers: " + checkpointSolver.getResumedLayers());
+                System.out.println("Checkpoint bytes: " + checkpointSolver.getCheckpointBytes());
+            }
             if(solution != null && !solution.isEmpty()) {  // print steps
                 for(int stepNum = 0; stepNum < solution.size(); stepNum++) {
                     System.out.println("Step " + stepNum + ": " + solution.get(stepNum));
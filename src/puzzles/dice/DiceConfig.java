@@ -1,7 +1,10 @@
 package puzzles.dice;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.EncodableConfiguration;
+import puzzles.common.solver.RankableConfiguration;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -10,8 +13,8 @@ import java.util.*;
  * @author RIT CS
  * @author Quang Huynh (qth9368)
  */
-public class DiceConfig implements Configuration {
-    private static List<Die> dice;  // dice faces
+public class DiceConfig implements RankableConfiguration, EncodableConfiguration {
+    private final List<Die> dice;  // dice faces, shared by every config of a puzzle
     private final String current;  // current roll
     private final String end;  // end roll
 
@@ -23,7 +26,7 @@ public class DiceConfig implements Configuration {
      * @param end destination position
      */
     public DiceConfig(List<Die> dice, String current, String end) {
-        this.dice = dice;
+        this.dice = List.copyOf(dice);  // the same list when it is already a copy
         this.current = current;
         this.end = end;
     }
@@ -58,6 +61,83 @@ public class DiceConfig implements Configuration {
         return neighbors;
     }
 
+    /**
+     * Gets the number of possible rolls
+     *
+     * @return product of the number of faces of the dice, saturated at Long.MAX_VALUE
+     */
+    @Override
+    public long getSpaceSize() {
+        long size = 1;
+        for(Die die : dice) {
+            if(size > Long.MAX_VALUE / die.getNumFaces()) {
+                return Long.MAX_VALUE;
+            }
+            size *= die.getNumFaces();
+        }
+        return size;
+    }
+
+    /**
+     * Checks a roll has one face of each die, so a config with it has a rank
+     *
+     * @param roll a roll
+     * @return true if it has a character per die and each is a face of its die
+     */
+    public boolean isRoll(String roll) {
+        if(roll.length() != dice.size()) {
+            return false;
+        }
+        for(int i = 0; i < roll.length(); i++) {
+            if(dice.get(i).getFaceIndex(roll.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ranks the roll as a mixed radix number, one digit per die, the first die most significant
+     *
+     * @return the rank
+     */
+    @Override
+    public long rank() {
+        long rank = 0;
+        for(int i = 0; i < current.length(); i++) {
+            rank = rank * dice.get(i).getNumFaces() + dice.get(i).getFaceIndex(current.charAt(i));
+        }
+        return rank;
+    }
+
+    /**
+     * Gets the roll with a given rank
+     *
+     * @param rank the rank
+     * @return the config
+     */
+    @Override
+    public RankableConfiguration unrank(long rank) {
+        char[] faces = new char[dice.size()];
+        for(int i = faces.length - 1; i >= 0; i--) {  // least significant digit last
+            int numFaces = dice.get(i).getNumFaces();
+            faces[i] = dice.get(i).getFace((int) (rank % numFaces));
+            rank /= numFaces;
+        }
+        return new DiceConfig(dice, new String(faces), end);
+    }
+
+    /**
+     * Gets the roll with a given encoding, toward the same end roll
+     *
+     * @param bytes the bytes of the roll, as made by encode
+     * @return the config
+     */
+    @Override
+    public EncodableConfiguration decode(byte[] bytes) {
+        return new DiceConfig(dice, new String(bytes, StandardCharsets.UTF_8), end);
+    }
+
     /**
      * Checks if another object is equal to this config
      *
@@ -69,7 +149,7 @@ public class DiceConfig implements Configuration {
         boolean result = false;
         if(other instanceof DiceConfig) {
             DiceConfig otherDice = (DiceConfig) other;
-            result = dice == otherDice.dice && Objects.equals(current, otherDice.current);
+            result = dice.equals(otherDice.dice) && Objects.equals(current, otherDice.current);
         }
         return result;
     }
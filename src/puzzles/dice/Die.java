@@ -1,7 +1,11 @@
 package puzzles.dice;
 
+import puzzles.common.io.ByteScanner;
+
 import java.io.*;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Die class that stores filename, faces and neighbors
@@ -9,9 +13,11 @@ import java.util.*;
  * @author Quang Huynh
  */
 public class Die {
+    private static final Map<String, Die> LOADED = new ConcurrentHashMap<>();  // dice read so far, by file number
     private String fileName;  // dice file name
     private int numFaces; // number of faces a die has
     private LinkedHashMap<Character, List<Character>> neighbors; // face and its neighbors
+    private List<Character> faces; // faces in file order
 
     /**
      * Read in die information
@@ -22,21 +28,39 @@ public class Die {
     public Die(String fileName) throws IOException {
         this.fileName = "die-" + fileName + ".txt";  // file name
         this.neighbors = new LinkedHashMap<>();
-        try(BufferedReader in = new BufferedReader(new FileReader(this.fileName))) {
-            String line = in.readLine();
-            this.numFaces = Integer.parseInt(line);
-            while((line = in.readLine()) != null) {  // when line is not empty
-                String[] parts = line.split(" ");
-                if(parts.length > 1) {
-                    char face = parts[0].charAt(0);
-                    List<Character> faceNeighbors = new ArrayList<>();
-                    for(int row = 1; row < parts.length; row++) {
-                        faceNeighbors.add(parts[row].charAt(0));
-                    }
-                    this.neighbors.put(face, faceNeighbors);
-                }
+        ByteScanner in = ByteScanner.open(Path.of(this.fileName));
+        this.numFaces = in.nextInt();
+        in.nextLine();
+        while(in.hasNext()) {  // a face, then its neighbors on the same line
+            char face = in.nextChar();
+            List<Character> faceNeighbors = new ArrayList<>();
+            while(!in.atLineEnd()) {
+                faceNeighbors.add(in.nextChar());
+            }
+            if(!faceNeighbors.isEmpty()) {
+                this.neighbors.put(face, faceNeighbors);
+            }
+        }
+        this.faces = new ArrayList<>(this.neighbors.keySet());
+    }
+
+    /**
+     * Get a die, reading its file only the first time it is asked for
+     *
+     * @param fileName number of die file
+     * @return the die
+     * @throws IOException thrown if there is a problem opening or reading the file
+     */
+    public static Die load(String fileName) throws IOException {
+        Die die = LOADED.get(fileName);
+        if(die == null) {
+            die = new Die(fileName);
+            Die loaded = LOADED.putIfAbsent(fileName, die);
+            if(loaded != null) {
+                die = loaded;
             }
         }
+        return die;
     }
 
     /**
@@ -67,6 +91,26 @@ public class Die {
         return this.neighbors.get(face);
     }
 
+    /**
+     * Get the position of a face in the die file
+     *
+     * @param face the die face
+     * @return index of the face, from 0, or -1 if the die has no such face
+     */
+    public int getFaceIndex(char face) {
+        return this.faces.indexOf(face);
+    }
+
+    /**
+     * Get the face at a position in the die file
+     *
+     * @param index index of the face, from 0
+     * @return the die face
+     */
+    public char getFace(int index) {
+        return this.faces.get(index);
+    }
+
     /**
      * Face and neighbors of die
      *
@@ -1,7 +1,6 @@
 package puzzles.hoppers.gui;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -10,8 +9,11 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.stage.FileChooser;
 import puzzles.astro.model.AstroModel;
+import puzzles.common.BoardEvent;
 import puzzles.common.Coordinates;
 import puzzles.common.Observer;
+import puzzles.common.gui.BoardCanvas;
+import puzzles.common.gui.PlaybackControls;
 import puzzles.hoppers.model.HoppersConfig;
 import puzzles.hoppers.model.HoppersModel;
 
@@ -21,6 +23,7 @@ import javafx.stage.Stage;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -35,11 +38,14 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
     private String filename; //the file used for the current gui display
     private HoppersModel model; //the model of the MVC
     private FileChooser fileChooser; //a file chooser to allow file change
-    private Label selectedLabel_1; //the first label selected
     private Coordinates selectedLabel_1_Coordinate; //the first label's coordinate
-    private Label selectedLabel_2; //the second label selected
     private Coordinates selectedLabel_2_Coordinate; //the second label's coordinate
     private boolean validFirstSelect; //keep track if first select is valid
+    private BoardCanvas canvas; //board drawn on one canvas, null when drawn as tiles
+    private Label[][] tiles; //one tile per cell, built once per board size
+    private ImageView[][] views; //graphic of each tile, reused by every update
+    private Label selectedTile; //the tile marked as selected
+    private PlaybackControls playback; //solve and play back controls
 
     /** The resources directory is located directly underneath the gui package */
     private final static String RESOURCES_DIR = "resources/";
@@ -53,6 +59,12 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
 
     /** The size of all icons, in square dimension */
     private final static int ICON_SIZE = 75;
+    /** Boards with more cells than this are drawn on a canvas instead of as tiles */
+    private final static int LARGE_BOARD_CELLS = 2500;
+    /** Largest width of the board on a canvas, in pixels */
+    private final static int VIEW_WIDTH = 900;
+    /** Largest height of the board on a canvas, in pixels */
+    private final static int VIEW_HEIGHT = 700;
 
     /**
      * the optional initialize method, in this case, it is used to initialize internal fields
@@ -63,6 +75,7 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
         filename = getParameters().getRaw().get(0); //getting the file name
         model = new HoppersModel(filename); //initializing new model
         model.addObserver(this); //register this view as an observer of model
+        model.addEventObserver(this::apply); //and of its board changes
         fileChooser = new FileChooser(); //a file chooser to be initialized
         this.fileChooser.setTitle("Open Hoppers File");
         this.fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text Files","*.txt"));
@@ -83,21 +96,17 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
         BorderPane main = new BorderPane(); // main borderpane for other panes
         status = new Label("");  // initialize the game status
         //the center grid
-        game = new GridPane();
-        game.setPadding(new Insets(10, 10, 10, 10));
-        for(int row = 0; row < model.getTotalRow(); row++) {
-            for(int col = 0; col < model.getTotalCol(); col++) {
-                int r = row;
-                int c = col;
-                Label tile = new Label("");
-                tile.setMinSize(ICON_SIZE, ICON_SIZE);
-                tile.setAlignment(Pos.CENTER);
-                tile.setBackground(background);
-                tile.setOnMouseClicked(e -> select(tile, r, c));
-                GridPane.setRowIndex(tile, row);
-                GridPane.setColumnIndex(tile, col);
-                game.getChildren().add(tile);
-            }
+        if (getParameters().getRaw().contains("--canvas") || model.getTotalRow() * model.getTotalCol() > LARGE_BOARD_CELLS) {
+            canvas = new BoardCanvas((row, col) -> model.getCellValue(new Coordinates(row, col)),
+                    (piece, size) -> spriteFor(piece) == null ? null : getResourceIMG(spriteFor(piece), size),
+                    size -> getResourceIMG("water.png", size), ICON_SIZE);
+            canvas.setOnCellClicked(coordinates -> select(coordinates.row(), coordinates.col()));
+            canvas.setBoard(model.getTotalRow(), model.getTotalCol(), VIEW_WIDTH, VIEW_HEIGHT);
+        } else {
+            game = new GridPane();
+            game.setPadding(new Insets(10, 10, 10, 10));
+            buildTiles(model.getTotalRow(), model.getTotalCol());
+            repaintAll();
         }
 
         //all the buttons at the bottom of the GUI
@@ -111,6 +120,9 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
         reset.setStyle("-fx-font-size:18");
         hint.setStyle("-fx-font-size:18");
         fp.getChildren().addAll(load, reset, hint);
+        playback = new PlaybackControls(() -> model.pathSearch(HoppersModel.PLAYBACK_BUDGET_MILLIS),
+                model::startPlayback, model::playbackTo);
+        VBox bottom = new VBox(fp, playback);
 
         //the controller of MVC
         load.setOnAction(e -> {
@@ -132,9 +144,9 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
         top.setAlignment(Pos.CENTER);
 
         //adding to the main pane
-        main.setCenter(game);
+        main.setCenter(canvas != null ? canvas : game);
         main.setTop(top);
-        main.setBottom(fp);
+        main.setBottom(bottom);
 
 
         //setting up the scene
@@ -157,66 +169,143 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
      */
     @Override
     public void update(HoppersModel hoppersModel, String msg) {
-        game.getChildren().clear();
+        status.setText(msg);
+    }
+
+    /**
+     * Applies the board changes of one model operation, repainting only the tiles of changed cells
+     *
+     * @param hoppersModel - the model that changed
+     * @param events - the changes, in order
+     */
+    private void apply(HoppersModel hoppersModel, List<BoardEvent> events) {
+        for (BoardEvent event : events) {
+            if (event instanceof BoardEvent.Loaded) {
+                playback.reset(); //a new board, so the path played back is gone
+            }
+            switch (event) {
+                case BoardEvent.Loaded loaded when canvas != null -> {
+                    canvas.setBoard(loaded.rows(), loaded.cols(), VIEW_WIDTH, VIEW_HEIGHT);
+                    stage.sizeToScene();
+                }
+                case BoardEvent.CellChanged changed when canvas != null -> canvas.markDirty(changed.coordinates());
+                case BoardEvent.Selected selected when canvas != null -> canvas.setSelected(selected.coordinates());
+                case BoardEvent.Loaded loaded -> {
+                    if (tiles.length != loaded.rows() || tiles[0].length != loaded.cols()) {
+                        buildTiles(loaded.rows(), loaded.cols()); //the layout only changes with the board size
+                    }
+                    repaintAll();
+                }
+                case BoardEvent.CellChanged changed ->
+                        views[changed.coordinates().row()][changed.coordinates().col()].setImage(imageFor(changed.piece()));
+                case BoardEvent.Selected selected -> markSelected(selected.coordinates());
+                default -> {
+                }
+            }
+        }
+    }
 
-        //updating the grid
-        for(int row = 0; row < hoppersModel.getTotalRow(); row++) {
-            for(int col = 0; col < hoppersModel.getTotalCol(); col++) {
+    /**
+     * Builds a tile with an empty graphic for every cell, replacing the old tiles
+     *
+     * @param rows - rows of the board
+     * @param cols - columns of the board
+     */
+    private void buildTiles(int rows, int cols) {
+        game.getChildren().clear();
+        tiles = new Label[rows][cols];
+        views = new ImageView[rows][cols];
+        selectedTile = null;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
                 Label tile = new Label("");
                 tile.setMinSize(ICON_SIZE, ICON_SIZE);
                 tile.setAlignment(Pos.CENTER);
                 tile.setBackground(background);
+                ImageView view = new ImageView();
+                tile.setGraphic(view);
                 int r = row;
                 int c = col;
-                tile.setOnMouseClicked(e -> select(tile, r, c));
-                GridPane.setRowIndex(tile, row);
-                GridPane.setColumnIndex(tile, col);
-                game.getChildren().add(tile);
+                tile.setOnMouseClicked(e -> select(r, c));
+                game.add(tile, col, row);
+                tiles[row][col] = tile;
+                views[row][col] = view;
             }
         }
+        if (stage != null) {
+            stage.sizeToScene();
+        }
+    }
 
-        /** Updating cell tiles */
-        for(Node child : game.getChildren()) {
-            if(child instanceof Label label) {
-                int row = GridPane.getRowIndex(label);
-                int col = GridPane.getColumnIndex(label);
-                Coordinates coordinates = new Coordinates(row, col);
-                char value = hoppersModel.getCellValue(coordinates);
-                switch(value) {
-                    case '.' -> label.setGraphic(new ImageView(lilyPad));
-                    case 'R' -> label.setGraphic(new ImageView(redFrog));
-                    case 'G' -> label.setGraphic(new ImageView(greenFrog));
-                }
+    /**
+     * Repaints every tile from the model, after a new board is loaded
+     */
+    private void repaintAll() {
+        for (int row = 0; row < tiles.length; row++) {
+            for (int col = 0; col < tiles[row].length; col++) {
+                views[row][col].setImage(imageFor(model.getCellValue(new Coordinates(row, col))));
             }
-            status.setText(msg);
-            stage.sizeToScene();
         }
     }
 
     /**
-     * A select method used to keep track of the cell selected
+     * Marks the selected tile with a border, removing it from the one selected before
      *
-     * @param clicked - the label that has been interacted with
-     * @param row - the row of that label
-     * @param col - the col of that label
+     * @param coordinates - selected cell, null if nothing is selected
      */
-    private void select(Label clicked, int row, int col) {
-        if(selectedLabel_1 != null) {
-            selectedLabel_1.setStyle("-fx-border-width: 0;");
-        }
-        if(selectedLabel_1 == null && selectedLabel_1_Coordinate == null){
-            selectedLabel_1 = clicked; //first select
-            selectedLabel_1_Coordinate = new Coordinates(row, col);
-            validFirstSelect = model.select(selectedLabel_1_Coordinate);
+    private void markSelected(Coordinates coordinates) {
+        if (selectedTile != null) {
+            selectedTile.setStyle("-fx-border-width: 0;");
         }
-        if(!validFirstSelect){ //reset if first select is invalid
-            selectedLabel_1 = null;
-            selectedLabel_1_Coordinate = null;
+        selectedTile = coordinates == null ? null : tiles[coordinates.row()][coordinates.col()];
+        if (selectedTile != null) {
+            selectedTile.setStyle("-fx-border-color: red; -fx-border-width: 2px;");
         }
+    }
+
+    /**
+     * Returns the image of a cell's content
+     *
+     * @param value - content of the cell
+     * @return the image, null for water
+     */
+    private Image imageFor(char value) {
+        return switch (value) {
+            case '.' -> lilyPad;
+            case 'R' -> redFrog;
+            case 'G' -> greenFrog;
+            default -> null;
+        };
+    }
+
+    /**
+     * Returns the resource file of a cell's content, for images loaded at another size
+     *
+     * @param value - content of the cell
+     * @return the file name, null for water
+     */
+    private static String spriteFor(char value) {
+        return switch (value) {
+            case '.' -> "lily_pad.png";
+            case 'R' -> "red_frog.png";
+            case 'G' -> "green_frog.png";
+            default -> null;
+        };
+    }
 
-        if(validFirstSelect && !clicked.equals(selectedLabel_1) && !new Coordinates(row, col).equals(selectedLabel_1_Coordinate)){ //second select
-            selectedLabel_2 = clicked;
-            selectedLabel_2_Coordinate = new Coordinates(row, col);
+    /**
+     * A select method used to keep track of the cell selected
+     *
+     * @param row - the row of that cell
+     * @param col - the col of that cell
+     */
+    private void select(int row, int col) {
+        Coordinates clicked = new Coordinates(row, col);
+        if(selectedLabel_1_Coordinate == null){ //first select
+            validFirstSelect = model.select(clicked);
+            selectedLabel_1_Coordinate = validFirstSelect ? clicked : null; //reset if first select is invalid
+        }else if(!clicked.equals(selectedLabel_1_Coordinate)){ //second select
+            selectedLabel_2_Coordinate = clicked;
             moveIt();
         }
     }
@@ -227,9 +316,7 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
     private void moveIt(){
         model.move(selectedLabel_1_Coordinate, selectedLabel_2_Coordinate);  // notify observer & select
         //resetting the select
-        selectedLabel_1 = null;
         selectedLabel_1_Coordinate = null;
-        selectedLabel_2 = null;
         selectedLabel_2_Coordinate = null;
         validFirstSelect = false;
     }
@@ -244,14 +331,26 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
         return new Image(Objects.requireNonNull(getClass().getResourceAsStream(RESOURCES_DIR + resource)));
     }
 
+    /**
+     * Gets resource images scaled to fit a square
+     *
+     * @param resource - resource file
+     * @param size - width and height of the square, in pixels
+     * @return the image
+     */
+    public Image getResourceIMG(String resource, int size) {
+        return new Image(Objects.requireNonNull(getClass().getResourceAsStream(RESOURCES_DIR + resource)),
+                size, size, true, true);
+    }
+
     /**
      * the main method of the GUI, it launches the GUI
      *
-     * @param args - commandline input (expect a file input)
+     * @param args - commandline input (expect a file input, optionally followed by --canvas)
      */
     public static void main(String[] args) {
-        if (args.length != 1) {
-            System.out.println("Usage: java HoppersPTUI filename");
+        if (args.length < 1 || args.length > 2 || (args.length == 2 && !args[1].equals("--canvas"))) {
+            System.out.println("Usage: java HoppersGUI filename [--canvas]");
         } else {
             Application.launch(args);
         }
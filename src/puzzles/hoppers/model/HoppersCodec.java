@@ -0,0 +1,152 @@
+package puzzles.hoppers.model;
+
+/**
+ * Ranks Hoppers boards densely. A board is the red frog's pad and the subset of the other
+ * pads holding green frogs; since every jump removes a green frog, boards are grouped in blocks
+ * by green frog count, and within a block a board is ranked as its red pad followed by the
+ * combinatorial number system rank of its green subset. Every rank below the space size is a
+ * board, so a rank is a perfect hash into a flat array per green frog count.
+ *
+ * @author Kai Fan
+ */
+public final class HoppersCodec {
+    private final int pads; //number of lily pads
+    private final int maxGreens; //most green frogs on a board
+    private final long[][] binomial; //binomial[n][k] is n choose k, saturated at Long.MAX_VALUE
+    private final long[] blockStarts; //first rank of each green frog count, plus the space size
+
+    /**
+     * Creates the codec for a board shape
+     *
+     * @param pads      - number of lily pads
+     * @param maxGreens - most green frogs, the count on the starting board
+     */
+    public HoppersCodec(int pads, int maxGreens) {
+        this.pads = pads;
+        this.maxGreens = maxGreens;
+        binomial = new long[pads][maxGreens + 1];
+        for (int n = 0; n < pads; n++) {
+            binomial[n][0] = 1;
+            for (int k = 1; k <= maxGreens && k <= n; k++) {
+                binomial[n][k] = add(binomial[n - 1][k - 1], binomial[n - 1][k]);
+            }
+        }
+        blockStarts = new long[maxGreens + 2];
+        for (int g = 0; g <= maxGreens; g++) {
+            blockStarts[g + 1] = add(blockStarts[g], getBlockSize(g));
+        }
+    }
+
+    /**
+     * Returns the number of boards with a given number of green frogs
+     *
+     * @param greens - number of green frogs
+     * @return pads times (pads - 1 choose greens)
+     */
+    public long getBlockSize(int greens) {
+        long subsets = choose(pads - 1, greens);
+        return subsets > Long.MAX_VALUE / pads ? Long.MAX_VALUE : subsets * pads;
+    }
+
+    /**
+     * Returns the first rank of the boards with a given number of green frogs
+     *
+     * @param greens - number of green frogs
+     * @return the rank
+     */
+    public long getBlockStart(int greens) {
+        return blockStarts[greens];
+    }
+
+    /**
+     * Returns the first rank of each green frog count
+     *
+     * @return a copy of the block starts, one per green frog count from none up, then the space size
+     */
+    public long[] getBlockStarts() {
+        return blockStarts.clone();
+    }
+
+    /**
+     * Returns the number of boards with at most the starting number of green frogs
+     *
+     * @return the space size, Long.MAX_VALUE if it doesn't fit in a long
+     */
+    public long getSpaceSize() {
+        return blockStarts[maxGreens + 1];
+    }
+
+    /**
+     * Ranks a board
+     *
+     * @param cells - one cell per pad, in pad order: 'R', 'G' or '.'
+     * @return the rank
+     */
+    public long rank(char[] cells) {
+        int red = 0;
+        int greens = 0;
+        long subset = 0;
+        int position = 0; //position among the pads other than the red one
+        for (int pad = 0; pad < pads; pad++) {
+            if (cells[pad] == 'R') {
+                red = pad;
+                continue;
+            }
+            if (cells[pad] == 'G') {
+                greens++;
+                subset += choose(position, greens);
+            }
+            position++;
+        }
+        return blockStarts[greens] + red * choose(pads - 1, greens) + subset;
+    }
+
+    /**
+     * Fills the cells of the board with a given rank, in O(pads) once the block is found
+     *
+     * @param rank  - the rank
+     * @param cells - one cell per pad to fill, in pad order
+     */
+    public void unrank(long rank, char[] cells) {
+        int greens = 0;
+        while (rank >= blockStarts[greens + 1]) {
+            greens++;
+        }
+        long index = rank - blockStarts[greens];
+        long subsets = choose(pads - 1, greens);
+        int red = (int) (index / subsets);
+        long subset = index % subsets;
+        int k = greens;
+        for (int position = pads - 2; position >= 0; position--) { //largest position first
+            boolean green = k > 0 && choose(position, k) <= subset;
+            if (green) {
+                subset -= choose(position, k);
+                k--;
+            }
+            cells[position < red ? position : position + 1] = green ? 'G' : '.';
+        }
+        cells[red] = 'R';
+    }
+
+    /**
+     * Returns n choose k, zero when k is larger than n
+     *
+     * @param n - set size
+     * @param k - subset size
+     * @return the binomial coefficient
+     */
+    private long choose(int n, int k) {
+        return k > n ? 0 : binomial[n][k];
+    }
+
+    /**
+     * Adds two counts, saturating at Long.MAX_VALUE
+     *
+     * @param a - a count
+     * @param b - another count
+     * @return the sum
+     */
+    private static long add(long a, long b) {
+        return a > Long.MAX_VALUE - b ? Long.MAX_VALUE : a + b;
+    }
+}
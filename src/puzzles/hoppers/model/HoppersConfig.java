@@ -1,24 +1,45 @@
 package puzzles.hoppers.model;
 
 import puzzles.common.Coordinates;
+import puzzles.common.io.ByteScanner;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.EncodableConfiguration;
+import puzzles.common.solver.Footprint;
+import puzzles.common.solver.Move;
+import puzzles.common.solver.MutableConfiguration;
+import puzzles.common.solver.RankableConfiguration;
+import puzzles.common.solver.ReversibleConfiguration;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The configuration class for the board game Hoppers, used to work with common BFS solver
  *
  * @author Kai Fan
  */
-public class HoppersConfig implements Configuration {
+public class HoppersConfig implements MutableConfiguration, RankableConfiguration, EncodableConfiguration, ReversibleConfiguration {
     private char[][] board; //the board of the game
     public int row; //the number of row start from 1
     public int col; //the number of col start from 1
+    private Footprint footprint; //cells touched by the jump that produced this config
+    private static final int[][] DIAGONAL_JUMPS = {{-2, -2}, {-2, 2}, {2, -2}, {2, 2}}; //tried in this order
+    private static final int[][] LONG_JUMPS = {{-4, 0}, {4, 0}, {0, -4}, {0, 4}}; //tried in this order
+    private static final Map<Long, Move[]> MOVE_TABLES = new ConcurrentHashMap<>(); //move table of each board size
+    private static final Map<Long, HoppersCodec> CODECS = new ConcurrentHashMap<>(); //codec of each pad and green frog count
+    private Move[] moveTable; //one shared move per cell and jump, created on demand and shared by boards of this size
+    private int[] pads; //cell index of every lily pad, row by row, shared by copies
+    private HoppersCodec codec; //ranks boards of this shape, shared by copies
+    private boolean[] ownedRows; //rows no other config shares, so they can be written in place; null for none
 
     /**
      * the main constructor of the HoppersConfig
@@ -27,33 +48,131 @@ public class HoppersConfig implements Configuration {
      * @throws IOException - IOE
      */
     public HoppersConfig(String filename) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String[] dims = reader.readLine().split("\\s+");
-            row = Integer.parseInt(dims[0]);
-            col = Integer.parseInt(dims[1]);
-            board = new char[row][col];
-            //writing into the 2D array
-            for (int i = 0; i < row; i++) {
-                String[] aRow = reader.readLine().split("\\s+");
-                for (int j = 0; j < col; j++) {
-                    board[i][j] = aRow[j].charAt(0);
-                }
+        this(ByteScanner.open(Path.of(filename)));
+    }
+
+    /**
+     * the constructor reading the text of a Hoppers file straight from its bytes
+     *
+     * @param in - the file's text
+     * @throws IOException - if the text isn't a Hoppers puzzle
+     */
+    public HoppersConfig(ByteScanner in) throws IOException {
+        row = in.nextInt();
+        col = in.nextInt();
+        board = new char[row][col];
+        //writing into the 2D array
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < col; j++) {
+                board[i][j] = in.nextChar();
+            }
+        }
+        findPads();
+    }
+
+    /**
+     * the constructor reading a board packed by pack()
+     *
+     * @param record - the packed board, from its position
+     */
+    public HoppersConfig(ByteBuffer record) {
+        row = record.getShort();
+        col = record.getShort();
+        board = new char[row][col];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < col; j++) {
+                board[i][j] = (char) (record.get() & 0xFF);
             }
         }
+        findPads();
+    }
+
+    /**
+     * finds the lily pads and green frogs of a new board, for the move table and the codec
+     */
+    private void findPads() {
+        moveTable = MOVE_TABLES.computeIfAbsent((long) row << 32 | col,
+                size -> new Move[row * col * (DIAGONAL_JUMPS.length + LONG_JUMPS.length)]);
+        pads = new int[row * col];
+        int padCount = 0;
+        int greens = 0;
+        for (int i = 0; i < row * col; i++) {
+            if (board[i / col][i % col] != '*') {
+                pads[padCount++] = i;
+            }
+            if (board[i / col][i % col] == 'G') {
+                greens++;
+            }
+        }
+        pads = Arrays.copyOf(pads, padCount);
+        int padTotal = padCount;
+        int greenTotal = greens;
+        codec = CODECS.computeIfAbsent((long) padCount << 32 | greens,
+                counts -> new HoppersCodec(padTotal, greenTotal)); //green frogs are only ever removed
+    }
+
+    /**
+     * packs the board into a record of a BoardArchive: the number of rows and columns, then one byte per cell
+     *
+     * @return the packed board
+     */
+    public byte[] pack() {
+        ByteBuffer record = ByteBuffer.allocate(4 + row * col);
+        record.putShort((short) row).putShort((short) col);
+        for (char[] aRow : board) {
+            for (char cell : aRow) {
+                record.put((byte) cell);
+            }
+        }
+        return record.array();
     }
 
     /**
      * The copy constructor used to easily create another config
+     * The copy shares every row of the board with the parent, so neither writes a row in place until it has its own copy
      *
      * @param other - the parent config
      */
-    private HoppersConfig(HoppersConfig other) {
+    HoppersConfig(HoppersConfig other) {
         this.row = other.row;
         this.col = other.col;
-        this.board = new char[row][col];
-        for (int i = 0; i < this.row; i++) {
-            System.arraycopy(other.board[i], 0, this.board[i], 0, col);
+        this.board = other.board.clone(); //row pointers only
+        other.ownedRows = null; //its rows are shared from now on
+        this.moveTable = other.moveTable;
+        this.pads = other.pads;
+        this.codec = other.codec;
+    }
+
+    /**
+     * Sets a cell of a config made from this one, copying the row first if it is still this config's row
+     *
+     * @param result - a config made by the copy constructor from this config
+     * @param i      - row of the cell
+     * @param j      - col of the cell
+     * @param cell   - the new content
+     */
+    private void setCell(HoppersConfig result, int i, int j, char cell) {
+        if (result.board[i] == board[i]) {
+            result.board[i] = board[i].clone();
         }
+        result.board[i][j] = cell;
+    }
+
+    /**
+     * Returns a row that can be written in place, copying it first if it may be shared
+     *
+     * @param i - row index
+     * @return the row
+     */
+    private char[] writableRow(int i) {
+        if (ownedRows == null) {
+            ownedRows = new boolean[row];
+        }
+        if (!ownedRows[i]) {
+            board[i] = board[i].clone();
+            ownedRows[i] = true;
+        }
+        return board[i];
     }
 
     /**
@@ -73,6 +192,23 @@ public class HoppersConfig implements Configuration {
         return true;
     }
 
+    /**
+     * Counts the green frogs. Every jump removes exactly one, so this is exactly the number of jumps left to a solution
+     *
+     * @return number of green frogs
+     */
+    public int getGreenCount() {
+        int greens = 0;
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < col; j++) {
+                if (board[i][j] == 'G') {
+                    greens++;
+                }
+            }
+        }
+        return greens;
+    }
+
     /**
      * the get neighbors methods used to generate new configurations for the BFS solver
      *
@@ -86,34 +222,243 @@ public class HoppersConfig implements Configuration {
         for (int i = 0; i < row; i++) {
             for (int j = 0; j < col; j++) {
                 if (board[i][j] == 'G' || board[i][j] == 'R') { //This executes anyway regardless of even odd coordinate
-                    if (isMoveValid(i, j, i - 2, j - 2, false)) {
-                        result.add(new HoppersConfig(move(i, j, i - 2, j - 2, false, board[i][j])));
-                    } else if (isMoveValid(i, j, i - 2, j + 2, false)) {
-                        result.add(new HoppersConfig(move(i, j, i - 2, j + 2, false, board[i][j])));
-                    } else if (isMoveValid(i, j, i + 2, j - 2, false)) {
-                        result.add(new HoppersConfig(move(i, j, i + 2, j - 2, false, board[i][j])));
-                    } else if (isMoveValid(i, j, i + 2, j + 2, false)) {
-                        result.add(new HoppersConfig(move(i, j, i + 2, j + 2, false, board[i][j])));
-                    }
+                    addFirstValidJump(result, i, j, DIAGONAL_JUMPS, false);
                 }
                 if (((i + j) % 2 == 0) && (board[i][j] == 'G' || board[i][j] == 'R')) { //if even row and is a frog
                     //doing vertical and horizontal moves
-                    if (isMoveValid(i, j, i - 4, j, true)) {
-                        result.add(new HoppersConfig(move(i, j, i - 4, j, true, board[i][j])));
-                    } else if (isMoveValid(i, j, i + 4, j, true)) {
-                        result.add(new HoppersConfig(move(i, j, i + 4, j, true, board[i][j])));
-                    } else if (isMoveValid(i, j, i, j - 4, true)) {
-                        result.add(new HoppersConfig(move(i, j, i, j - 4, true, board[i][j])));
-                    } else if (isMoveValid(i, j, i, j + 4, true)) {
-                        result.add(new HoppersConfig(move(i, j, i, j + 4, true, board[i][j])));
+                    addFirstValidJump(result, i, j, LONG_JUMPS, true);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the first valid jump of a frog, trying the jumps in order.
+     * The footprint of the jump also covers the jumps tried before it, since they decided it is the one generated
+     *
+     * @param result    - the collection of configurations to add to
+     * @param i         - row of the frog
+     * @param j         - col of the frog
+     * @param jumps     - row and col offsets to try, in order
+     * @param longJump  - if is even cell
+     */
+    private void addFirstValidJump(Collection<Configuration> result, int i, int j, int[][] jumps, boolean longJump) {
+        BitSet cells = new BitSet(row * col);
+        cells.set(i * col + j);
+        for (int[] jump : jumps) {
+            int newRow = i + jump[0];
+            int newCol = j + jump[1];
+            if (newRow >= 0 && newRow < row && newCol >= 0 && newCol < col) {
+                cells.set(newRow * col + newCol);
+                cells.set((i + jump[0] / 2) * col + j + jump[1] / 2);
+            }
+            if (isMoveValid(i, j, newRow, newCol, longJump)) {
+                HoppersConfig next = move(i, j, newRow, newCol, longJump, board[i][j]);
+                next.footprint = new Footprint((long) (i * col + j) * row * col + newRow * col + newCol, cells);
+                result.add(next);
+                return;
+            }
+        }
+    }
+
+    /**
+     * finds every config one jump before this one. A frog got here by jumping over a green frog from two pads back,
+     * so both of those pads must be empty now; the jump only counts if it is the first valid one of its kind
+     * the frog had, as getNeighbors only makes that one. The predecessors keep this config's codec, which
+     * counts green frogs from the board it was loaded with, so reload them from pack() before ranking them
+     *
+     * @return the configs whose neighbors include this one
+     */
+    @Override
+    public List<ReversibleConfiguration> getPredecessors() {
+        List<ReversibleConfiguration> result = new ArrayList<>();
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < col; j++) {
+                if (board[i][j] != 'G' && board[i][j] != 'R') {
+                    continue;
+                }
+                for (int k = 0; k < DIAGONAL_JUMPS.length; k++) {
+                    addUnjump(result, i, j, DIAGONAL_JUMPS, k, false);
+                }
+                if ((i + j) % 2 == 0) { //long jumps land on even cells too
+                    for (int k = 0; k < LONG_JUMPS.length; k++) {
+                        addUnjump(result, i, j, LONG_JUMPS, k, true);
                     }
-                    //doing diagonal moves if is a frog
                 }
             }
         }
         return result;
     }
 
+    /**
+     * adds the config before a frog made a jump to land where it is, if that jump was possible and generated
+     *
+     * @param result   - the collection of configurations to add to
+     * @param i        - row the frog landed on
+     * @param j        - col the frog landed on
+     * @param jumps    - row and col offsets of the jumps of this kind, in order
+     * @param jump     - index of the jump made
+     * @param longJump - if it is a long jump
+     */
+    private void addUnjump(List<ReversibleConfiguration> result, int i, int j, int[][] jumps, int jump, boolean longJump) {
+        int fromRow = i - jumps[jump][0];
+        int fromCol = j - jumps[jump][1];
+        int overRow = i - jumps[jump][0] / 2;
+        int overCol = j - jumps[jump][1] / 2;
+        if (fromRow < 0 || fromRow >= row || fromCol < 0 || fromCol >= col
+                || board[fromRow][fromCol] != '.' || board[overRow][overCol] != '.') {
+            return;
+        }
+        HoppersConfig before = new HoppersConfig(this);
+        setCell(before, fromRow, fromCol, board[i][j]);
+        setCell(before, overRow, overCol, 'G');
+        setCell(before, i, j, '.');
+        if (before.firstValidJump(fromRow, fromCol, jumps, longJump) == jump) {
+            result.add(before);
+        }
+    }
+
+    /**
+     * finds the first valid jump of a frog of one kind, the one getNeighbors and getMoves make
+     *
+     * @param i        - row of the frog
+     * @param j        - col of the frog
+     * @param jumps    - row and col offsets to try, in order
+     * @param longJump - if they are long jumps
+     * @return index of the jump, -1 if none is valid
+     */
+    private int firstValidJump(int i, int j, int[][] jumps, boolean longJump) {
+        for (int k = 0; k < jumps.length; k++) {
+            if (isMoveValid(i, j, i + jumps[k][0], j + jumps[k][1], longJump)) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * gets the text of a Hoppers file that loads this board
+     *
+     * @return the file's text
+     */
+    public String toFileText() {
+        return row + " " + col + "\n" + this + "\n";
+    }
+
+    /**
+     * Lists the jumps getNeighbors makes: the first valid jump of each kind of every frog,
+     * diagonal jumps first then long jumps from even cells
+     *
+     * @param moves list to fill, cleared first
+     */
+    @Override
+    public void getMoves(List<Move> moves) {
+        moves.clear();
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < col; j++) {
+                if (board[i][j] != 'G' && board[i][j] != 'R') {
+                    continue;
+                }
+                int diagonal = firstValidJump(i, j, DIAGONAL_JUMPS, false);
+                if (diagonal >= 0) {
+                    moves.add(sharedMove(i, j, diagonal));
+                }
+                if ((i + j) % 2 == 0) { //long jumps only from even cells
+                    int longJump = firstValidJump(i, j, LONG_JUMPS, true);
+                    if (longJump >= 0) {
+                        moves.add(sharedMove(i, j, DIAGONAL_JUMPS.length + longJump));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Lists every legal jump of every frog, the jumps a player may make, diagonal jumps first then long jumps from even cells
+     *
+     * @param moves - list to fill, cleared first
+     */
+    public void getLegalMoves(List<Move> moves) {
+        moves.clear();
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < col; j++) {
+                if (board[i][j] != 'G' && board[i][j] != 'R') {
+                    continue;
+                }
+                for (int k = 0; k < DIAGONAL_JUMPS.length; k++) {
+                    if (isMoveValid(i, j, i + DIAGONAL_JUMPS[k][0], j + DIAGONAL_JUMPS[k][1], false)) {
+                        moves.add(sharedMove(i, j, k));
+                    }
+                }
+                if ((i + j) % 2 == 0) { //long jumps only from even cells
+                    for (int k = 0; k < LONG_JUMPS.length; k++) {
+                        if (isMoveValid(i, j, i + LONG_JUMPS[k][0], j + LONG_JUMPS[k][1], true)) {
+                            moves.add(sharedMove(i, j, DIAGONAL_JUMPS.length + k));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the shared move for a frog and a jump
+     *
+     * @param i    - row of the frog
+     * @param j    - col of the frog
+     * @param jump - index of the jump, diagonal jumps first
+     * @return the move
+     */
+    private Move sharedMove(int i, int j, int jump) {
+        int index = (i * col + j) * (DIAGONAL_JUMPS.length + LONG_JUMPS.length) + jump;
+        if (moveTable[index] == null) {
+            int[] offset = jump < DIAGONAL_JUMPS.length ? DIAGONAL_JUMPS[jump] : LONG_JUMPS[jump - DIAGONAL_JUMPS.length];
+            moveTable[index] = new Move(new Coordinates(i, j), new Coordinates(i + offset[0], j + offset[1]));
+        }
+        return moveTable[index];
+    }
+
+    /**
+     * Jumps a frog in place, removing the green frog it jumps over
+     *
+     * @param move - a legal move
+     */
+    @Override
+    public void makeMove(Move move) {
+        Coordinates from = move.getCoordinates();
+        Coordinates to = move.getTarget();
+        char frog = board[from.row()][from.col()];
+        writableRow(to.row())[to.col()] = frog;
+        writableRow((from.row() + to.row()) / 2)[(from.col() + to.col()) / 2] = '.';
+        writableRow(from.row())[from.col()] = '.';
+    }
+
+    /**
+     * Jumps the frog back and puts the green frog it jumped over back on its pad
+     *
+     * @param move - the move that was applied
+     */
+    @Override
+    public void unmakeMove(Move move) {
+        Coordinates from = move.getCoordinates();
+        Coordinates to = move.getTarget();
+        char frog = board[to.row()][to.col()];
+        writableRow(from.row())[from.col()] = frog;
+        writableRow((from.row() + to.row()) / 2)[(from.col() + to.col()) / 2] = 'G';
+        writableRow(to.row())[to.col()] = '.';
+    }
+
+    /**
+     * Returns an independent copy of this config, sharing rows until either one writes them
+     *
+     * @return the copy
+     */
+    @Override
+    public MutableConfiguration copy() {
+        return new HoppersConfig(this);
+    }
+
     /**
      * The method used my getNeighbors to generate a new board with frogs moved
      *
@@ -126,8 +471,8 @@ public class HoppersConfig implements Configuration {
      * @return - a board with frogs moved
      */
     public HoppersConfig move(int originalRow, int originalCol, int newRow, int newCol, boolean longJump, char color) {
-        HoppersConfig result = new HoppersConfig(this);
-        result.board[newRow][newCol] = color;//moving the frog
+        HoppersConfig result = new HoppersConfig(this); //only the rows the jump touches are copied
+        setCell(result, newRow, newCol, color);//moving the frog
 
         //process deleting
         int deleteFrogRow = -1;
@@ -160,8 +505,8 @@ public class HoppersConfig implements Configuration {
             deleteFrogRow = originalRow - 1;
             deleteFrogCol = originalCol - 1;
         }
-        result.board[deleteFrogRow][deleteFrogCol] = '.';
-        result.board[originalRow][originalCol] = '.'; //make the original position valid to jump again
+        setCell(result, deleteFrogRow, deleteFrogCol, '.');
+        setCell(result, originalRow, originalCol, '.'); //make the original position valid to jump again
         return result;
     }
 
@@ -231,6 +576,76 @@ public class HoppersConfig implements Configuration {
         return result;
     }
 
+    /**
+     * The number of boards with one red frog and at most the starting number of green frogs
+     *
+     * @return size of the space
+     */
+    @Override
+    public long getSpaceSize() {
+        return codec.getSpaceSize();
+    }
+
+    /**
+     * The boards grouped by green frog count; every jump removes a green frog, so it lands in the block before
+     *
+     * @return first rank of each green frog count, then the space size
+     */
+    @Override
+    public long[] getLayerStarts() {
+        return codec.getBlockStarts();
+    }
+
+    /**
+     * Ranks the board by its green frog count, red frog pad and green frog subset
+     *
+     * @return the rank
+     */
+    @Override
+    public long rank() {
+        char[] cells = new char[pads.length];
+        for (int k = 0; k < pads.length; k++) {
+            cells[k] = board[pads[k] / col][pads[k] % col];
+        }
+        return codec.rank(cells);
+    }
+
+    /**
+     * Returns the board with a given rank
+     *
+     * @param rank - the rank
+     * @return the config
+     */
+    @Override
+    public RankableConfiguration unrank(long rank) {
+        HoppersConfig result = new HoppersConfig(this);
+        char[] cells = new char[pads.length];
+        codec.unrank(rank, cells);
+        for (int k = 0; k < pads.length; k++) {
+            setCell(result, pads[k] / col, pads[k] % col, cells[k]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the codec that ranks boards of this shape
+     *
+     * @return the codec
+     */
+    public HoppersCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Returns the footprint of the jump that produced this config
+     *
+     * @return footprint, or null for a loaded config
+     */
+    @Override
+    public Footprint getFootprint() {
+        return footprint;
+    }
+
     /**
      * the equal method compares the game board of both config
      *
@@ -248,13 +663,53 @@ public class HoppersConfig implements Configuration {
     }
 
     /**
-     * returns the hashcode of the id
+     * returns the hashcode of the id, hashing the cells row after row as one sequence. Hashing each row
+     * on its own weighs a cell by its row plus its col, so boards with the same frogs on every anti-diagonal collided
      *
      * @return hash code of config id
      */
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        int hash = 1;
+        for (char[] aRow : board) {
+            for (char cell : aRow) {
+                hash = 31 * hash + cell;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Encodes the board as one byte per cell, row by row
+     *
+     * @return the encoding
+     */
+    @Override
+    public byte[] encode() {
+        byte[] bytes = new byte[row * col];
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < col; j++) {
+                bytes[i * col + j] = (byte) board[i][j];
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the board of this shape with a given encoding
+     *
+     * @param bytes - one byte per cell, row by row, as made by encode
+     * @return the config
+     */
+    @Override
+    public EncodableConfiguration decode(byte[] bytes) {
+        HoppersConfig result = new HoppersConfig(this);
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < col; j++) {
+                setCell(result, i, j, (char) bytes[i * col + j]);
+            }
+        }
+        return result;
     }
 
     /**
@@ -264,25 +719,61 @@ public class HoppersConfig implements Configuration {
      */
     @Override
     public String toString() {
-        String result = "";
+        StringBuilder result = new StringBuilder(row * col * 2); //a char and a space or newline per cell
         for (int i = 0; i < row; i++) {
             for (int j = 0; j < col; j++) {
-                result += board[i][j] + " ";
+                result.append(board[i][j]).append(' ');
             }
-            result = result.substring(0, result.length() - 1);
-            result += "\n";
+            result.setCharAt(result.length() - 1, '\n');
         }
-        result = result.substring(0, result.length() - 1);
-        return result;
+        result.setLength(result.length() - 1);
+        return result.toString();
     }
 
     /**
-     * Returns the game board
-     * This method is used by the MVC model
+     * Returns a copy of the game board, which can be changed without changing this config
      *
      * @return the board of the game
      */
     public char[][] getBoard() {
-        return this.board;
+        char[][] copy = new char[row][];
+        for (int i = 0; i < row; i++) {
+            copy[i] = board[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Returns what is on a cell of the board
+     * This method is used by the MVC model
+     *
+     * @param row - row of the cell
+     * @param col - col of the cell
+     * @return the frog, pad or blank on the cell
+     */
+    public char getCell(int row, int col) {
+        return board[row][col];
+    }
+
+    /**
+     * Lists the cells whose content differs on another config of the same size
+     * Rows the two configs share are skipped without comparing cells
+     *
+     * @param other - the other config
+     * @return the coordinates of the changed cells, row by row
+     */
+    public List<Coordinates> getChangedCells(HoppersConfig other) {
+        List<Coordinates> changed = new ArrayList<>();
+        for (int i = 0; i < row; i++) {
+            if (board[i] == other.board[i]) {
+                continue;
+            }
+            for (int j = 0; j < col; j++) {
+                if (board[i][j] != other.board[i][j]) {
+                    changed.add(new Coordinates(i, j));
+                }
+            }
+        }
+        return changed;
     }
 }
\ No newline at end of file
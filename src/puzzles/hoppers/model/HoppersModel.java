@@ -1,12 +1,16 @@
 package puzzles.hoppers.model;
 
+import puzzles.common.BoardEvent;
 import puzzles.common.Coordinates;
 import puzzles.common.Observer;
+import puzzles.common.solver.AnytimeSolver;
 import puzzles.common.solver.Configuration;
-import puzzles.common.solver.Solver;
+import puzzles.common.solver.HintSpeculator;
+import puzzles.common.solver.Move;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
 
 /**
  * The model for the Hoppers puzzle
@@ -15,15 +19,31 @@ import java.util.*;
  * @author Kai Fan
  */
 public class HoppersModel {
+    /** Default time a hint may take, in milliseconds */
+    public static final long HINT_BUDGET_MILLIS = 50;
+    /** Weight of the green frog count in the hint search, larger heads for a solution sooner */
+    private static final int HINT_WEIGHT = 3;
+    /** Default time the search for a path to play back may take, in milliseconds */
+    public static final long PLAYBACK_BUDGET_MILLIS = 2000;
+
     /** the collection of observers of this model */
     private final List<Observer<HoppersModel, String>> observers = new LinkedList<>();
+    /** the collection of observers of the typed board events */
+    private final List<Observer<HoppersModel, List<BoardEvent>>> eventObservers = new LinkedList<>();
+    /** events of the current operation, sent together when it ends */
+    private final List<BoardEvent> pendingEvents = new ArrayList<>();
+    /** the board text, reused by every rendering */
+    private final StringBuilder text = new StringBuilder();
 
     /** the current configuration */
     private HoppersConfig currentConfig;
+    /** searches for hints from the boards the selected frog can jump to, while the player thinks */
+    private final HintSpeculator speculator = new HintSpeculator(() -> new AnytimeSolver(config -> ((HoppersConfig) config).getGreenCount(), HINT_WEIGHT, HINT_BUDGET_MILLIS));
     //Enumeration for representing the different states of the game
 
     private String filename; // filename
     private Coordinates selectedCoords; //the coordinate selected
+    private List<Configuration> playbackPath; //board after each step of the path played back, null if none
 
     /**
      * The view calls this to add itself as an observer.
@@ -34,6 +54,15 @@ public class HoppersModel {
         this.observers.add(observer);
     }
 
+    /**
+     * A view calls this to be told about board changes as typed events
+     *
+     * @param observer the view
+     */
+    public void addEventObserver(Observer<HoppersModel, List<BoardEvent>> observer) {
+        this.eventObservers.add(observer);
+    }
+
     /**
      * The model's state has changed (the counter), so inform the view via
      * the update method
@@ -44,6 +73,55 @@ public class HoppersModel {
         }
     }
 
+    /**
+     * Adds an event to the current operation, replacing an earlier change of the same cell
+     *
+     * @param event - the event
+     */
+    private void addEvent(BoardEvent event) {
+        if (event instanceof BoardEvent.CellChanged changed) {
+            pendingEvents.removeIf(other -> other instanceof BoardEvent.CellChanged earlier
+                    && earlier.coordinates().equals(changed.coordinates()));
+        }
+        pendingEvents.add(event);
+    }
+
+    /**
+     * Adds a change event for a cell, with its content on the current board
+     *
+     * @param coordinates - the cell
+     */
+    private void addCellEvent(Coordinates coordinates) {
+        addEvent(new BoardEvent.CellChanged(coordinates, currentConfig.getCell(coordinates.row(), coordinates.col())));
+    }
+
+    /**
+     * Adds change events for the cells that differ between two boards of the same size
+     * Rows a config shares with the one it was made from are skipped without comparing cells
+     *
+     * @param before - the board before the change
+     * @param after - the board after it
+     */
+    private void addDiffEvents(HoppersConfig before, HoppersConfig after) {
+        for (Coordinates coordinates : before.getChangedCells(after)) {
+            addCellEvent(coordinates);
+        }
+    }
+
+    /**
+     * Sends the events of the operation that just ended to the event observers, as one list
+     */
+    private void flushEvents() {
+        if (pendingEvents.isEmpty()) {
+            return;
+        }
+        List<BoardEvent> events = List.copyOf(pendingEvents);
+        pendingEvents.clear();
+        for (var observer : eventObservers) {
+            observer.update(this, events);
+        }
+    }
+
     /**
      * Creates a new model for the Hoppers
      *
@@ -74,45 +152,141 @@ public class HoppersModel {
 
     /**
      * Does the next correct move for the user
-     * based on the starting config using solver
+     * based on the starting config using solver, within the default time budget
      */
     public void hint() {
-        Solver solver = new Solver();
-        List<Configuration> path = solver.solve(currentConfig);
+        hint(HINT_BUDGET_MILLIS);
+    }
+
+    /**
+     * Does the next correct move for the user, from the shortest path found within the budget
+     * Observers are told whether that path is proven shortest or the best so far
+     *
+     * @param budgetMillis - time the search may take, in milliseconds
+     */
+    public void hint(long budgetMillis) {
         if(currentConfig.isSolution()) {  // check if current solution
             notifyObservers("Already solved!");
             return;
         }
-        if(path.isEmpty() || (path.size() == 1 && !path.get(0).isSolution())) {
-            notifyObservers("No solution!");
-            return;
-        }
-        Configuration lastConfig = path.get(path.size() - 1);
-        if(!lastConfig.isSolution()) {
-            notifyObservers("No solution!");
-            return;
+        //the green frog count is exactly the jumps left, so it is also an admissible estimate
+        HintSpeculator.Hint hint = budgetMillis <= HINT_BUDGET_MILLIS ? speculator.take(currentConfig) : null; //found ahead with the default budget
+        if(hint == null) {
+            AnytimeSolver solver = new AnytimeSolver(config -> ((HoppersConfig) config).getGreenCount(), HINT_WEIGHT, budgetMillis);
+            List<Configuration> path = solver.solve(currentConfig);
+            hint = new HintSpeculator.Hint(path, solver.isOptimal());
         }
-        if(path.size() > 1 && path.get(1) instanceof HoppersConfig) {
-            Configuration nextConfig = path.get(1);
-            this.currentConfig = (HoppersConfig) nextConfig;
-            notifyObservers("Next step!");
+        List<Configuration> path = hint.path();
+        addEvent(new BoardEvent.HintResult(path, hint.optimal()));
+        if(path.size() > 1 && path.get(1) instanceof HoppersConfig nextConfig) {
+            HoppersConfig before = currentConfig;
+            this.currentConfig = new HoppersConfig(nextConfig); //jumps change the board in place, so keep the published path as found
+            playbackPath = null;
+            notifyObservers(hint.optimal() ? "Next step! (optimal)" : "Next step! (best so far)");
+            addDiffEvents(before, currentConfig);
+            if(currentConfig.isSolution()) {
+                addEvent(new BoardEvent.Solved());
+            }
         } else {
             notifyObservers("No solution!");
         }
+        flushEvents();
+    }
+    /**
+     * Makes a search for a whole path from the current board, to be run on another thread
+     * It searches from a copy, so the board may change while it runs
+     *
+     * @param budgetMillis - time the search may take once it has found a path, in milliseconds
+     * @return the search, giving configs from the board to a solution, empty if there is none
+     */
+    public Callable<List<Configuration>> pathSearch(long budgetMillis) {
+        HoppersConfig start = new HoppersConfig(currentConfig);
+        return () -> new AnytimeSolver(config -> ((HoppersConfig) config).getGreenCount(), HINT_WEIGHT, budgetMillis).solve(start);
+    }
+
+    /**
+     * Keeps a path found by a pathSearch for playback, if it starts from the current board
+     *
+     * @param path - configs from the board to a solution
+     * @return number of steps of the path, -1 if it is empty or the board has changed since
+     */
+    public int startPlayback(List<Configuration> path) {
+        if(path.isEmpty() || !path.get(0).equals(currentConfig)) {
+            playbackPath = null;
+            notifyObservers(path.isEmpty() ? "No solution!" : "Board changed, solve again!");
+            return -1;
+        }
+        playbackPath = path;
+        selectedCoords = null;
+        notifyObservers("Playing " + (path.size() - 1) + " steps");
+        addEvent(new BoardEvent.Selected(null));
+        flushEvents();
+        return path.size() - 1;
+    }
+
+    /**
+     * Shows a step of the path being played back. Every board of the path is kept, so this
+     * never searches, and the board shown is a copy, so jumps made from it leave the path alone
+     *
+     * @param step - the step, 0 for the board the path starts from
+     * @return false if no path is played back, since it was found the board was changed otherwise
+     */
+    public boolean playbackTo(int step) {
+        if(playbackPath == null || step < 0 || step >= playbackPath.size()) {
+            return false;
+        }
+        HoppersConfig before = currentConfig;
+        currentConfig = new HoppersConfig((HoppersConfig) playbackPath.get(step));
+        notifyObservers("Step " + step + " of " + (playbackPath.size() - 1));
+        addDiffEvents(before, currentConfig);
+        if(currentConfig.isSolution()) {
+            addEvent(new BoardEvent.Solved());
+        }
+        flushEvents();
+        return true;
+    }
+
+    /**
+     * Gets how well hints found ahead of time are used, for tuning
+     *
+     * @return hits, misses and CPU time of the searches run ahead of time
+     */
+    public HintSpeculator.Stats getSpeculationStats() {
+        return speculator.getStats();
+    }
+
+    /**
+     * Starts searching for hints from the boards the selected frog can jump to
+     */
+    private void speculate() {
+        List<Move> legalMoves = new ArrayList<>();
+        currentConfig.getLegalMoves(legalMoves);
+        List<Configuration> starts = new ArrayList<>();
+        for(Move jump : legalMoves) {
+            if(jump.getCoordinates().equals(selectedCoords)) {
+                HoppersConfig next = new HoppersConfig(currentConfig);
+                next.makeMove(jump);
+                starts.add(next);
+            }
+        }
+        speculator.speculate(starts);
     }
     public boolean select(Coordinates selectedCoords){
         boolean result = false; //tells the observer if the selection is valid
         //process selected
-        char content = currentConfig.getBoard()[selectedCoords.row()][selectedCoords.col()];
+        char content = currentConfig.getCell(selectedCoords.row(), selectedCoords.col());
         Set<Character> validContents = Set.of('R', 'G');
         if(validContents.contains(content)) {
             notifyObservers("Selected (" + selectedCoords.row() + ", " + selectedCoords.col() + ")");
             result = true;
             this.selectedCoords = selectedCoords;
+            speculate();
         } else {  // no piece selected
             notifyObservers("No frog at (" + selectedCoords.row() + ", " + selectedCoords.col() + ")");
-            selectedCoords = null;
+            this.selectedCoords = null;
         }
+        addEvent(new BoardEvent.Selected(this.selectedCoords));
+        flushEvents();
         return result;
     }
 
@@ -124,30 +298,25 @@ public class HoppersModel {
      * @param toCoordinate - the coordinate to move to
      */
     public void move(Coordinates fromCoordinate, Coordinates toCoordinate) {
-        //process from coordinate
-        char content = currentConfig.getBoard()[fromCoordinate.row()][fromCoordinate.col()];
-        //process to coordinate
-        if(selectedCoords.row() + selectedCoords.col() % 2 == 0){ //process even row col
-            //if can jump
-            if(currentConfig.isMoveValid(fromCoordinate.row(), fromCoordinate.col(), toCoordinate.row(), toCoordinate.col(), true)){
-                currentConfig = currentConfig.move(fromCoordinate.row(), fromCoordinate.col(), toCoordinate.row(), toCoordinate.col(), true, content);
-                notifyObservers("Jumped from (" + fromCoordinate.row() + ", " + fromCoordinate.col() + ") to (" + toCoordinate.row() + ", " + toCoordinate.col() + ")");
-                selectedCoords = null;
-            }else{ //else
-                selectedCoords = null;
-                notifyObservers("Can't jump from (" + fromCoordinate.row() + ", " + fromCoordinate.col() + ") to (" + toCoordinate.row() + ", " + toCoordinate.col() + ")");
-            }
-        }else{ //process odd row col
-            //if can jump
-            if(currentConfig.isMoveValid(fromCoordinate.row(), fromCoordinate.col(), toCoordinate.row(), toCoordinate.col(), false)){
-                currentConfig = currentConfig.move(fromCoordinate.row(), fromCoordinate.col(), toCoordinate.row(), toCoordinate.col(), false, content);
-                notifyObservers("Jumped from (" + fromCoordinate.row() + ", " + fromCoordinate.col() + ") to (" + toCoordinate.row() + ", " + toCoordinate.col() + ")");
-                selectedCoords = null;
-            }else{ //else
-                selectedCoords = null;
-                notifyObservers("Can't jump from (" + fromCoordinate.row() + ", " + fromCoordinate.col() + ") to (" + toCoordinate.row() + ", " + toCoordinate.col() + ")");
+        Move jump = new Move(fromCoordinate, toCoordinate);
+        List<Move> legalMoves = new ArrayList<>();
+        currentConfig.getLegalMoves(legalMoves);
+        selectedCoords = null;
+        if(legalMoves.contains(jump)){ //if can jump
+            currentConfig.makeMove(jump);
+            playbackPath = null;
+            notifyObservers("Jumped from (" + fromCoordinate.row() + ", " + fromCoordinate.col() + ") to (" + toCoordinate.row() + ", " + toCoordinate.col() + ")");
+            addCellEvent(fromCoordinate);
+            addCellEvent(new Coordinates((fromCoordinate.row() + toCoordinate.row()) / 2, (fromCoordinate.col() + toCoordinate.col()) / 2)); //the frog jumped over
+            addCellEvent(toCoordinate);
+            if(currentConfig.isSolution()) {
+                addEvent(new BoardEvent.Solved());
             }
+        }else{
+            notifyObservers("Can't jump from (" + fromCoordinate.row() + ", " + fromCoordinate.col() + ") to (" + toCoordinate.row() + ", " + toCoordinate.col() + ")");
         }
+        addEvent(new BoardEvent.Selected(null));
+        flushEvents();
     }
 
     /**
@@ -158,7 +327,11 @@ public class HoppersModel {
         try { //create a new Hoppers config and make it the new UI
             this.filename = file;
             this.currentConfig = new HoppersConfig(filename);
+            playbackPath = null;
+            speculator.cancel();
             notifyObservers("Loaded: " + filename);
+            addEvent(new BoardEvent.Loaded(filename, getTotalRow(), getTotalCol()));
+            flushEvents();
         } catch(IOException e) {
             notifyObservers("Failed to load puzzle: " + filename);
         }
@@ -185,7 +358,14 @@ public class HoppersModel {
             System.out.println("Coordinate out of the board");
             return '\0';
         }
-        return currentConfig.getBoard()[row][col];
+        return currentConfig.getCell(row, col);
+    }
+
+    /**
+     * Stops searching for hints ahead of time, for a game that ends without quitting the program
+     */
+    public void close() {
+        speculator.close();
     }
 
     /**
@@ -203,26 +383,57 @@ public class HoppersModel {
      */
     @Override
     public String toString() {
-        StringBuilder result = new StringBuilder();
-        result.append("   ");
+        return render().toString();
+    }
+
+    /**
+     * Renders the board with its row and column numbers into a builder that is reused by the
+     * next rendering, so printing a board doesn't build new strings
+     *
+     * @return the board, valid until the next rendering
+     */
+    public CharSequence render() {
+        text.setLength(0);
+        text.append("   ");
         for(int col = 0; col < getTotalCol(); col++) {  // columns
-            result.append(col + " ");
+            text.append(col).append(' ');
         }
-        result.deleteCharAt(result.length() - 1);
-        result.append("\n" + "  ");
+        text.setLength(text.length() - 1);
+        text.append('\n').append("  ");
         for(int col = 0; col < getTotalCol(); col++) {
-            result.append("--");
+            text.append("--");
         }
-        result.append("\n");
+        text.append('\n');
         for(int row = 0; row < getTotalRow(); row++) {  // rows
-            result.append(row + "| ");
-            for(int col = 0; col < getTotalCol(); col++) {  // display grid
-                result.append(currentConfig.getBoard()[row][col] + " ");
-            }
-            result.deleteCharAt(result.length() -1);
-            result.append("\n");
+            appendRow(row);
+        }
+        return text;
+    }
+
+    /**
+     * Renders one row of the board, as it appears in render()
+     *
+     * @param row - the row
+     * @return the row's line, valid until the next rendering
+     */
+    public CharSequence renderRow(int row) {
+        text.setLength(0);
+        appendRow(row);
+        return text;
+    }
+
+    /**
+     * Appends a row's line to the rendering
+     *
+     * @param row - the row
+     */
+    private void appendRow(int row) {
+        text.append(row).append("| ");
+        for(int col = 0; col < getTotalCol(); col++) {  // display grid
+            text.append(currentConfig.getCell(row, col)).append(' ');
         }
-        return result.toString();
+        text.setLength(text.length() - 1);
+        text.append('\n');
     }
 
     /**
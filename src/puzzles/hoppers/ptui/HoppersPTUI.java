@@ -1,23 +1,37 @@
 package puzzles.hoppers.ptui;
 
 import javafx.scene.control.Label;
+import puzzles.common.BoardEvent;
 import puzzles.common.Coordinates;
 import puzzles.common.Observer;
+import puzzles.common.ptui.CommandUI;
 import puzzles.hoppers.model.HoppersModel;
 
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
 import java.util.Scanner;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 /**
  * A UI class representing Hoppers PTUI, it is the View and Controller part of the MVC structure
  *
  * @author Kai Fan
  */
-public class HoppersPTUI implements Observer<HoppersModel, String> {
+public class HoppersPTUI implements Observer<HoppersModel, String>, CommandUI {
+    /** Size of the buffer standard output is written through, in bytes */
+    private static final int OUTPUT_BUFFER = 1 << 16;
     private HoppersModel model;
     private Coordinates selectedLabel_1_Coordinate; //the first label's coordinate
     private Coordinates selectedLabel_2_Coordinate; //the second label's coordinate
     private boolean validFirstSelect; //keep track if first select is valid
+    private PrintStream out; //where the game is printed
+    private boolean diffOnly; //print only the rows a command changed
+    private final SortedSet<Integer> changedRows = new TreeSet<>(); //rows changed by the current command
 
     /**
      * the initialize method used to set up internal states
@@ -26,8 +40,22 @@ public class HoppersPTUI implements Observer<HoppersModel, String> {
      * @throws IOException - if file corrupt or not found
      */
     public void init(String filename) throws IOException {
+        init(filename, System.out);
+    }
+
+    /**
+     * the initialize method for a PTUI that prints somewhere other than standard output
+     *
+     * @param filename - the name of the file to load
+     * @param out - where the game is printed
+     * @throws IOException - if file corrupt or not found
+     */
+    @Override
+    public void init(String filename, PrintStream out) throws IOException {
+        this.out = out;
         this.model = new HoppersModel(filename);
         this.model.addObserver(this);
+        this.model.addEventObserver(this::apply);
         this.selectedLabel_1_Coordinate = null;
         this.selectedLabel_2_Coordinate = null;
         this.validFirstSelect = false;
@@ -45,19 +73,61 @@ public class HoppersPTUI implements Observer<HoppersModel, String> {
     @Override
     public void update(HoppersModel model, String data) {
         // for demonstration purposes
-        System.out.println(data);
-        System.out.println(model);
+        out.println(data);
+        if (!diffOnly) {
+            out.append(model.render()).println();
+        }
+    }
+
+    /**
+     * chooses to print only the rows a command changed
+     *
+     * @param diffOnly - true to print only changed rows
+     */
+    @Override
+    public void setDiffOnly(boolean diffOnly) {
+        this.diffOnly = diffOnly;
+    }
+
+    /**
+     * prints the rows changed by a command, or the whole board for a new one, when printing only changes
+     *
+     * @param model - the model
+     * @param events - the changes of the command
+     */
+    private void apply(HoppersModel model, List<BoardEvent> events) {
+        if (!diffOnly) {
+            return;
+        }
+        for (BoardEvent event : events) {
+            switch (event) {
+                case BoardEvent.Loaded loaded -> {
+                    changedRows.clear();
+                    out.append(model.render()).println();
+                }
+                case BoardEvent.CellChanged changed -> changedRows.add(changed.coordinates().row());
+                default -> {
+                }
+            }
+        }
+        for (int row : changedRows) {
+            out.append(model.renderRow(row));
+        }
+        changedRows.clear();
     }
 
     /**
      * displays the valid format for file input
      */
     private void displayHelp() {
-        System.out.println( "h(int)              -- hint next move" );
-        System.out.println( "l(oad) filename     -- load new puzzle file" );
-        System.out.println( "s(elect) r c        -- select cell at r, c" );
-        System.out.println( "q(uit)              -- quit the game" );
-        System.out.println( "r(eset)             -- reset the current game" );
+        out.println( "h(int)              -- hint next move" );
+        out.println( "l(oad) filename     -- load new puzzle file" );
+        out.println( "s(elect) r c        -- select cell at r, c" );
+        out.println( "q(uit)              -- quit the game" );
+        out.println( "r(eset)             -- reset the current game" );
+        if (diffOnly) {
+            out.println( "b(oard)             -- print the whole board" );
+        }
     }
 
     /**
@@ -66,36 +136,54 @@ public class HoppersPTUI implements Observer<HoppersModel, String> {
     public void run() {
         Scanner in = new Scanner( System.in );
         for ( ; ; ) {
-            System.out.print( "> " );
-            String line = in.nextLine();
-            String[] input = line.split( "\\s+" );
-            if (input.length > 0) {
-                if (input[0].startsWith( "q" )) {
-                    quit();
-                }else if(input[0].startsWith("l")) {  // load
-                    if(input.length != 2){ //error checking
-                        System.out.println("Wrong File Input Detected, Exiting");
-                        quit();
-                    }else{
-                        model.load(input[1]);
-                    }
-                }else if(input[0].startsWith("r")) {
-                    model.reset();
-                }else if(input[0].startsWith("s")){
-                    if(input.length != 3){
-                        System.out.println("Wrong format for selecting, try again");
-                        displayHelp();
-                    }else{
-                        select(Integer.parseInt(input[1]), Integer.parseInt(input[2]));
-                    }
-                }else if(input[0].startsWith("h")){
-                    model.hint();
+            out.print( "> " );
+            out.flush();
+            if (!in.hasNextLine() || !command(in.nextLine())) {
+                break;
+            }
+        }
+        out.flush();
+        quit();
+    }
+
+    /**
+     * carries out one command line
+     *
+     * @param line - the command line
+     * @return false if the command quits
+     */
+    @Override
+    public boolean command(String line) {
+        String[] input = line.split( "\\s+" );
+        if (input.length > 0) {
+            if (input[0].startsWith( "q" )) {
+                return false;
+            }else if(input[0].startsWith("l")) {  // load
+                if(input.length != 2){ //error checking
+                    out.println("Wrong File Input Detected, Exiting");
+                    return false;
+                }else{
+                    model.load(input[1]);
                 }
-                else {
+            }else if(input[0].startsWith("r")) {
+                model.reset();
+            }else if(input[0].startsWith("s")){
+                if(input.length != 3){
+                    out.println("Wrong format for selecting, try again");
                     displayHelp();
+                }else{
+                    select(Integer.parseInt(input[1]), Integer.parseInt(input[2]));
                 }
+            }else if(input[0].startsWith("h")){
+                model.hint();
+            }else if(input[0].startsWith("b")){ //whole board
+                out.append(model.render()).println();
+            }
+            else {
+                displayHelp();
             }
         }
+        return true;
     }
 
     /**
@@ -129,6 +217,14 @@ public class HoppersPTUI implements Observer<HoppersModel, String> {
         validFirstSelect = false;
     }
 
+    /**
+     * ends the game without quitting the program
+     */
+    @Override
+    public void close() {
+        model.close();
+    }
+
     /**
      * the quit method shuts down the model and the PTUI
      */
@@ -139,15 +235,17 @@ public class HoppersPTUI implements Observer<HoppersModel, String> {
     /**
      * the main method used to tell PTUI to start up
      *
-     * @param args - expect a file name passed in here
+     * @param args - expect a file name passed in here, then --diff to print only the rows each command changes
      */
     public static void main(String[] args) {
-        if (args.length != 1) {
-            System.out.println("Usage: java HoppersPTUI filename");
+        if (args.length != 1 && !(args.length == 2 && args[1].equals("--diff"))) {
+            System.out.println("Usage: java HoppersPTUI filename [--diff]");
         } else {
             try {
                 HoppersPTUI ptui = new HoppersPTUI();
-                ptui.init(args[0]);
+                ptui.setDiffOnly(args.length == 2);
+                ptui.init(args[0], new PrintStream(new BufferedOutputStream(
+                        new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER), false));
                 ptui.run();
             } catch (IOException ioe) {
                 System.out.println(ioe.getMessage());
@@ -1,10 +1,17 @@
 package puzzles.hoppers.solver;
 
+import puzzles.common.service.PartitionedSolver;
+import puzzles.common.solver.BitstateSolver;
+import puzzles.common.solver.CheckpointSolver;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.CountingSolver;
+import puzzles.common.solver.IterativeDeepeningSolver;
+import puzzles.common.solver.RankedSolver;
 import puzzles.common.solver.Solver;
 import puzzles.hoppers.model.HoppersConfig;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -13,23 +20,92 @@ import java.util.List;
  * @author Kai Fan
  */
 public class Hoppers {
+    /** Bit array size for bitstate search, 2^30 bits (128 MB) */
+    private static final int BITSTATE_LOG2_BITS = 30;
+    /** Bits set per configuration in bitstate search */
+    private static final int BITSTATE_HASHES = 3;
+
     /**
      * The main method used to call the common solver and display solution and step to standard output
      *
-     * @param args - the command line argument (expect a file)
+     * @param args - the command line argument (expect a file, optionally followed by --reduce, --deepen, --ranked, --count, --checkpoint file, --workers n or --bitstate [--verify])
      * @throws IOException -
      */
     public static void main(String[] args) throws IOException {
-        if (args.length != 1) {
-            System.out.println("Usage: java Hoppers filename");
+        boolean bitstate = args.length >= 2 && args[1].equals("--bitstate"); //depth first with an approximate visited set
+        boolean verify = bitstate && args.length == 3 && args[2].equals("--verify"); //check a bitstate path exactly
+        boolean checkpoint = args.length == 3 && args[1].equals("--checkpoint"); //search kept in a file that a later run resumes
+        boolean partitioned = args.length == 3 && args[1].equals("--workers"); //boards split across worker processes
+        if (args.length < 1 || args.length > (verify || checkpoint || partitioned ? 3 : 2) || (args.length == 2 && !args[1].equals("--reduce") && !args[1].equals("--deepen") && !args[1].equals("--ranked") && !args[1].equals("--count") && !bitstate)) {
+            System.out.println("Usage: java Hoppers filename [--reduce|--deepen|--ranked|--count|--checkpoint file|--workers n|--bitstate [--verify]]");
         }else{
             System.out.println("File: data/hoppers/" + args[0]);
             HoppersConfig hoppersConfig = new HoppersConfig(args[0]);
             System.out.println(hoppersConfig);
-            Solver solver = new Solver();
+            boolean reduce = args.length == 2 && args[1].equals("--reduce"); //skip transpositions of commuting jumps
+            Solver solver = new Solver(reduce);
+            if (args.length == 2 && args[1].equals("--deepen")) { //every jump removes a frog, so depth-first search always ends
+                solver = new IterativeDeepeningSolver(Integer.MAX_VALUE);
+            }
+            if (args.length == 2 && args[1].equals("--ranked")) { //a bit per board of each green frog count reached instead of hashing
+                if (RankedSolver.getLargestTable(hoppersConfig) > RankedSolver.MAX_SPACE) {
+                    System.out.println("Usage: --ranked needs at most " + RankedSolver.MAX_SPACE + " boards per green frog count, this puzzle has " + RankedSolver.getLargestTable(hoppersConfig));
+                    return;
+                }
+                solver = new RankedSolver();
+            }
+            if (args.length == 2 && args[1].equals("--count")) { //also count every shortest solution
+                solver = new CountingSolver();
+            }
+            if (checkpoint) {
+                solver = new CheckpointSolver(Path.of(args[2]));
+            }
+            if (partitioned) {
+                solver = new PartitionedSolver("hoppers\n" + hoppersConfig.toFileText(), Integer.parseInt(args[2]));
+            }
+            if (bitstate) {
+                solver = new BitstateSolver(BITSTATE_LOG2_BITS, BITSTATE_HASHES, Math.max(1, hoppersConfig.getGreenCount()), verify); //every jump removes a frog, so no path is longer
+            }
             List<Configuration> solution = solver.solve(hoppersConfig);
-            System.out.println("Total configs: " + solver.getTotalConfigs());
-            System.out.println("Unique configs: " + solver.getUniqueConfigs());
+            if (solver instanceof PartitionedSolver partitionedSolver) { //counts can pass the int range of the other solvers
+                System.out.println("Total configs: " + partitionedSolver.getTotalCount());
+                System.out.println("Unique configs: " + partitionedSolver.getUniqueCount());
+            }else{
+                System.out.println("Total configs: " + solver.getTotalConfigs());
+                System.out.println("Unique configs: " + solver.getUniqueConfigs());
+            }
+            if (solver instanceof RankedSolver rankedSolver) {
+                System.out.println("Ranked table bytes: " + rankedSolver.getTableBytes());
+            }
+            if (solver instanceof CheckpointSolver checkpointSolver) {
+                System.out.println("Resumed layers: " + checkpointSolver.getResumedLayers());
+                System.out.println("Checkpoint bytes: " + checkpointSolver.getCheckpointBytes());
+            }
+            if (solver instanceof PartitionedSolver partitionedSolver) {
+                System.out.println("Workers: " + partitionedSolver.getWorkers() + ", layers: " + partitionedSolver.getLayers());
+                System.out.println("Routed configs: " + partitionedSolver.getRoutedConfigs());
+                System.out.println("Worker off-heap bytes: " + partitionedSolver.getWorkerBytes());
+            }
+            if (solver instanceof BitstateSolver bitstateSolver) {
+                System.out.printf("Bit array fill: %.6f, omission probability: %.3g%n",
+                        bitstateSolver.getFillRatio(), bitstateSolver.getOmissionProbability());
+            }
+            if (solver instanceof CountingSolver countingSolver) {
+                for (CountingSolver.Layer layer : countingSolver.getLayers()) {
+                    System.out.printf("Layer %d: %d configs, %d shortest path moves out, branching %.2f%n",
+                            layer.depth(), layer.configs(), layer.edges(), layer.branching());
+                }
+                System.out.println("Shortest solutions: " + countingSolver.getSolutionCount());
+            }
+            if (reduce) { //a reduced search can reach boards a plain one doesn't, so the plain counts are measured
+                Solver plain = new Solver();
+                plain.solve(hoppersConfig);
+                System.out.println("Skipped transpositions: " + solver.getSkippedConfigs());
+                System.out.printf("Without reduction: %d total, %d unique, ratio %.2f%n", plain.getTotalConfigs(),
+                        plain.getUniqueConfigs(), (double) plain.getTotalConfigs() / plain.getUniqueConfigs());
+                System.out.printf("With reduction: %d total, %d unique, ratio %.2f%n", solver.getTotalConfigs(),
+                        solver.getUniqueConfigs(), (double) solver.getTotalConfigs() / solver.getUniqueConfigs());
+            }
             if(!solution.isEmpty() && solution.get(solution.size() - 1).isSolution()) {
                 for(int stepNum = 0; stepNum < solution.size(); stepNum++) {
                     System.out.println("Step " + stepNum + ": \n" + solution.get(stepNum) + "\n");
@@ -0,0 +1,107 @@
+package puzzles.hoppers.solver;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.PuzzleGenerator;
+import puzzles.common.solver.ReversibleConfiguration;
+import puzzles.hoppers.model.HoppersConfig;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates Hoppers puzzles by un-jumping from a board with only the red frog left, each un-jump adding a green frog.
+ * Every jump removes one green frog, so every solution of a board found n un-jumps back is exactly n jumps long
+ *
+ * @author Kai Fan
+ */
+public final class HoppersGenerator extends PuzzleGenerator {
+    private static final int LEVEL_WIDTH = 64; //every board found is exact, so wider levels only add variety
+    private final int rows; //rows of the boards
+    private final int cols; //cols of the boards
+
+    /**
+     * the constructor of the generator
+     *
+     * @param rows - rows of the boards
+     * @param cols - cols of the boards
+     */
+    public HoppersGenerator(int rows, int cols) {
+        super("hoppers");
+        setLevelWidth(LEVEL_WIDTH);
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    /**
+     * makes a solved board: lily pads on the even cells, and the red frog alone on one of them
+     *
+     * @param random - random numbers of this puzzle
+     * @return the solved board
+     */
+    @Override
+    protected List<ReversibleConfiguration> solutions(Random random) {
+        int pads = (rows * cols + 1) / 2;
+        int red = random.nextInt(pads);
+        ByteBuffer record = ByteBuffer.allocate(4 + rows * cols);
+        record.putShort((short) rows).putShort((short) cols);
+        int pad = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if ((i + j) % 2 != 0) {
+                    record.put((byte) '*');
+                }else{
+                    record.put((byte) (pad++ == red ? 'R' : '.'));
+                }
+            }
+        }
+        return List.of(new HoppersConfig(record.flip()));
+    }
+
+    /**
+     * builds a board from its record
+     *
+     * @param record - the packed board
+     * @return the board
+     */
+    @Override
+    protected Configuration unpack(ByteBuffer record) {
+        return new HoppersConfig(record);
+    }
+
+    /**
+     * packs a board into its record
+     *
+     * @param config - the board
+     * @return the record
+     */
+    @Override
+    protected byte[] pack(Configuration config) {
+        return ((HoppersConfig) config).pack();
+    }
+
+    /**
+     * gets the text of the file of a board
+     *
+     * @param config - the board
+     * @return the file's text
+     */
+    @Override
+    protected String toFileText(Configuration config) {
+        return ((HoppersConfig) config).toFileText();
+    }
+
+    /**
+     * The main method used to generate puzzles
+     *
+     * @param args - rows cols depth count, then the options of PuzzleGenerator
+     * @throws Exception -
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: java HoppersGenerator rows cols depth count [--seed n] [--threads n] [--width n] [--verify] (--out dir | --archive file)");
+        }else{
+            new HoppersGenerator(Integer.parseInt(args[0]), Integer.parseInt(args[1])).run(args, 2, "rows cols");
+        }
+    }
+}